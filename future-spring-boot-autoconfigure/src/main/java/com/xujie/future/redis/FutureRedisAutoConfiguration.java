@@ -1,10 +1,42 @@
 package com.xujie.future.redis;
 
+import com.xujie.future.redis.batch.RedisGetBatcher;
+import com.xujie.future.redis.cluster.ClusterSlotExecutor;
+import com.xujie.future.redis.counter.BufferedCounter;
+import com.xujie.future.redis.delay.RedisDelayedQueue;
+import com.xujie.future.redis.delay.RedisDelayedQueueFactory;
+import com.xujie.future.redis.config.FutureRedisProperties;
+import com.xujie.future.redis.config.RedisCacheAnnotationConfig;
 import com.xujie.future.redis.config.RedisCacheConfig;
+import com.xujie.future.redis.config.RedisHotKeyConfig;
+import com.xujie.future.redis.config.RedisMetricsConfig;
+import com.xujie.future.redis.config.RedisNearCacheConfig;
+import com.xujie.future.redis.config.RedisReactiveConfig;
+import com.xujie.future.redis.config.RedisReadConfig;
+import com.xujie.future.redis.config.RedisShardConfig;
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.keyBuilder.RedisKeyBuilder;
+import com.xujie.future.redis.load.RefreshAheadExecutor;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.read.RedisReadRouter;
+import com.xujie.future.redis.script.RedisScriptRegistry;
 import com.xujie.future.redis.service.RedisService;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import com.xujie.future.redis.stream.RedisStreamConsumer;
+import com.xujie.future.redis.stream.RedisStreamConsumerFactory;
+import com.xujie.future.redis.stream.RedisStreamProducer;
 import com.xujie.future.redis.util.RedisKeyUtil;
+import com.xujie.future.redis.writebehind.WriteBehindBuffer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -12,6 +44,8 @@ import org.springframework.data.redis.core.RedisCommand;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.io.IOException;
+
 /**
  * @author Xujie
  * @since 2025/3/9 16:08
@@ -19,16 +53,136 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 @ConditionalOnClass(RedisTemplate.class)
 @ConditionalOnProperty(prefix = "spring.data.redis", value = "host")
 @Configuration
-@Import({RedisCacheConfig.class})
+@EnableConfigurationProperties(FutureRedisProperties.class)
+// CacheManager 需要在 CacheAutoConfiguration 判断是否已存在之前注册
+@AutoConfigureBefore(value = RedisAutoConfiguration.class, name = "org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration")
+// 指标配置依赖 MeterRegistry bean 是否存在，需要在其注册之后判断
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@Import({RedisCacheConfig.class, RedisNearCacheConfig.class, RedisReactiveConfig.class, RedisHotKeyConfig.class,
+        RedisMetricsConfig.class, RedisShardConfig.class, RedisReadConfig.class, RedisCacheAnnotationConfig.class})
 public class FutureRedisAutoConfiguration {
 
     @Bean
-    public RedisKeyUtil redisKeyUtil(RedisTemplate<String, Object> redisTemplate) {
-        return new RedisKeyUtil(redisTemplate);
+    public RedisKeyUtil redisKeyUtil(RedisTemplate<String, Object> redisTemplate, ClusterSlotExecutor clusterSlotExecutor,
+                                     ObjectProvider<RedisMetrics> redisMetrics, ObjectProvider<RedisShardRouter> shardRouter,
+                                     ObjectProvider<NearCache> nearCache, ObjectProvider<HotKeyDetector> hotKeyDetector) {
+        RedisKeyUtil redisKeyUtil = new RedisKeyUtil(redisTemplate);
+        redisKeyUtil.setSlotExecutor(clusterSlotExecutor);
+        redisKeyUtil.setMetrics(redisMetrics.getIfAvailable());
+        redisKeyUtil.setShardRouter(shardRouter.getIfAvailable());
+        redisKeyUtil.setNearCache(nearCache.getIfAvailable());
+        redisKeyUtil.setHotKeyDetector(hotKeyDetector.getIfAvailable());
+        return redisKeyUtil;
+    }
+
+    @Bean
+    public ClusterSlotExecutor clusterSlotExecutor(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties,
+                                                   ObjectProvider<RedisShardRouter> shardRouter) {
+        FutureRedisProperties.Cluster cluster = properties.getCluster();
+        ClusterSlotExecutor clusterSlotExecutor = new ClusterSlotExecutor(redisTemplate, cluster.getParallelism(), cluster.getTopologyRefresh());
+        clusterSlotExecutor.setShardRouter(shardRouter.getIfAvailable());
+        return clusterSlotExecutor;
+    }
+
+    @Bean
+    public RedisService redisService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, RedisKeyUtil redisKeyUtil,
+                                     FutureRedisProperties properties, ObjectProvider<NearCache> nearCache,
+                                     ObjectProvider<RedisGetBatcher> getBatcher, RefreshAheadExecutor refreshAheadExecutor,
+                                     RedisScriptRegistry redisScriptRegistry, ClusterSlotExecutor clusterSlotExecutor,
+                                     ObjectProvider<HotKeyDetector> hotKeyDetector, ObjectProvider<RedisMetrics> redisMetrics,
+                                     ObjectProvider<RedisShardRouter> shardRouter, ObjectProvider<RedisReadRouter> readRouter) {
+        RedisService redisService = new RedisService(redisTemplate, stringRedisTemplate, redisKeyUtil);
+        redisService.setNearCache(nearCache.getIfAvailable());
+        redisService.setHotKeyDetector(hotKeyDetector.getIfAvailable());
+        redisService.setGetBatcher(getBatcher.getIfAvailable(), properties.getBatch().getTimeout().toMillis());
+        redisService.setLoadProperties(properties.getLoad());
+        redisService.setRefreshExecutor(refreshAheadExecutor, properties.getRefresh().getBeta());
+        redisService.setScriptRegistry(redisScriptRegistry);
+        redisService.setSlotExecutor(clusterSlotExecutor);
+        redisService.setPipelineChunkSize(properties.getPipeline().getChunkSize());
+        redisService.setHashFieldTtl(properties.getHash().isFieldTtl());
+        redisService.setMetrics(redisMetrics.getIfAvailable());
+        redisService.setShardRouter(shardRouter.getIfAvailable());
+        redisService.setReadRouter(readRouter.getIfAvailable());
+        return redisService;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisKeyBuilder redisKeyBuilder(@Value("${spring.application.name:}") String applicationName) {
+        return new RedisKeyBuilder(applicationName);
+    }
+
+    @Bean
+    public RedisScriptRegistry redisScriptRegistry(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties) throws IOException {
+        RedisScriptRegistry registry = new RedisScriptRegistry(redisTemplate);
+        registry.load(properties.getScript().getLocations());
+        return registry;
+    }
+
+    @Bean
+    public RefreshAheadExecutor refreshAheadExecutor(FutureRedisProperties properties) {
+        FutureRedisProperties.Refresh refresh = properties.getRefresh();
+        return new RefreshAheadExecutor(refresh.getThreads(), refresh.getQueueCapacity());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "future.redis.counter", name = "enabled", havingValue = "true")
+    public BufferedCounter bufferedCounter(RedisService redisService, FutureRedisProperties properties) {
+        FutureRedisProperties.Counter counter = properties.getCounter();
+        return new BufferedCounter(redisService, counter.getFlushInterval(), counter.getFlushThreshold());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "future.redis.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindBuffer writeBehindBuffer(RedisService redisService, FutureRedisProperties properties) {
+        FutureRedisProperties.WriteBehind writeBehind = properties.getWriteBehind();
+        WriteBehindBuffer buffer = new WriteBehindBuffer(redisService, writeBehind.getCapacity(), writeBehind.getBatchSize(),
+                writeBehind.getFlushInterval(), writeBehind.getOfferTimeout());
+        redisService.setWriteBehind(buffer);
+        return buffer;
+    }
+
+    @Bean
+    public RedisStreamProducer redisStreamProducer(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties) {
+        return new RedisStreamProducer(redisTemplate, properties.getStream().getMaxLen(), properties.getPipeline().getChunkSize());
+    }
+
+    @Bean
+    public RedisStreamConsumerFactory redisStreamConsumerFactory(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties) {
+        FutureRedisProperties.Stream stream = properties.getStream();
+        RedisStreamConsumer.Options options = new RedisStreamConsumer.Options()
+                .batchSize(stream.getBatchSize())
+                .block(stream.getBlock())
+                .concurrency(stream.getConcurrency())
+                .claimMinIdle(stream.getClaimMinIdle())
+                .claimInterval(stream.getClaimInterval())
+                .maxDeliveries(stream.getMaxDeliveries());
+        return new RedisStreamConsumerFactory(redisTemplate, options);
+    }
+
+    @Bean
+    public RedisDelayedQueueFactory redisDelayedQueueFactory(RedisTemplate<String, Object> redisTemplate, RedisScriptRegistry redisScriptRegistry,
+                                                             FutureRedisProperties properties, ObjectProvider<RedisMetrics> redisMetrics) {
+        FutureRedisProperties.DelayQueue delayQueue = properties.getDelayQueue();
+        RedisDelayedQueue.Options options = new RedisDelayedQueue.Options()
+                .batchSize(delayQueue.getBatchSize())
+                .concurrency(delayQueue.getConcurrency())
+                .visibilityTimeout(delayQueue.getVisibilityTimeout())
+                .maxAttempts(delayQueue.getMaxAttempts())
+                .retryDelay(delayQueue.getRetryDelay())
+                .minPollInterval(delayQueue.getMinPollInterval())
+                .maxPollInterval(delayQueue.getMaxPollInterval());
+        RedisMetrics metrics = redisMetrics.getIfAvailable();
+        return new RedisDelayedQueueFactory(redisTemplate, redisScriptRegistry, options, metrics == null ? null : metrics.getRegistry());
     }
 
     @Bean
-    public RedisService redisService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, RedisKeyUtil redisKeyUtil) {
-        return new RedisService(redisTemplate, stringRedisTemplate, redisKeyUtil);
+    @ConditionalOnProperty(prefix = "future.redis.batch", name = "enabled", havingValue = "true")
+    public RedisGetBatcher redisGetBatcher(ObjectProvider<RedisService> redisService, FutureRedisProperties properties) {
+        FutureRedisProperties.Batch batch = properties.getBatch();
+        // 通过 RedisService.multiGet 查询，与单key读取一样走分片、集群拆分和副本读路由，并记录指标
+        return new RedisGetBatcher(keys -> redisService.getObject().multiGet(keys), batch.getWindow(),
+                batch.getMaxBatchSize(), batch.getQueueCapacity(), batch.getParallelism());
     }
 }
@@ -0,0 +1,179 @@
+package com.xujie.future.redis.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * 单key GET 合并器
+ * <p>
+ * 调用方提交的key先进入队列，收集线程在一个很短的时间窗口内(或凑满 maxBatchSize 个)取出，
+ * 去重后通过一次 MGET 查询，再把结果分发给各自的调用方。查询在独立的线程池中执行，
+ * 线程池满时由收集线程自己执行，形成背压。关闭时已收集和仍在队列中的请求都会完成查询，不会一直等待。
+ *
+ * @author Xujie
+ * @since 2025/4/18 14:05
+ **/
+@Slf4j
+public class RedisGetBatcher implements DisposableBean {
+
+    private final Function<List<String>, List<Object>> loader;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingGet> queue;
+
+    private final ExecutorService flushExecutor;
+
+    private final Thread collector;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param loader        批量查询，返回结果与传入key一一对应
+     * @param window        收集时间窗口
+     * @param maxBatchSize  单批最大key数量
+     * @param queueCapacity 等待队列容量
+     * @param parallelism   同时进行的批量查询数
+     */
+    public RedisGetBatcher(Function<List<String>, List<Object>> loader, Duration window, int maxBatchSize,
+                           int queueCapacity, int parallelism) {
+        this.loader = loader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // 线程池满或已关闭时由提交线程执行，CallerRunsPolicy 在关闭后会直接丢弃，等待的调用方将一直阻塞
+        this.flushExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), namedThreadFactory("future-redis-mget-"), (task, executor) -> task.run());
+        this.collector = namedThreadFactory("future-redis-get-batcher-").newThread(this::collect);
+        this.collector.start();
+    }
+
+    /**
+     * 提交查询
+     *
+     * @param key 键
+     * @return 结果，队列已满或已关闭时返回null，由调用方直接查询
+     */
+    public CompletableFuture<Object> submit(String key) {
+        if (!running) {
+            return null;
+        }
+        PendingGet pending = new PendingGet(key);
+        if (!queue.offer(pending)) {
+            return null;
+        }
+        // 与 destroy 并发时，未被 destroy 取走的请求由调用方直接查询
+        if (!running && queue.remove(pending)) {
+            return null;
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        collector.interrupt();
+        collector.join(TimeUnit.SECONDS.toMillis(1));
+        flushExecutor.shutdown();
+        List<PendingGet> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    private void collect() {
+        while (running) {
+            List<PendingGet> batch = new ArrayList<>(maxBatchSize);
+            try {
+                PendingGet first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingGet next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                flushExecutor.execute(() -> flush(batch));
+            } catch (InterruptedException e) {
+                // 关闭时正在收集的一批直接查询，完成后再恢复中断标记
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("redis get batcher error", e);
+                for (PendingGet pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void flush(List<PendingGet> batch) {
+        // 同一批中重复的key只查询一次
+        Map<String, List<PendingGet>> waiters = new LinkedHashMap<>(batch.size() * 2);
+        for (PendingGet pending : batch) {
+            waiters.computeIfAbsent(pending.key, k -> new ArrayList<>(1)).add(pending);
+        }
+        List<String> keys = new ArrayList<>(waiters.keySet());
+        try {
+            List<Object> values = loader.apply(keys);
+            if (values == null || values.size() != keys.size()) {
+                throw new IllegalStateException("redis multi get returned unexpected result");
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                Object value = values.get(i);
+                for (PendingGet pending : waiters.get(keys.get(i))) {
+                    pending.future.complete(value);
+                }
+            }
+        } catch (Throwable e) {
+            for (PendingGet pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        return new ThreadFactory() {
+            private int index;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + index++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static class PendingGet {
+
+        private final String key;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        PendingGet(String key) {
+            this.key = key;
+        }
+    }
+}
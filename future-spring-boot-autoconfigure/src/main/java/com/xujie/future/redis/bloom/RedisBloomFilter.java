@@ -0,0 +1,307 @@
+package com.xujie.future.redis.bloom;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 基于 Redis bitmap 的布隆过滤器
+ * <p>
+ * 位数组保存在一个 key 中，各节点共享；每个元素用 murmur3_128 的两个64位结果组合出 k 个位置(与 Guava BloomFilter 相同)，
+ * k 次 SETBIT/GETBIT 在一个 pipeline 中发送，批量方法把多个元素的命令合并到同一个 pipeline。
+ * 判断为不存在时一定不存在，判断为存在时有 fpp 的概率误判。
+ * <p>
+ * {@link #rebuild(Stream)} 写入临时 key 后 RENAME 替换，重建期间旧数据照常使用；
+ * 临时 key 与正式 key 使用相同的 hash tag，集群下位于同一 slot。
+ * 所有节点必须使用相同的 expectedInsertions/fpp，否则位置计算不一致。
+ *
+ * @author Xujie
+ * @since 2025/5/6 14:10
+ **/
+@Slf4j
+public class RedisBloomFilter {
+
+    /**
+     * Redis 单个 bitmap 最多 2^32 位(512MB)
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    /**
+     * 批量操作每个 pipeline 包含的元素数
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private final RedisOperations<String, ?> redisOperations;
+
+    private final String key;
+
+    private final byte[] rawKey;
+
+    private final long numBits;
+
+    private final int numHashFunctions;
+
+    /**
+     * 重建中的临时 key，重建期间本节点的写入同时写入该key
+     */
+    private volatile byte[] rebuildingKey;
+
+    /**
+     * @param redisOperations    Redis 操作，只使用其 key 序列化器
+     * @param key                位数组的 key
+     * @param expectedInsertions 预计元素数量
+     * @param fpp                期望误判率，0~1 之间
+     */
+    public RedisBloomFilter(RedisOperations<String, ?> redisOperations, String key, long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1");
+        }
+        this.redisOperations = redisOperations;
+        this.key = key;
+        this.rawKey = serializeKey(key);
+        this.numBits = Math.min(MAX_BITS, optimalNumBits(expectedInsertions, fpp));
+        this.numHashFunctions = optimalNumHashFunctions(expectedInsertions, numBits);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 位数组长度
+     */
+    public long getNumBits() {
+        return numBits;
+    }
+
+    /**
+     * 每个元素设置的位数
+     */
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String value) {
+        putAll(Collections.singletonList(value));
+    }
+
+    /**
+     * 批量添加元素
+     *
+     * @param values 元素
+     */
+    public void putAll(Collection<String> values) {
+        byte[] rebuilding = rebuildingKey;
+        List<String> batch = new ArrayList<>(Math.min(values.size(), BATCH_SIZE));
+        for (String value : values) {
+            batch.add(value);
+            if (batch.size() >= BATCH_SIZE) {
+                setBits(rawKey, rebuilding, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            setBits(rawKey, rebuilding, batch);
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @return false 一定不存在 true 可能存在
+     */
+    public boolean mightContain(String value) {
+        return mightContainAll(Collections.singletonList(value)).get(0);
+    }
+
+    /**
+     * 批量判断元素是否可能存在
+     *
+     * @param values 元素
+     * @return 与 values 顺序一致
+     */
+    public List<Boolean> mightContainAll(Collection<String> values) {
+        List<Boolean> result = new ArrayList<>(values.size());
+        List<String> batch = new ArrayList<>(Math.min(values.size(), BATCH_SIZE));
+        for (String value : values) {
+            batch.add(value);
+            if (batch.size() >= BATCH_SIZE) {
+                getBits(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            getBits(batch, result);
+        }
+        return result;
+    }
+
+    /**
+     * 根据已设置的位数(BITCOUNT)估算元素数量
+     */
+    public long approximateElementCount() {
+        Long bitCount = redisOperations.execute((RedisCallback<Long>) connection -> connection.stringCommands().bitCount(rawKey));
+        if (bitCount == null || bitCount == 0) {
+            return 0;
+        }
+        double fractionOfBitsSet = (double) bitCount / numBits;
+        return Math.round(-Math.log1p(-fractionOfBitsSet) * numBits / numHashFunctions);
+    }
+
+    /**
+     * 从数据源全量重建，完成后替换现有数据
+     * <p>
+     * 重建期间查询仍使用旧数据；本节点同时进行的 put 会同时写入新旧两份，其他节点的写入可能丢失，
+     * 应在数据源中能查到这些元素后再重建。
+     *
+     * @param values 全部元素，例如数据库游标查询的结果，调用方负责关闭
+     * @return 写入的元素数量
+     */
+    public synchronized long rebuild(Stream<String> values) {
+        String tempKey = rebuildKey();
+        byte[] rawTempKey = serializeKey(tempKey);
+        redisOperations.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(rawTempKey));
+        rebuildingKey = rawTempKey;
+        long count = 0;
+        try {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            Iterator<String> iterator = values.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= BATCH_SIZE || !iterator.hasNext()) {
+                    setBits(rawTempKey, null, batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (count == 0) {
+                redisOperations.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(rawKey));
+            } else {
+                redisOperations.execute((RedisCallback<Object>) connection -> {
+                    connection.keyCommands().rename(rawTempKey, rawKey);
+                    return null;
+                });
+            }
+            log.info("redis bloom filter {} rebuilt with {} elements", key, count);
+            return count;
+        } catch (RuntimeException e) {
+            redisOperations.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(rawTempKey));
+            throw e;
+        } finally {
+            rebuildingKey = null;
+        }
+    }
+
+    private void setBits(byte[] target, byte[] rebuilding, List<String> values) {
+        long[] offsets = new long[numHashFunctions];
+        redisOperations.executePipelined((RedisCallback<Object>) connection -> {
+            for (String value : values) {
+                offsets(value, offsets);
+                for (long offset : offsets) {
+                    connection.stringCommands().setBit(target, offset, true);
+                    if (rebuilding != null) {
+                        connection.stringCommands().setBit(rebuilding, offset, true);
+                    }
+                }
+            }
+            return null;
+        }, null);
+    }
+
+    private void getBits(List<String> values, List<Boolean> result) {
+        long[] offsets = new long[numHashFunctions];
+        List<Object> bits = redisOperations.executePipelined((RedisCallback<Object>) connection -> {
+            for (String value : values) {
+                offsets(value, offsets);
+                for (long offset : offsets) {
+                    connection.stringCommands().getBit(rawKey, offset);
+                }
+            }
+            return null;
+        }, null);
+        if (bits.size() != values.size() * numHashFunctions) {
+            throw new IllegalStateException("redis bloom filter expected " + values.size() * numHashFunctions
+                    + " replies but got " + bits.size());
+        }
+        int index = 0;
+        for (int i = 0; i < values.size(); i++) {
+            boolean present = true;
+            for (int j = 0; j < numHashFunctions; j++) {
+                if (!Boolean.TRUE.equals(bits.get(index++))) {
+                    present = false;
+                }
+            }
+            result.add(present);
+        }
+    }
+
+    /**
+     * 计算元素对应的位置，与 Guava BloomFilter 的 MURMUR128_MITZ_64 策略相同
+     */
+    private void offsets(String value, long[] offsets) {
+        byte[] bytes = HASH.hashString(value, StandardCharsets.UTF_8).asBytes();
+        long hash1 = littleEndianLong(bytes, 0);
+        long hash2 = littleEndianLong(bytes, 8);
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            offsets[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+            combinedHash += hash2;
+        }
+    }
+
+    /**
+     * 与正式 key 位于同一 slot 的临时 key：正式 key 带 hash tag 时直接追加后缀，否则以整个 key 作为 hash tag
+     */
+    private String rebuildKey() {
+        int open = key.indexOf('{');
+        int close = open < 0 ? -1 : key.indexOf('}', open + 1);
+        if (close > open + 1) {
+            return key + ":rebuild";
+        }
+        return "{" + key + "}:rebuild";
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String value) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisOperations.getKeySerializer();
+        return keySerializer == null ? value.getBytes(StandardCharsets.UTF_8) : keySerializer.serialize(value);
+    }
+
+    private static long littleEndianLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    /**
+     * 最少64位，元素很少且误判率接近1时公式结果可能为0
+     */
+    static long optimalNumBits(long n, double p) {
+        return Math.max(64, (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+    }
+
+    static int optimalNumHashFunctions(long n, long m) {
+        return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+}
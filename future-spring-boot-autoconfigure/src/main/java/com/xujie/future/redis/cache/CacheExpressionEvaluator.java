@@ -0,0 +1,107 @@
+package com.xujie.future.redis.cache;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存注解的 SpEL 求值，解析后的表达式按字符串缓存
+ *
+ * @author Xujie
+ * @since 2025/5/16 11:10
+ **/
+class CacheExpressionEvaluator {
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    private final BeanFactory beanFactory;
+
+    CacheExpressionEvaluator(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * 方法调用的求值上下文，可以使用 #参数名(需 -parameters 编译)、#p0、#a0、#root.method、#root.target 与 &#64;bean
+     */
+    EvaluationContext context(Method method, Object[] args, Object target) {
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(new Root(method, args, target), method, args,
+                parameterNameDiscoverer);
+        if (beanFactory != null) {
+            context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        }
+        return context;
+    }
+
+    /**
+     * 以 root 为根对象的上下文，用于从批量结果的元素中取id
+     */
+    EvaluationContext itemContext() {
+        return new StandardEvaluationContext();
+    }
+
+    Object evaluate(String expression, EvaluationContext context) {
+        return parse(expression).getValue(context);
+    }
+
+    Object evaluate(String expression, EvaluationContext context, Object root) {
+        return parse(expression).getValue(context, root);
+    }
+
+    boolean condition(String expression, EvaluationContext context) {
+        return Boolean.TRUE.equals(parse(expression).getValue(context, Boolean.class));
+    }
+
+    private Expression parse(String expression) {
+        Expression parsed = expressions.get(expression);
+        return parsed != null ? parsed : expressions.computeIfAbsent(expression, parser::parseExpression);
+    }
+
+    /**
+     * 表达式根对象
+     */
+    public static final class Root {
+
+        private final Method method;
+
+        private final Object[] args;
+
+        private final Object target;
+
+        Root(Method method, Object[] args, Object target) {
+            this.method = method;
+            this.args = args;
+            this.target = target;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public String getMethodName() {
+            return method.getName();
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+
+        public Object getTarget() {
+            return target;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.keyBuilder.KeyNamespace;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存区域：key 命名空间、读写方式与过期策略，由 {@link CacheRegionRegistry} 创建
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:40
+ **/
+public class CacheRegion {
+
+    private final String name;
+
+    private final KeyNamespace namespace;
+
+    private final CacheStore store;
+
+    private final long ttlMillis;
+
+    private final double jitter;
+
+    private final boolean cacheNull;
+
+    private final long nullTtlMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    CacheRegion(String name, KeyNamespace namespace, CacheStore store, long ttlMillis, double jitter, boolean cacheNull,
+                long nullTtlMillis) {
+        this.name = name;
+        this.namespace = namespace;
+        this.store = store;
+        this.ttlMillis = ttlMillis;
+        this.jitter = jitter;
+        this.cacheNull = cacheNull;
+        this.nullTtlMillis = nullTtlMillis;
+    }
+
+    /**
+     * 区域内的完整key
+     */
+    public String key(Object id) {
+        return namespace.key(id);
+    }
+
+    /**
+     * 本次写入的过期时间(毫秒)，在配置值上随机增加 0~jitter 比例，小于等于0为永不过期
+     */
+    public long nextTtlMillis() {
+        return jittered(ttlMillis);
+    }
+
+    /**
+     * 按指定过期时间加上抖动
+     *
+     * @param ttlMillis 过期时间(毫秒) 小于等于0为永不过期
+     */
+    public long jittered(long ttlMillis) {
+        if (ttlMillis <= 0 || jitter <= 0) {
+            return ttlMillis;
+        }
+        return ttlMillis + (long) (ttlMillis * jitter * ThreadLocalRandom.current().nextDouble());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public KeyNamespace getNamespace() {
+        return namespace;
+    }
+
+    public CacheStore getStore() {
+        return store;
+    }
+
+    public boolean isCacheNull() {
+        return cacheNull;
+    }
+
+    public long getNullTtlMillis() {
+        return nullTtlMillis;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    void hit(int count) {
+        hitCount.add(count);
+    }
+
+    void miss(int count) {
+        missCount.add(count);
+    }
+}
@@ -0,0 +1,151 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.config.FutureRedisProperties;
+import com.xujie.future.redis.keyBuilder.RedisKeyBuilder;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.service.RedisService;
+import com.xujie.future.redis.util.RedisKeyUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 future.redis.cache 创建并缓存各区域，key 前缀为 {@code 应用名:cache:区域:}
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:50
+ **/
+@Slf4j
+public class CacheRegionRegistry {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisKeyUtil redisKeyUtil;
+
+    private final RedisKeyBuilder redisKeyBuilder;
+
+    private final FutureRedisProperties.Cache properties;
+
+    private final NearCache nearCache;
+
+    private final BeanFactory beanFactory;
+
+    private final CacheStore defaultStore;
+
+    private final Map<String, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param nearCache   本地缓存 未开启时为null，区域的本地缓存配置不生效
+     * @param beanFactory 查找区域配置的序列化器
+     */
+    public CacheRegionRegistry(RedisService redisService, RedisTemplate<String, Object> redisTemplate, RedisKeyUtil redisKeyUtil,
+                               RedisKeyBuilder redisKeyBuilder, FutureRedisProperties.Cache properties, NearCache nearCache,
+                               BeanFactory beanFactory) {
+        this.redisTemplate = redisTemplate;
+        this.redisKeyUtil = redisKeyUtil;
+        this.redisKeyBuilder = redisKeyBuilder;
+        this.properties = properties;
+        this.nearCache = nearCache;
+        this.beanFactory = beanFactory;
+        this.defaultStore = new RedisServiceCacheStore(redisService);
+        validate("future.redis.cache.defaults", properties.getDefaults());
+        properties.getRegions().forEach((name, config) -> validate("future.redis.cache.regions." + name, config));
+    }
+
+    /**
+     * 获取区域，首次使用时按配置创建
+     *
+     * @param name 区域名
+     */
+    public CacheRegion region(String name) {
+        CacheRegion region = regions.get(name);
+        return region != null ? region : regions.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * 已创建的区域
+     */
+    public Collection<CacheRegion> getRegions() {
+        return regions.values();
+    }
+
+    /**
+     * 注册各区域的命中、未命中次数，之后创建的区域同样注册
+     */
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        regions.values().forEach(region -> bind(region, registry));
+    }
+
+    /**
+     * 删除区域内的所有key
+     *
+     * @return 删除的数量
+     */
+    public long clear(CacheRegion region) {
+        return redisKeyUtil.deleteByPattern(region.getNamespace().getPrefix() + "*", 1000);
+    }
+
+    /**
+     * 空值过期时间小于等于0会写入永不过期的空值标记，启动时拒绝
+     */
+    private static void validate(String path, FutureRedisProperties.CacheRegion config) {
+        if (config.isCacheNull() && config.getNullTtl().toMillis() <= 0) {
+            throw new IllegalArgumentException(path + ".null-ttl must be at least 1ms when cache-null is enabled");
+        }
+    }
+
+    private CacheRegion create(String name) {
+        FutureRedisProperties.CacheRegion config = properties.getRegions().getOrDefault(name, properties.getDefaults());
+        CacheRegion region = new CacheRegion(name, redisKeyBuilder.namespace("cache", name), store(name, config),
+                config.getTtl().toMillis(), config.getJitter(), config.isCacheNull(), config.getNullTtl().toMillis());
+        if (config.isLocal()) {
+            if (nearCache != null && !StringUtils.hasText(config.getSerializer())) {
+                nearCache.addRegion(region.getNamespace().getPrefix(), config.getLocalMaximumSize(), config.getLocalTtl());
+            } else {
+                log.warn("redis cache region {} local tier ignored, requires future.redis.local.enabled=true and the default serializer", name);
+            }
+        }
+        MeterRegistry registry = this.meterRegistry;
+        if (registry != null) {
+            bind(region, registry);
+        }
+        return region;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheStore store(String name, FutureRedisProperties.CacheRegion config) {
+        if (!StringUtils.hasText(config.getSerializer())) {
+            return defaultStore;
+        }
+        RedisSerializer<Object> serializer = beanFactory.getBean(config.getSerializer(), RedisSerializer.class);
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisTemplate.getConnectionFactory());
+        template.setKeySerializer(redisTemplate.getKeySerializer());
+        template.setValueSerializer(serializer);
+        template.setHashKeySerializer(redisTemplate.getHashKeySerializer());
+        template.setHashValueSerializer(serializer);
+        template.afterPropertiesSet();
+        log.info("redis cache region {} uses serializer {}", name, config.getSerializer());
+        return new TemplateCacheStore(template);
+    }
+
+    private static void bind(CacheRegion region, MeterRegistry registry) {
+        FunctionCounter.builder("future.redis.cache.hits", region, CacheRegion::getHitCount)
+                .tag("region", region.getName())
+                .register(registry);
+        FunctionCounter.builder("future.redis.cache.misses", region, CacheRegion::getMissCount)
+                .tag("region", region.getName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.xujie.future.redis.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存区域的读写方式
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:20
+ **/
+public interface CacheStore {
+
+    /**
+     * 读取，不存在时为null
+     */
+    Object get(String key);
+
+    /**
+     * 批量读取，结果与 keys 一一对应，不存在的为null
+     */
+    List<Object> multiGet(List<String> keys);
+
+    /**
+     * 写入
+     *
+     * @param ttlMillis 过期时间(毫秒) 小于等于0为永不过期
+     */
+    void set(String key, Object value, long ttlMillis);
+
+    /**
+     * key 不存在时写入(SET NX)
+     *
+     * @param ttlMillis 过期时间(毫秒) 小于等于0为永不过期
+     * @return 是否写入
+     */
+    boolean setIfAbsent(String key, Object value, long ttlMillis);
+
+    /**
+     * 在一个 pipeline 中批量写入
+     *
+     * @param values    键值
+     * @param ttlMillis 每个key的过期时间(毫秒)
+     */
+    void setAll(Map<String, Object> values, Map<String, Long> ttlMillis);
+
+    /**
+     * 删除
+     */
+    void delete(Collection<String> keys);
+}
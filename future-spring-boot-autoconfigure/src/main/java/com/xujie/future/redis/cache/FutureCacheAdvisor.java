@@ -0,0 +1,28 @@
+package com.xujie.future.redis.cache;
+
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+
+import java.lang.reflect.Method;
+
+/**
+ * 匹配带有缓存注解的方法
+ *
+ * @author Xujie
+ * @since 2025/5/16 14:00
+ **/
+public class FutureCacheAdvisor extends StaticMethodMatcherPointcutAdvisor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FutureCacheInterceptor interceptor;
+
+    public FutureCacheAdvisor(FutureCacheInterceptor interceptor) {
+        super(interceptor);
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return interceptor.hasOperations(method, targetClass);
+    }
+}
@@ -0,0 +1,44 @@
+package com.xujie.future.redis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 删除缓存，默认在方法成功返回后删除
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:08
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface FutureCacheEvict {
+
+    /**
+     * 缓存区域
+     */
+    String region();
+
+    /**
+     * key 的 SpEL 表达式，结果为集合时删除其中每个元素对应的key；为空时使用参数值
+     */
+    String key() default "";
+
+    /**
+     * 满足时才删除的 SpEL 表达式
+     */
+    String condition() default "";
+
+    /**
+     * 删除区域内所有key(SCAN 后分批删除)，忽略 key
+     */
+    boolean allEntries() default false;
+
+    /**
+     * 在方法执行前删除，方法抛出异常时也会生效
+     */
+    boolean beforeInvocation() default false;
+}
@@ -0,0 +1,453 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.load.NullValue;
+import com.xujie.future.redis.load.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.EvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理 {@link FutureCacheable}、{@link FutureCachePut}、{@link FutureCacheEvict}
+ * <p>
+ * 读写缓存失败时记录日志并按未命中处理，不影响方法执行；删除失败时抛出异常，避免调用方误以为缓存已失效。
+ * 同一方法上的注解按 删除(beforeInvocation) → 读取 → 执行 → 写入 → 删除 的顺序处理。
+ *
+ * @author Xujie
+ * @since 2025/5/16 11:30
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class FutureCacheInterceptor implements MethodInterceptor {
+
+    private static final CacheOperations NONE = new CacheOperations(null, null, null, null, -1);
+
+    private final ObjectProvider<CacheRegionRegistry> registryProvider;
+
+    private final CacheExpressionEvaluator evaluator;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final Map<MethodClassKey, CacheOperations> operationsCache = new ConcurrentHashMap<>();
+
+    private volatile CacheRegionRegistry registry;
+
+    /**
+     * @param registryProvider 区域，首次调用时获取，避免代理创建阶段提前初始化 RedisService
+     * @param beanFactory      SpEL 中 &#64;bean 引用
+     */
+    public FutureCacheInterceptor(ObjectProvider<CacheRegionRegistry> registryProvider, BeanFactory beanFactory) {
+        this.registryProvider = registryProvider;
+        this.evaluator = new CacheExpressionEvaluator(beanFactory);
+    }
+
+    /**
+     * 方法上是否有缓存注解
+     */
+    public boolean hasOperations(Method method, Class<?> targetClass) {
+        return operations(method, targetClass) != NONE;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : invocation.getMethod().getDeclaringClass();
+        CacheOperations operations = operations(invocation.getMethod(), targetClass);
+        if (operations == NONE) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArguments();
+        EvaluationContext context = evaluator.context(operations.method, args, target);
+        FutureCacheEvict evict = operations.evict;
+        if (evict != null && evict.beforeInvocation()) {
+            evict(evict, operations, args, context);
+        }
+        Object result;
+        FutureCacheable cacheable = operations.cacheable;
+        if (cacheable != null && condition(cacheable.condition(), context)) {
+            CacheRegion region = registry().region(cacheable.region());
+            result = cacheable.batch()
+                    ? batch(invocation, cacheable, operations, region, args, context)
+                    : cacheable(invocation, cacheable, region, key(cacheable.key(), args, context), cacheable.ttl());
+        } else {
+            result = invocation.proceed();
+        }
+        context.setVariable("result", result);
+        FutureCachePut put = operations.put;
+        if (put != null && condition(put.condition(), context)) {
+            CacheRegion region = registry().region(put.region());
+            write(region, region.key(key(put.key(), args, context)), result, put.ttl());
+        }
+        if (evict != null && !evict.beforeInvocation()) {
+            evict(evict, operations, args, context);
+        }
+        return result;
+    }
+
+    private Object cacheable(MethodInvocation invocation, FutureCacheable cacheable, CacheRegion region, Object id, long ttl)
+            throws Throwable {
+        String key = region.key(id);
+        Object cached = read(region, key);
+        if (cached != null) {
+            region.hit(1);
+            return NullValue.isNull(cached) ? null : cached;
+        }
+        region.miss(1);
+        try {
+            return singleFlight.execute(key, () -> {
+                // 上一轮加载可能刚刚完成
+                Object current = read(region, key);
+                if (current != null) {
+                    return NullValue.isNull(current) ? null : current;
+                }
+                Object value = proceed(invocation);
+                write(region, key, value, ttl);
+                return value;
+            });
+        } catch (InvocationFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 批量读取：MGET 全部id，只用未命中的id调用方法，结果在一个 pipeline 中写回
+     */
+    private Object batch(MethodInvocation invocation, FutureCacheable cacheable, CacheOperations operations, CacheRegion region,
+                         Object[] args, EvaluationContext context) throws Throwable {
+        Collection<Object> ids = (Collection<Object>) args[operations.batchIndex];
+        if (ids == null || ids.isEmpty() || !(invocation instanceof ProxyMethodInvocation)) {
+            return invocation.proceed();
+        }
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Object, String> keys = new LinkedHashMap<>();
+        for (Object id : distinct) {
+            Object keyValue = id;
+            if (!cacheable.key().isEmpty()) {
+                context.setVariable("id", id);
+                keyValue = evaluator.evaluate(cacheable.key(), context);
+            }
+            keys.put(id, region.key(keyValue));
+        }
+        List<Object> cached = readAll(region, new ArrayList<>(keys.values()));
+        Map<Object, Object> values = new HashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            Object value = cached.get(i);
+            if (value != null) {
+                values.put(distinct.get(i), value);
+            } else {
+                misses.add(distinct.get(i));
+            }
+        }
+        region.hit(distinct.size() - misses.size());
+        region.miss(misses.size());
+        if (!misses.isEmpty()) {
+            Object[] loadArgs = args.clone();
+            loadArgs[operations.batchIndex] = operations.batchParameterIsList ? misses : new LinkedHashSet<>(misses);
+            Object loaded = ((ProxyMethodInvocation) invocation).invocableClone(loadArgs).proceed();
+            Map<Object, Object> loadedById = byId(loaded, misses, cacheable, operations);
+            Map<String, Object> writes = new LinkedHashMap<>();
+            Map<String, Long> ttls = new HashMap<>();
+            for (Object id : misses) {
+                Object value = loadedById.get(id);
+                String key = keys.get(id);
+                if (value != null) {
+                    values.put(id, value);
+                    writes.put(key, value);
+                    ttls.put(key, ttlMillis(region, cacheable.ttl()));
+                } else if (region.isCacheNull()) {
+                    writes.put(key, NullValue.MARKER);
+                    ttls.put(key, region.getNullTtlMillis());
+                }
+            }
+            writeAll(region, writes, ttls);
+        }
+        return assemble(ids, values, operations.batchReturnsMap, !cacheable.itemId().isEmpty());
+    }
+
+    /**
+     * 把方法结果按id对应
+     */
+    private Map<Object, Object> byId(Object loaded, List<Object> ids, FutureCacheable cacheable, CacheOperations operations) {
+        Map<Object, Object> loadedById = new HashMap<>();
+        if (loaded == null) {
+            return loadedById;
+        }
+        if (loaded instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) loaded;
+            for (Object id : ids) {
+                loadedById.put(id, map.get(id));
+            }
+            return loadedById;
+        }
+        Collection<Object> items = (Collection<Object>) loaded;
+        if (!cacheable.itemId().isEmpty()) {
+            EvaluationContext itemContext = evaluator.itemContext();
+            for (Object item : items) {
+                if (item != null) {
+                    loadedById.put(evaluator.evaluate(cacheable.itemId(), itemContext, item), item);
+                }
+            }
+            return loadedById;
+        }
+        if (items.size() != ids.size()) {
+            throw new IllegalStateException("@FutureCacheable(batch = true) method " + operations.method
+                    + " returned " + items.size() + " items for " + ids.size() + " ids, set itemId to match items by id");
+        }
+        int i = 0;
+        for (Object item : items) {
+            loadedById.put(ids.get(i++), item);
+        }
+        return loadedById;
+    }
+
+    /**
+     * 按请求顺序组装结果：Map 与按 itemId 匹配的 List 省略不存在的id，按位置对应的 List 以null占位
+     */
+    private static Object assemble(Collection<Object> ids, Map<Object, Object> values, boolean returnsMap, boolean matchById) {
+        if (returnsMap) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            for (Object id : ids) {
+                Object value = values.get(id);
+                if (value != null && !NullValue.isNull(value)) {
+                    result.put(id, value);
+                }
+            }
+            return result;
+        }
+        List<Object> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Object value = values.get(id);
+            if (value == null || NullValue.isNull(value)) {
+                if (!matchById) {
+                    result.add(null);
+                }
+            } else {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private void evict(FutureCacheEvict evict, CacheOperations operations, Object[] args, EvaluationContext context) {
+        if (!condition(evict.condition(), context)) {
+            return;
+        }
+        CacheRegion region = registry().region(evict.region());
+        if (evict.allEntries()) {
+            registry().clear(region);
+            return;
+        }
+        Object keyValue = key(evict.key(), args, context);
+        List<String> keys = new ArrayList<>();
+        if (keyValue instanceof Collection) {
+            for (Object id : (Collection<Object>) keyValue) {
+                keys.add(region.key(id));
+            }
+        } else {
+            keys.add(region.key(keyValue));
+        }
+        if (!keys.isEmpty()) {
+            region.getStore().delete(keys);
+        }
+    }
+
+    private Object read(CacheRegion region, String key) {
+        try {
+            return region.getStore().get(key);
+        } catch (Exception e) {
+            log.error("redis cache get error: {}", key, e);
+            return null;
+        }
+    }
+
+    private List<Object> readAll(CacheRegion region, List<String> keys) {
+        try {
+            List<Object> values = region.getStore().multiGet(keys);
+            if (values != null && values.size() == keys.size()) {
+                return values;
+            }
+        } catch (Exception e) {
+            log.error("redis cache multi get error, region {}", region.getName(), e);
+        }
+        List<Object> misses = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            misses.add(null);
+        }
+        return misses;
+    }
+
+    private void write(CacheRegion region, String key, Object value, long ttl) {
+        try {
+            if (value != null) {
+                region.getStore().set(key, value, ttlMillis(region, ttl));
+            } else if (region.isCacheNull()) {
+                region.getStore().set(key, NullValue.MARKER, region.getNullTtlMillis());
+            }
+        } catch (Exception e) {
+            log.error("redis cache put error: {}", key, e);
+        }
+    }
+
+    private void writeAll(CacheRegion region, Map<String, Object> values, Map<String, Long> ttls) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            region.getStore().setAll(values, ttls);
+        } catch (Exception e) {
+            log.error("redis cache batch put error, region {}", region.getName(), e);
+        }
+    }
+
+    /**
+     * 注解指定了过期时间时使用注解值，否则使用区域配置，都加上区域的抖动
+     */
+    private static long ttlMillis(CacheRegion region, long ttlSeconds) {
+        return ttlSeconds >= 0 ? region.jittered(TimeUnit.SECONDS.toMillis(ttlSeconds)) : region.nextTtlMillis();
+    }
+
+    private Object key(String expression, Object[] args, EvaluationContext context) {
+        if (expression.isEmpty()) {
+            if (args.length == 0) {
+                return "_";
+            }
+            if (args.length == 1) {
+                return args[0];
+            }
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    builder.append(':');
+                }
+                builder.append(args[i]);
+            }
+            return builder.toString();
+        }
+        Object key = evaluator.evaluate(expression, context);
+        if (key == null) {
+            throw new IllegalStateException("cache key expression returned null: " + expression);
+        }
+        return key;
+    }
+
+    private boolean condition(String expression, EvaluationContext context) {
+        return expression.isEmpty() || evaluator.condition(expression, context);
+    }
+
+    private CacheRegionRegistry registry() {
+        CacheRegionRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getObject();
+            registry = current;
+        }
+        return current;
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationFailure(e);
+        }
+    }
+
+    private CacheOperations operations(Method method, Class<?> targetClass) {
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        CacheOperations operations = operationsCache.get(cacheKey);
+        if (operations == null) {
+            operations = operationsCache.computeIfAbsent(cacheKey, key -> parse(method, targetClass));
+        }
+        return operations;
+    }
+
+    private static CacheOperations parse(Method method, Class<?> targetClass) {
+        Method specific = BridgeMethodResolver.findBridgedMethod(AopUtils.getMostSpecificMethod(method, targetClass));
+        FutureCacheable cacheable = AnnotatedElementUtils.findMergedAnnotation(specific, FutureCacheable.class);
+        FutureCachePut put = AnnotatedElementUtils.findMergedAnnotation(specific, FutureCachePut.class);
+        FutureCacheEvict evict = AnnotatedElementUtils.findMergedAnnotation(specific, FutureCacheEvict.class);
+        if (cacheable == null && put == null && evict == null) {
+            return NONE;
+        }
+        int batchIndex = -1;
+        if (cacheable != null && cacheable.batch()) {
+            Class<?>[] parameterTypes = specific.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length && batchIndex < 0; i++) {
+                if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+                    batchIndex = i;
+                }
+            }
+            Class<?> returnType = specific.getReturnType();
+            boolean parameterSupported = batchIndex >= 0 && (parameterTypes[batchIndex].isAssignableFrom(ArrayList.class)
+                    || parameterTypes[batchIndex].isAssignableFrom(LinkedHashSet.class));
+            boolean returnSupported = returnType.isAssignableFrom(ArrayList.class) || returnType.isAssignableFrom(LinkedHashMap.class);
+            if (!parameterSupported || !returnSupported) {
+                throw new IllegalStateException("@FutureCacheable(batch = true) requires a List/Set/Collection parameter "
+                        + "and a List or Map return type: " + specific);
+            }
+        }
+        return new CacheOperations(specific, cacheable, put, evict, batchIndex);
+    }
+
+    private static final class CacheOperations {
+
+        private final Method method;
+
+        private final FutureCacheable cacheable;
+
+        private final FutureCachePut put;
+
+        private final FutureCacheEvict evict;
+
+        /**
+         * 批量id参数的位置，非批量时为-1
+         */
+        private final int batchIndex;
+
+        private final boolean batchParameterIsList;
+
+        private final boolean batchReturnsMap;
+
+        private CacheOperations(Method method, FutureCacheable cacheable, FutureCachePut put, FutureCacheEvict evict, int batchIndex) {
+            this.method = method;
+            this.cacheable = cacheable;
+            this.put = put;
+            this.evict = evict;
+            this.batchIndex = batchIndex;
+            this.batchParameterIsList = batchIndex >= 0 && method.getParameterTypes()[batchIndex].isAssignableFrom(ArrayList.class);
+            this.batchReturnsMap = batchIndex >= 0 && method.getReturnType().isAssignableFrom(LinkedHashMap.class);
+        }
+    }
+
+    /**
+     * 在 {@link SingleFlight} 中传递方法抛出的受检异常
+     */
+    private static final class InvocationFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private InvocationFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
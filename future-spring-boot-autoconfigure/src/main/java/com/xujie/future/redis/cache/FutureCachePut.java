@@ -0,0 +1,39 @@
+package com.xujie.future.redis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 执行方法后把结果写入缓存，方法抛出异常时不写入
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:05
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface FutureCachePut {
+
+    /**
+     * 缓存区域
+     */
+    String region();
+
+    /**
+     * key 的 SpEL 表达式，可以使用参数与 #result，为空时使用参数值
+     */
+    String key() default "";
+
+    /**
+     * 满足时才写入的 SpEL 表达式，可以使用 #result
+     */
+    String condition() default "";
+
+    /**
+     * 过期时间(秒)，小于0时使用区域配置
+     */
+    long ttl() default -1;
+}
@@ -0,0 +1,64 @@
+package com.xujie.future.redis.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法结果缓存：先查缓存，未命中时执行方法并写入缓存
+ * <p>
+ * 缓存key为 {@code 应用名:cache:区域:key}，过期时间、抖动、空值缓存、本地缓存与序列化方式按区域在
+ * future.redis.cache.regions 中配置。同一JVM内同一个key同时只有一个线程执行方法。
+ * <p>
+ * batch=true 时方法的第一个集合参数为id列表：一次 MGET 查出全部缓存，只用未命中的id调用方法，
+ * 结果写入缓存后与命中部分按请求顺序合并。方法返回 Map 时按id取值；返回 List 时设置了 itemId 则按
+ * itemId 匹配(未找到的id不出现在结果中)，否则要求与传入的id一一对应。
+ * <pre>
+ *     &#64;FutureCacheable(region = "user", key = "#id")
+ *     public User getUser(Long id)
+ *
+ *     &#64;FutureCacheable(region = "user", batch = true, itemId = "id")
+ *     public List&lt;User&gt; listUsers(List&lt;Long&gt; ids)
+ * </pre>
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:00
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface FutureCacheable {
+
+    /**
+     * 缓存区域
+     */
+    String region();
+
+    /**
+     * key 的 SpEL 表达式，可以使用 #参数名(需 -parameters 编译)、#p0、#a0；batch=true 时对每个id求值，id为 #id。
+     * 为空时使用参数值(多个参数以 : 连接)，batch=true 时使用id本身
+     */
+    String key() default "";
+
+    /**
+     * 满足时才使用缓存的 SpEL 表达式，为空时总是使用
+     */
+    String condition() default "";
+
+    /**
+     * 过期时间(秒)，小于0时使用区域配置
+     */
+    long ttl() default -1;
+
+    /**
+     * 是否按第一个集合参数批量查询
+     */
+    boolean batch() default false;
+
+    /**
+     * batch=true 且方法返回 List 时，从元素中取id的 SpEL 表达式(以元素为根对象)，如 "id"
+     */
+    String itemId() default "";
+}
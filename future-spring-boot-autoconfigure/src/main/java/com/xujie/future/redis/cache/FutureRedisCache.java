@@ -0,0 +1,184 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.load.NullValue;
+import com.xujie.future.redis.load.SingleFlight;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 基于 {@link CacheRegion} 的 Spring Cache
+ * <p>
+ * 与 {@link FutureCacheable} 使用同一区域配置、同一key前缀和同一序列化方式，两种方式读写的是同一份缓存。
+ * 写入不加锁，每次写入的过期时间带随机抖动；putIfAbsent 使用 SET NX；clear 以 SCAN + UNLINK 分批删除，不使用 KEYS。
+ * 空值以 {@link NullValue#MARKER} 保存，是否允许空值由区域的 cache-null 决定。
+ *
+ * @author Xujie
+ * @since 2025/5/17 10:00
+ **/
+public class FutureRedisCache extends AbstractValueAdaptingCache {
+
+    private final CacheRegion region;
+
+    private final CacheRegionRegistry registry;
+
+    private final SingleFlight singleFlight;
+
+    FutureRedisCache(CacheRegion region, CacheRegionRegistry registry, SingleFlight singleFlight) {
+        super(region.isCacheNull());
+        this.region = region;
+        this.registry = registry;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public String getName() {
+        return region.getName();
+    }
+
+    @Override
+    public CacheRegion getNativeCache() {
+        return region;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = region.getStore().get(region.key(key));
+        if (value == null) {
+            region.miss(1);
+            return null;
+        }
+        region.hit(1);
+        return NullValue.isNull(value) ? org.springframework.cache.support.NullValue.INSTANCE : value;
+    }
+
+    /**
+     * 未命中时同一JVM内同一个key只有一个线程执行 valueLoader
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        String redisKey = region.key(key);
+        return singleFlight.execute(redisKey, () -> {
+            // 上一轮加载可能刚刚完成
+            Object current = region.getStore().get(redisKey);
+            if (current != null) {
+                return (T) (NullValue.isNull(current) ? null : current);
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        if (storeValue == org.springframework.cache.support.NullValue.INSTANCE) {
+            region.getStore().set(region.key(key), NullValue.MARKER, region.getNullTtlMillis());
+        } else {
+            region.getStore().set(region.key(key), storeValue, region.nextTtlMillis());
+        }
+    }
+
+    /**
+     * SET NX 未写入时返回已有的值；写入失败(Redis 出错)或已有的值在读取前过期时，返回传入的值，
+     * 不返回null，避免调用方误以为已经写入缓存
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        boolean isNull = storeValue == org.springframework.cache.support.NullValue.INSTANCE;
+        String redisKey = region.key(key);
+        boolean written = isNull
+                ? region.getStore().setIfAbsent(redisKey, NullValue.MARKER, region.getNullTtlMillis())
+                : region.getStore().setIfAbsent(redisKey, storeValue, region.nextTtlMillis());
+        if (written) {
+            return null;
+        }
+        ValueWrapper existing = get(key);
+        return existing != null ? existing : toValueWrapper(storeValue);
+    }
+
+    /**
+     * 一次 MGET 批量读取
+     *
+     * @param keys 缓存key
+     * @return 命中的key与值，缓存的空值以null出现，未命中的key不出现
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<String> redisKeys = new ArrayList<>(distinct.size());
+        for (Object key : distinct) {
+            redisKeys.add(region.key(key));
+        }
+        List<Object> values = distinct.isEmpty() ? new ArrayList<>() : region.getStore().multiGet(redisKeys);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                result.put(distinct.get(i), NullValue.isNull(value) ? null : value);
+            }
+        }
+        region.hit(result.size());
+        region.miss(distinct.size() - result.size());
+        return result;
+    }
+
+    /**
+     * 在一个 pipeline 中批量写入，每个key的过期时间分别加抖动
+     *
+     * @param values 缓存key与值 值为null时按区域配置写入空值或跳过
+     */
+    public void putAll(Map<?, ?> values) {
+        Map<String, Object> writes = new LinkedHashMap<>();
+        Map<String, Long> ttls = new HashMap<>();
+        values.forEach((key, value) -> {
+            String redisKey = region.key(key);
+            if (value != null) {
+                writes.put(redisKey, value);
+                ttls.put(redisKey, region.nextTtlMillis());
+            } else if (isAllowNullValues()) {
+                writes.put(redisKey, NullValue.MARKER);
+                ttls.put(redisKey, region.getNullTtlMillis());
+            }
+        });
+        if (!writes.isEmpty()) {
+            region.getStore().setAll(writes, ttls);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        region.getStore().delete(List.of(region.key(key)));
+    }
+
+    /**
+     * SCAN 区域前缀后分批 UNLINK，遍历期间新写入的key可能不会被删除
+     */
+    @Override
+    public void clear() {
+        registry.clear(region);
+    }
+
+    @Override
+    public boolean invalidate() {
+        return registry.clear(region) > 0;
+    }
+}
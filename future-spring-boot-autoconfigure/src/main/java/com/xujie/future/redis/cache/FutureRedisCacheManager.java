@@ -0,0 +1,53 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.load.SingleFlight;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于 {@link CacheRegionRegistry} 的 CacheManager，缓存名即区域名
+ * <p>
+ * 启动时创建 future.redis.cache.regions 中配置的缓存，其余缓存名在首次使用时按 defaults 创建。
+ *
+ * @author Xujie
+ * @since 2025/5/17 10:30
+ **/
+public class FutureRedisCacheManager extends AbstractCacheManager {
+
+    private final CacheRegionRegistry registry;
+
+    private final Collection<String> initialCacheNames;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * @param registry          区域
+     * @param initialCacheNames 启动时创建的缓存名
+     */
+    public FutureRedisCacheManager(CacheRegionRegistry registry, Collection<String> initialCacheNames) {
+        this.registry = registry;
+        this.initialCacheNames = initialCacheNames;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>(initialCacheNames.size());
+        for (String name : initialCacheNames) {
+            caches.add(createCache(name));
+        }
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    private FutureRedisCache createCache(String name) {
+        return new FutureRedisCache(registry.region(name), registry, singleFlight);
+    }
+}
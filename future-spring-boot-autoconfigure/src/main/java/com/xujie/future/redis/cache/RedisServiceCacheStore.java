@@ -0,0 +1,64 @@
+package com.xujie.future.redis.cache;
+
+import com.xujie.future.redis.service.RedisService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过 {@link RedisService} 读写，沿用其本地缓存、分片、副本读与指标
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:25
+ **/
+class RedisServiceCacheStore implements CacheStore {
+
+    private final RedisService redisService;
+
+    RedisServiceCacheStore(RedisService redisService) {
+        this.redisService = redisService;
+    }
+
+    @Override
+    public Object get(String key) {
+        return redisService.get(key);
+    }
+
+    @Override
+    public List<Object> multiGet(List<String> keys) {
+        List<Object> values = redisService.multiGet(keys);
+        // 读取失败时按全部未命中处理
+        return values != null ? values : new ArrayList<>(Collections.nCopies(keys.size(), null));
+    }
+
+    @Override
+    public void set(String key, Object value, long ttlMillis) {
+        redisService.set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, long ttlMillis) {
+        return redisService.setnx(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setAll(Map<String, Object> values, Map<String, Long> ttlMillis) {
+        redisService.pipelined(pipeline -> values.forEach((key, value) -> {
+            long ttl = ttlMillis.get(key);
+            if (ttl > 0) {
+                pipeline.set(key, value, ttl, TimeUnit.MILLISECONDS);
+            } else {
+                pipeline.set(key, value);
+            }
+        }));
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        redisService.remove(keys);
+    }
+}
@@ -0,0 +1,76 @@
+package com.xujie.future.redis.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用区域自己的值序列化器，通过独立模板读写主实例
+ *
+ * @author Xujie
+ * @since 2025/5/16 10:30
+ **/
+class TemplateCacheStore implements CacheStore {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    TemplateCacheStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Object get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public List<Object> multiGet(List<String> keys) {
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
+    @Override
+    public void set(String key, Object value, long ttlMillis) {
+        set(redisTemplate.opsForValue(), key, value, ttlMillis);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, long ttlMillis) {
+        Boolean success = ttlMillis > 0
+                ? redisTemplate.opsForValue().setIfAbsent(key, value, ttlMillis, TimeUnit.MILLISECONDS)
+                : redisTemplate.opsForValue().setIfAbsent(key, value);
+        return Boolean.TRUE.equals(success);
+    }
+
+    @Override
+    public void setAll(Map<String, Object> values, Map<String, Long> ttlMillis) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                ValueOperations<String, Object> valueOperations = ((RedisOperations<String, Object>) operations).opsForValue();
+                values.forEach((key, value) -> set(valueOperations, key, value, ttlMillis.get(key)));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        redisTemplate.delete(keys);
+    }
+
+    private static void set(ValueOperations<String, Object> valueOperations, String key, Object value, long ttlMillis) {
+        if (ttlMillis > 0) {
+            valueOperations.set(key, value, ttlMillis, TimeUnit.MILLISECONDS);
+        } else {
+            valueOperations.set(key, value);
+        }
+    }
+}
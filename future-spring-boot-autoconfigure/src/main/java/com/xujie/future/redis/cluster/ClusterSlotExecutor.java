@@ -0,0 +1,472 @@
+package com.xujie.future.redis.cluster;
+
+import com.xujie.future.redis.shard.RedisShard;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Redis Cluster 按 slot 分批执行
+ * <p>
+ * 多key命令在集群下要求所有key位于同一个 slot，否则报 CROSSSLOT，或被客户端拆成逐个key执行。
+ * 这里先按 slot 分组，同一节点上的各组放进一个 pipeline，各节点并行发送，最后按调用方key的顺序合并结果。
+ * 单机/哨兵模式下直接执行，不做拆分。
+ * <p>
+ * 节点划分使用缓存的集群拓扑，拓扑过期只会影响分组效果，命令本身由客户端按 MOVED 重定向，结果仍然正确。
+ * <p>
+ * 设置了客户端分片时按分片分组，每个分片一个 pipeline，在各分片的模板上并行执行。
+ *
+ * @author Xujie
+ * @since 2025/4/28 15:10
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class ClusterSlotExecutor implements DisposableBean {
+
+    private static final int SLOT_COUNT = 16384;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ExecutorService executor;
+
+    private final long topologyRefreshNanos;
+
+    private volatile Boolean cluster;
+
+    private volatile Topology topology;
+
+    /**
+     * 客户端分片，为null时不分片
+     */
+    private RedisShardRouter shardRouter;
+
+    /**
+     * @param redisTemplate   redisTemplate
+     * @param parallelism     同时执行的节点批次数
+     * @param topologyRefresh 集群拓扑缓存时间
+     */
+    public ClusterSlotExecutor(RedisTemplate<String, Object> redisTemplate, int parallelism, Duration topologyRefresh) {
+        this.redisTemplate = redisTemplate;
+        this.topologyRefreshNanos = topologyRefresh.toNanos();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), namedThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 设置客户端分片
+     *
+     * @param shardRouter 分片路由 为null时不分片
+     */
+    public void setShardRouter(RedisShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * 当前连接是否为集群模式，客户端分片的各实例均为单机
+     */
+    public boolean isCluster() {
+        if (shardRouter != null) {
+            return false;
+        }
+        Boolean result = cluster;
+        if (result == null) {
+            result = Boolean.TRUE.equals(redisTemplate.execute(
+                    (RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection));
+            cluster = result;
+        }
+        return result;
+    }
+
+    // ============================常用批量命令=============================
+
+    /**
+     * 批量获取，结果与keys一一对应
+     */
+    public List<Object> multiGet(List<String> keys) {
+        if (!isCluster() && shardRouter == null) {
+            return redisTemplate.opsForValue().multiGet(keys);
+        }
+        Object[] results = new Object[keys.size()];
+        pipelined(keys, new SlotBatch() {
+            @Override
+            public int issue(RedisConnection connection, List<Integer> indices) {
+                connection.stringCommands().mGet(rawKeys(keys, indices));
+                return 1;
+            }
+
+            @Override
+            public void collect(List<Integer> indices, List<Object> replies) {
+                List<Object> values = (List<Object>) replies.get(0);
+                for (int i = 0; i < indices.size(); i++) {
+                    results[indices.get(i)] = values.get(i);
+                }
+            }
+        }, redisTemplate.getValueSerializer());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 批量设置
+     */
+    public void multiSet(Map<String, Object> map) {
+        if (!isCluster() && shardRouter == null) {
+            redisTemplate.opsForValue().multiSet(map);
+            return;
+        }
+        List<String> keys = new ArrayList<>(map.keySet());
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        pipelined(keys, new SlotBatch() {
+            @Override
+            public int issue(RedisConnection connection, List<Integer> indices) {
+                Map<byte[], byte[]> tuples = new LinkedHashMap<>(indices.size() * 2);
+                for (Integer index : indices) {
+                    String key = keys.get(index);
+                    tuples.put(rawKey(key), valueSerializer.serialize(map.get(key)));
+                }
+                connection.stringCommands().mSet(tuples);
+                // 不需要结果
+                return 0;
+            }
+
+            @Override
+            public void collect(List<Integer> indices, List<Object> replies) {
+            }
+        }, null);
+    }
+
+    /**
+     * 批量删除
+     *
+     * @return 删除的数量
+     */
+    public long delete(Collection<String> keys) {
+        return remove(keys, false);
+    }
+
+    /**
+     * 批量删除，内存在 Redis 后台线程中回收
+     *
+     * @return 删除的数量
+     */
+    public long unlink(Collection<String> keys) {
+        return remove(keys, true);
+    }
+
+    private long remove(Collection<String> keys, boolean unlink) {
+        if (!isCluster() && shardRouter == null) {
+            Long count = unlink ? redisTemplate.unlink(keys) : redisTemplate.delete(keys);
+            return count == null ? 0 : count;
+        }
+        List<String> keyList = keys instanceof List ? (List<String>) keys : new ArrayList<>(keys);
+        LongAdder deleted = new LongAdder();
+        pipelined(keyList, new SlotBatch() {
+            @Override
+            public int issue(RedisConnection connection, List<Integer> indices) {
+                if (unlink) {
+                    connection.keyCommands().unlink(rawKeys(keyList, indices));
+                } else {
+                    connection.keyCommands().del(rawKeys(keyList, indices));
+                }
+                return 1;
+            }
+
+            @Override
+            public void collect(List<Integer> indices, List<Object> replies) {
+                Object count = replies.get(0);
+                if (count instanceof Long) {
+                    deleted.add((Long) count);
+                }
+            }
+        }, null);
+        return deleted.sum();
+    }
+
+    /**
+     * 批量 HGET，keys 与 fields 一一对应，结果同样一一对应
+     *
+     * @param resultSerializer 结果反序列化方式
+     */
+    public List<Object> hashGet(List<String> keys, List<String> fields, RedisSerializer<?> resultSerializer) {
+        Object[] results = new Object[keys.size()];
+        RedisSerializer<String> stringSerializer = redisTemplate.getStringSerializer();
+        pipelined(keys, new SlotBatch() {
+            @Override
+            public int issue(RedisConnection connection, List<Integer> indices) {
+                for (Integer index : indices) {
+                    connection.hashCommands().hGet(rawKey(keys.get(index)), stringSerializer.serialize(fields.get(index)));
+                }
+                return indices.size();
+            }
+
+            @Override
+            public void collect(List<Integer> indices, List<Object> replies) {
+                for (int i = 0; i < indices.size(); i++) {
+                    results[indices.get(i)] = replies.get(i);
+                }
+            }
+        }, resultSerializer);
+        return Arrays.asList(results);
+    }
+
+    // ============================通用执行=============================
+
+    /**
+     * 按 slot 分组，每个节点一个 pipeline 并行执行
+     * <p>
+     * 非集群模式下所有key作为一组在一个 pipeline 中执行。
+     *
+     * @param keys             调用方的key
+     * @param batch            每组的命令与结果处理，collect 可能被多个线程同时调用，各组下标互不重叠
+     * @param resultSerializer pipeline 结果反序列化方式，为null时返回原始结果
+     */
+    public void pipelined(List<String> keys, SlotBatch batch, RedisSerializer<?> resultSerializer) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (shardRouter != null) {
+            runParallel(shardRouter.group(keys).entrySet(), entry -> {
+                RedisShard shard = entry.getKey();
+                List<Integer> indices = entry.getValue();
+                int[] count = new int[1];
+                long start = System.nanoTime();
+                List<Object> replies = shard.getRedisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+                    count[0] = batch.issue(connection, indices);
+                    return null;
+                }, resultSerializer);
+                shard.record(System.nanoTime() - start);
+                batch.collect(indices, replies.subList(0, count[0]));
+                return null;
+            });
+            return;
+        }
+        Collection<List<List<Integer>>> nodeBatches = isCluster()
+                ? groupByNode(groupBySlot(keys)).values() : List.of(List.of(allIndices(keys.size())));
+        runParallel(nodeBatches, groups -> {
+            int[] counts = new int[groups.size()];
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < groups.size(); i++) {
+                    counts[i] = batch.issue(connection, groups.get(i));
+                }
+                return null;
+            }, resultSerializer);
+            int offset = 0;
+            for (int i = 0; i < groups.size(); i++) {
+                batch.collect(groups.get(i), replies.subList(offset, offset + counts[i]));
+                offset += counts[i];
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 按 slot 分组并行执行，适用于 Lua 脚本等要求所有key同 slot 的调用
+     * <p>
+     * 客户端分片时按分片分组，call 需按组内任意一个key路由到对应分片执行。
+     *
+     * @param keys 调用方的key
+     * @param call 对一组同 slot 的下标执行，返回与下标一一对应的结果
+     * @return 与 keys 一一对应的结果
+     */
+    public <R> List<R> perSlot(List<String> keys, Function<List<Integer>, List<R>> call) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!isCluster() && shardRouter == null) {
+            return call.apply(allIndices(keys.size()));
+        }
+        Collection<List<Integer>> groups = shardRouter != null ? shardRouter.group(keys).values() : groupBySlot(keys).values();
+        Object[] results = new Object[keys.size()];
+        runParallel(groups, indices -> {
+            List<R> values = call.apply(indices);
+            for (int i = 0; i < indices.size(); i++) {
+                results[indices.get(i)] = values == null ? null : values.get(i);
+            }
+            return null;
+        });
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * 使用执行器的线程并行执行，最后一个任务由当前线程执行，任一任务失败时抛出其异常
+     *
+     * @param tasks 任务参数
+     * @param task  任务
+     */
+    public <T> void parallel(Collection<T> tasks, Consumer<T> task) {
+        runParallel(tasks, item -> {
+            task.accept(item);
+            return null;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 同一 slot 的一组命令
+     */
+    public interface SlotBatch {
+
+        /**
+         * 在 pipeline 中为一组同 slot 的key发起命令
+         *
+         * @param connection pipeline 连接
+         * @param indices    key在调用方列表中的下标
+         * @return 需要处理结果的命令数，不关心结果时返回0
+         */
+        int issue(RedisConnection connection, List<Integer> indices);
+
+        /**
+         * 处理这组命令的结果
+         *
+         * @param indices key在调用方列表中的下标
+         * @param replies 按发起顺序排列的结果
+         */
+        void collect(List<Integer> indices, List<Object> replies);
+    }
+
+    private <T> void runParallel(Collection<T> tasks, Function<T, Void> task) {
+        if (tasks.size() == 1) {
+            task.apply(tasks.iterator().next());
+            return;
+        }
+        List<Future<Void>> futures = new ArrayList<>(tasks.size());
+        Iterator<T> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            T item = iterator.next();
+            if (iterator.hasNext()) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            } else {
+                // 最后一批由当前线程执行
+                task.apply(item);
+            }
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("redis cluster batch interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("redis cluster batch error", cause);
+            }
+        }
+    }
+
+    private static Map<Integer, List<Integer>> groupBySlot(List<String> keys) {
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keys.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        return slots;
+    }
+
+    private Map<Integer, List<List<Integer>>> groupByNode(Map<Integer, List<Integer>> slots) {
+        int[] owners = topology().owners;
+        Map<Integer, List<List<Integer>>> nodes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : slots.entrySet()) {
+            nodes.computeIfAbsent(owners[entry.getKey()], k -> new ArrayList<>()).add(entry.getValue());
+        }
+        return nodes;
+    }
+
+    private Topology topology() {
+        Topology current = topology;
+        if (current != null && System.nanoTime() - current.loadedAt < topologyRefreshNanos) {
+            return current;
+        }
+        int[] owners = new int[SLOT_COUNT];
+        try {
+            Iterable<RedisClusterNode> nodes = redisTemplate.execute(
+                    (RedisCallback<Iterable<RedisClusterNode>>) connection -> ((RedisClusterConnection) connection).clusterGetNodes());
+            int nodeIndex = 0;
+            for (RedisClusterNode node : nodes) {
+                if (!node.isMaster()) {
+                    continue;
+                }
+                nodeIndex++;
+                for (int slot : node.getSlotRange().getSlotsArray()) {
+                    owners[slot] = nodeIndex;
+                }
+            }
+        } catch (Exception e) {
+            // 拓扑获取失败时按 slot 分组仍然正确，只是同一节点可能拆成多个 pipeline
+            log.warn("redis cluster topology load failed", e);
+            if (current != null) {
+                return current;
+            }
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                owners[slot] = slot;
+            }
+        }
+        current = new Topology(owners, System.nanoTime());
+        topology = current;
+        return current;
+    }
+
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    private byte[][] rawKeys(List<String> keys, List<Integer> indices) {
+        byte[][] rawKeys = new byte[indices.size()][];
+        for (int i = 0; i < indices.size(); i++) {
+            rawKeys[i] = rawKey(keys.get(indices.get(i)));
+        }
+        return rawKeys;
+    }
+
+    private static List<Integer> allIndices(int size) {
+        List<Integer> indices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        return new ThreadFactory() {
+            private int index;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "future-redis-cluster-" + index++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static class Topology {
+
+        private final int[] owners;
+
+        private final long loadedAt;
+
+        Topology(int[] owners, long loadedAt) {
+            this.owners = owners;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
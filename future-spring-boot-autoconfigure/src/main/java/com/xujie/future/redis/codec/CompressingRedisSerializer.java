@@ -0,0 +1,113 @@
+package com.xujie.future.redis.codec;
+
+import com.xujie.future.redis.metrics.CompressionStats;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+
+/**
+ * 超过阈值自动压缩的值序列化器
+ * <p>
+ * 压缩数据格式：[算法标识 1字节][原始长度 4字节][压缩数据]；未压缩的数据原样保存，
+ * 读取时通过首字节区分，因此开关压缩或更换算法都能读取已有数据。
+ *
+ * @author Xujie
+ * @since 2025/4/15 21:30
+ **/
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final RedisSerializer<Object> delegate;
+
+    /**
+     * 写入使用的算法，为null时只解压不压缩
+     */
+    private final ValueCompressor compressor;
+
+    /**
+     * 所有可用算法，按标识索引
+     */
+    private final ValueCompressor[] decompressors = new ValueCompressor[Byte.MAX_VALUE + 1];
+
+    private final int threshold;
+
+    private final CompressionStats stats;
+
+    /**
+     * @param delegate      实际的值序列化器
+     * @param compressor    写入使用的算法 为null时不压缩
+     * @param decompressors 读取支持的算法
+     * @param threshold     压缩阈值(字节)
+     * @param stats         压缩统计
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, ValueCompressor compressor,
+                                      List<ValueCompressor> decompressors, int threshold, CompressionStats stats) {
+        this.delegate = delegate;
+        this.compressor = compressor;
+        this.threshold = threshold;
+        this.stats = stats;
+        for (ValueCompressor decompressor : decompressors) {
+            this.decompressors[decompressor.id()] = decompressor;
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (compressor == null || raw == null || raw.length < threshold) {
+            return raw;
+        }
+        long start = System.nanoTime();
+        byte[] compressed = compressor.compress(raw);
+        if (compressed.length + HEADER_LENGTH >= raw.length) {
+            // 压缩无收益
+            return raw;
+        }
+        byte[] result = new byte[compressed.length + HEADER_LENGTH];
+        result[0] = compressor.id();
+        writeInt(result, 1, raw.length);
+        System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+        stats.recordCompress(raw.length, result.length, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] < 0) {
+            return delegate.deserialize(bytes);
+        }
+        ValueCompressor decompressor = decompressors[bytes[0]];
+        if (decompressor == null) {
+            return delegate.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        byte[] raw;
+        try {
+            raw = decompressor.decompress(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, readInt(bytes, 1));
+        } catch (Exception e) {
+            throw new SerializationException("Could not decompress value with " + decompressor.name(), e);
+        }
+        stats.recordDecompress(System.nanoTime() - start);
+        return delegate.deserialize(raw);
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
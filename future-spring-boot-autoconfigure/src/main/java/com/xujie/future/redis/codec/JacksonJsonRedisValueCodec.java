@@ -0,0 +1,56 @@
+package com.xujie.future.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * JSON 编解码，与原 Jackson2JsonRedisSerializer 格式一致(值中携带完整类名)
+ * <p>
+ * 无法通过魔数区分，因此总是作为最后一个读取候选。
+ *
+ * @author Xujie
+ * @since 2025/4/13 15:18
+ **/
+public class JacksonJsonRedisValueCodec implements RedisValueCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonJsonRedisValueCodec() {
+        // 创建一个ObjectMapper实例，用于处理JSON的序列化和反序列化
+        ObjectMapper objectMapper = new ObjectMapper();
+        // 设置属性访问权限为ANY，允许序列化和反序列化任何可见属性
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // 配置ObjectMapper，在遇到未知属性时不会抛出异常，而是忽略这些属性
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        // 启用默认类型标记，使得反序列化时可以处理未标记为final的子类
+        objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        return objectMapper.readValue(bytes, Object.class);
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return true;
+    }
+}
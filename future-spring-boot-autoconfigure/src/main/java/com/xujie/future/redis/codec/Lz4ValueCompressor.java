@@ -0,0 +1,50 @@
+package com.xujie.future.redis.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * LZ4 压缩，速度优先
+ *
+ * @author Xujie
+ * @since 2025/4/15 21:10
+ **/
+public class Lz4ValueCompressor implements ValueCompressor {
+
+    public static final byte ID = 0x01;
+
+    public static final String NAME = "lz4";
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4FastDecompressor decompressor;
+
+    public Lz4ValueCompressor() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        return compressor.compress(src);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) {
+        byte[] dest = new byte[originalLength];
+        decompressor.decompress(src, offset, dest, 0, originalLength);
+        return dest;
+    }
+}
@@ -0,0 +1,45 @@
+package com.xujie.future.redis.codec;
+
+import java.io.IOException;
+
+/**
+ * Redis 值编解码 SPI
+ * <p>
+ * 通过 future.redis.codec.type 按 {@link #name()} 选择写入使用的编解码器；
+ * 读取时依次询问所有编解码器 {@link #canDecode(byte[])}，以便迁移期间仍能读取旧格式的数据。
+ * 注册为 Spring Bean 即可参与选择。
+ *
+ * @author Xujie
+ * @since 2025/4/13 15:10
+ **/
+public interface RedisValueCodec {
+
+    /**
+     * 编解码器名称，对应 future.redis.codec.type
+     */
+    String name();
+
+    /**
+     * 编码
+     *
+     * @param value 值 不为null
+     * @return 字节
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * 解码
+     *
+     * @param bytes 字节 不为空
+     * @return 值
+     */
+    Object decode(byte[] bytes) throws IOException;
+
+    /**
+     * 是否能识别该字节格式，通常通过头部魔数判断
+     *
+     * @param bytes 字节 不为空
+     * @return true 能识别
+     */
+    boolean canDecode(byte[] bytes);
+}
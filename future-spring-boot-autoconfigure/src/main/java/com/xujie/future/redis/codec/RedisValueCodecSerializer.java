@@ -0,0 +1,69 @@
+package com.xujie.future.redis.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+
+/**
+ * 基于 {@link RedisValueCodec} 的值序列化器
+ * <p>
+ * 写入只使用一个编解码器，读取时按顺序找到第一个能识别的编解码器。
+ *
+ * @author Xujie
+ * @since 2025/4/13 16:05
+ **/
+public class RedisValueCodecSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private final RedisValueCodec writer;
+
+    private final List<RedisValueCodec> readers;
+
+    /**
+     * @param writer  写入使用的编解码器
+     * @param readers 读取候选，无法通过魔数识别的(如json)需放在最后
+     */
+    public RedisValueCodecSerializer(RedisValueCodec writer, List<RedisValueCodec> readers) {
+        this.writer = writer;
+        this.readers = readers;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        try {
+            return writer.encode(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not write value with codec " + writer.name(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        for (RedisValueCodec reader : readers) {
+            if (reader.canDecode(bytes)) {
+                try {
+                    return reader.decode(bytes);
+                } catch (Exception e) {
+                    throw new SerializationException("Could not read value with codec " + reader.name(), e);
+                }
+            }
+        }
+        throw new SerializationException("No redis value codec can read the value");
+    }
+
+    public RedisValueCodec getWriter() {
+        return writer;
+    }
+
+    public List<RedisValueCodec> getReaders() {
+        return readers;
+    }
+}
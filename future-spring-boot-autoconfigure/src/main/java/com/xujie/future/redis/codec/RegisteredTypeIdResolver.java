@@ -0,0 +1,87 @@
+package com.xujie.future.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * 类型id解析：登记过的类型写短id，其余类型回退为完整类名
+ * <p>
+ * 内置id以 ~ 开头，业务id不能以 ~ 开头也不能包含 . 以免与类名冲突。
+ *
+ * @author Xujie
+ * @since 2025/4/13 15:52
+ **/
+public class RegisteredTypeIdResolver extends TypeIdResolverBase {
+
+    private static final String BUILTIN_PREFIX = "~";
+
+    private final Map<Class<?>, String> ids = new HashMap<>();
+
+    private final Map<String, Class<?>> types = new HashMap<>();
+
+    private final ClassNameIdResolver fallback;
+
+    public RegisteredTypeIdResolver(Map<String, Class<?>> typeIds) {
+        super(TypeFactory.defaultInstance().constructType(Object.class), TypeFactory.defaultInstance());
+        this.fallback = new ClassNameIdResolver(_baseType, _typeFactory, LaissezFaireSubTypeValidator.instance);
+        registerBuiltin("al", ArrayList.class);
+        registerBuiltin("ll", LinkedList.class);
+        registerBuiltin("hm", HashMap.class);
+        registerBuiltin("lhm", LinkedHashMap.class);
+        registerBuiltin("tm", TreeMap.class);
+        registerBuiltin("hs", HashSet.class);
+        registerBuiltin("lhs", LinkedHashSet.class);
+        registerBuiltin("ts", TreeSet.class);
+        registerBuiltin("d", Date.class);
+        registerBuiltin("bd", BigDecimal.class);
+        registerBuiltin("bi", BigInteger.class);
+        typeIds.forEach((id, type) -> {
+            if (id.startsWith(BUILTIN_PREFIX) || id.contains(".")) {
+                throw new IllegalArgumentException("illegal redis type id: " + id);
+            }
+            register(id, type);
+        });
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return idFromValueAndType(value, value.getClass());
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> suggestedType) {
+        String id = ids.get(suggestedType);
+        return id != null ? id : fallback.idFromValueAndType(value, suggestedType);
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        Class<?> type = types.get(id);
+        return type != null ? context.constructType(type) : fallback.typeFromId(context, id);
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return JsonTypeInfo.Id.CUSTOM;
+    }
+
+    private void registerBuiltin(String id, Class<?> type) {
+        register(BUILTIN_PREFIX + id, type);
+    }
+
+    private void register(String id, Class<?> type) {
+        if (types.putIfAbsent(id, type) != null || ids.putIfAbsent(type, id) != null) {
+            throw new IllegalArgumentException("duplicate redis type id: " + id + " -> " + type.getName());
+        }
+    }
+}
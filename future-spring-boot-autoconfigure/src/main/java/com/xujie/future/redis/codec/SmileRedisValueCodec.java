@@ -0,0 +1,71 @@
+package com.xujie.future.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Smile 二进制编解码
+ * <p>
+ * 类型信息使用 {@link RegisteredTypeIdResolver} 中登记的短id代替完整类名，未登记的类型仍写入类名。
+ * 已写入数据的类型id不可修改，只能新增。
+ *
+ * @author Xujie
+ * @since 2025/4/13 15:36
+ **/
+public class SmileRedisValueCodec implements RedisValueCodec {
+
+    public static final String NAME = "smile";
+
+    private static final String TYPE_PROPERTY = "@t";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param typeIds 业务类型id表 key为id value为类型
+     */
+    public SmileRedisValueCodec(Map<String, Class<?>> typeIds) {
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        TypeResolverBuilder<?> typer = new ObjectMapper.DefaultTypeResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL,
+                LaissezFaireSubTypeValidator.instance)
+                .init(JsonTypeInfo.Id.CUSTOM, new RegisteredTypeIdResolver(typeIds))
+                .inclusion(JsonTypeInfo.As.PROPERTY)
+                .typeProperty(TYPE_PROPERTY);
+        objectMapper.setDefaultTyping(typer);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        return objectMapper.readValue(bytes, Object.class);
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes.length >= 3
+                && bytes[0] == SmileConstants.HEADER_BYTE_1
+                && bytes[1] == SmileConstants.HEADER_BYTE_2
+                && bytes[2] == SmileConstants.HEADER_BYTE_3;
+    }
+}
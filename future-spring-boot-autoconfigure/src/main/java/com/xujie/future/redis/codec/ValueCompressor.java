@@ -0,0 +1,33 @@
+package com.xujie.future.redis.codec;
+
+/**
+ * 值压缩算法
+ *
+ * @author Xujie
+ * @since 2025/4/15 21:02
+ **/
+public interface ValueCompressor {
+
+    /**
+     * 写在压缩数据首字节的算法标识，不能与任何编解码器输出的首字节冲突
+     */
+    byte id();
+
+    /**
+     * 算法名称，对应 future.redis.compression.algorithm
+     */
+    String name();
+
+    byte[] compress(byte[] src);
+
+    /**
+     * 解压
+     *
+     * @param src            源数据
+     * @param offset         压缩数据起始位置
+     * @param length         压缩数据长度
+     * @param originalLength 原始长度
+     * @return 原始数据
+     */
+    byte[] decompress(byte[] src, int offset, int length, int originalLength);
+}
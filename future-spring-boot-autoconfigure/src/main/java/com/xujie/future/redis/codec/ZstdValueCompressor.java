@@ -0,0 +1,50 @@
+package com.xujie.future.redis.codec;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * zstd 压缩，压缩率优先
+ *
+ * @author Xujie
+ * @since 2025/4/15 21:16
+ **/
+public class ZstdValueCompressor implements ValueCompressor {
+
+    public static final byte ID = 0x02;
+
+    public static final String NAME = "zstd";
+
+    private final int level;
+
+    /**
+     * @param level 压缩级别 1-22
+     */
+    public ZstdValueCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] src) {
+        return Zstd.compress(src, level);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) {
+        byte[] dest = new byte[originalLength];
+        long size = Zstd.decompressByteArray(dest, 0, originalLength, src, offset, length);
+        if (Zstd.isError(size)) {
+            throw new IllegalStateException("zstd decompress error: " + Zstd.getErrorName(size));
+        }
+        return dest;
+    }
+}
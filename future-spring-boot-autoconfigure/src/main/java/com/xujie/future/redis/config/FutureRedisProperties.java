@@ -0,0 +1,579 @@
+package com.xujie.future.redis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Future Redis 扩展配置
+ *
+ * @author Xujie
+ * @since 2025/4/12 10:20
+ **/
+@Data
+@ConfigurationProperties(prefix = "future.redis")
+public class FutureRedisProperties {
+
+    /**
+     * 本地一级缓存(L1)配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 值编解码配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * 值压缩配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * GET 合并配置
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * getOrLoad 默认配置
+     */
+    private Load load = new Load();
+
+    /**
+     * 提前刷新配置
+     */
+    private Refresh refresh = new Refresh();
+
+    /**
+     * Lua 脚本配置
+     */
+    private Script script = new Script();
+
+    /**
+     * 集群批量命令配置
+     */
+    private Cluster cluster = new Cluster();
+
+    /**
+     * pipeline 配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * hash 配置
+     */
+    private Hash hash = new Hash();
+
+    /**
+     * 热点key探测配置
+     */
+    private HotKey hotkey = new HotKey();
+
+    /**
+     * Micrometer 指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 本地聚合计数器配置
+     */
+    private Counter counter = new Counter();
+
+    /**
+     * 异步写缓存配置
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+    /**
+     * Stream 消息配置
+     */
+    private Stream stream = new Stream();
+    /**
+     * 延迟队列配置
+     */
+    private DelayQueue delayQueue = new DelayQueue();
+    /**
+     * 客户端分片配置
+     */
+    private Shard shard = new Shard();
+    /**
+     * 副本读与对冲读配置
+     */
+    private Read read = new Read();
+    /**
+     * 缓存注解与 CacheManager 配置
+     */
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Local {
+        /**
+         * 是否开启本地一级缓存
+         */
+        private boolean enabled = false;
+        /**
+         * 多节点间失效通知使用的频道
+         */
+        private String channel = "future:near-cache:invalidate";
+        /**
+         * 按key前缀划分的缓存区域，只有命中前缀的key才会进入本地缓存
+         */
+        private List<Region> regions = new ArrayList<>();
+    }
+
+    @Data
+    public static class Region {
+        /**
+         * key前缀，例如 dict:
+         */
+        private String prefix;
+        /**
+         * 最大条目数，超过后按LRU淘汰
+         */
+        private long maximumSize = 10000;
+        /**
+         * 写入后过期时间
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Codec {
+        /**
+         * 写入使用的编解码器名称，内置 json、smile，也可以是自定义 RedisValueCodec 的名称
+         */
+        private String type = "json";
+        /**
+         * smile 类型id表，key为id value为全类名；id一经使用不可修改
+         */
+        private Map<String, String> typeIds = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * 是否压缩写入的值，关闭后仍能读取已压缩的值
+         */
+        private boolean enabled = false;
+        /**
+         * 压缩算法 lz4、zstd
+         */
+        private String algorithm = "lz4";
+        /**
+         * 超过该大小才压缩
+         */
+        private DataSize threshold = DataSize.ofKilobytes(2);
+        /**
+         * zstd 压缩级别
+         */
+        private int zstdLevel = 3;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * 是否开启，开启后 RedisService#getBatched 才会合并请求
+         */
+        private boolean enabled = false;
+        /**
+         * 收集时间窗口
+         */
+        private Duration window = Duration.ofNanos(200_000);
+        /**
+         * 单批最大key数量
+         */
+        private int maxBatchSize = 64;
+        /**
+         * 等待队列容量，队列满时直接查询
+         */
+        private int queueCapacity = 10000;
+        /**
+         * 同时进行的批量查询数
+         */
+        private int parallelism = 4;
+        /**
+         * 调用方等待结果的超时时间
+         */
+        private Duration timeout = Duration.ofSeconds(3);
+    }
+
+    @Data
+    public static class Load {
+        /**
+         * 是否缓存空结果
+         */
+        private boolean cacheNull = true;
+        /**
+         * 空结果过期时间
+         */
+        private Duration nullTtl = Duration.ofSeconds(60);
+        /**
+         * 是否默认使用 Redis 租约，保证集群内只有一个节点加载
+         */
+        private boolean lease = false;
+        /**
+         * 租约有效期，应大于加载耗时
+         */
+        private Duration leaseTime = Duration.ofSeconds(5);
+        /**
+         * 未拿到租约时等待其他节点加载结果的最长时间，超时后自行加载
+         */
+        private Duration leaseWait = Duration.ofSeconds(3);
+        /**
+         * 等待期间轮询间隔
+         */
+        private Duration leasePollInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Refresh {
+        /**
+         * 提前刷新系数，越大越早刷新，1.0 为 XFetch 推荐值
+         */
+        private double beta = 1.0;
+        /**
+         * 刷新线程数
+         */
+        private int threads = 4;
+        /**
+         * 刷新任务队列容量，队列满时放弃本次刷新
+         */
+        private int queueCapacity = 1000;
+    }
+
+    @Data
+    public static class Script {
+        /**
+         * 脚本位置，文件名即脚本名，支持通配符
+         */
+        private List<String> locations = new ArrayList<>(List.of("classpath*:META-INF/future/redis/lua/*.lua"));
+    }
+
+    @Data
+    public static class Cluster {
+        /**
+         * 同时执行的节点批次数
+         */
+        private int parallelism = 8;
+        /**
+         * 集群拓扑缓存时间，只影响分组，不影响正确性
+         */
+        private Duration topologyRefresh = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Pipeline {
+        /**
+         * 每批发送的命令数，过大会占用较多客户端和服务端缓冲区
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Hash {
+        /**
+         * 带时间的 hset/hmset 是否只对写入的字段设置过期时间(HPEXPIRE)，需要 Redis 7.4+；关闭时对整个hash设置
+         */
+        private boolean fieldTtl = false;
+    }
+
+    @Data
+    public static class HotKey {
+        /**
+         * 是否开启热点key探测
+         */
+        private boolean enabled = false;
+        /**
+         * 每多少次访问抽样一次
+         */
+        private int sampleRate = 16;
+        /**
+         * 每个窗口内访问次数达到该值视为热点
+         */
+        private long threshold = 5000;
+        /**
+         * 每个窗口内同一前缀(redisKeyPrefixExtractor 提取)访问次数达到该值视为热点前缀，只进入报告；小于等于0时不统计前缀
+         */
+        private long prefixThreshold = 20000;
+        /**
+         * 统计窗口，每个窗口结束时计数衰减一半
+         */
+        private Duration window = Duration.ofSeconds(1);
+        /**
+         * 热点key本地副本有效期，也是其他节点写入后本节点最长的不一致时间
+         */
+        private Duration localTtl = Duration.ofSeconds(1);
+        /**
+         * 本地副本最大数量
+         */
+        private long localMaximumSize = 1000;
+        /**
+         * 报告中保留的key数量
+         */
+        private int topN = 20;
+        /**
+         * Count-Min Sketch 行数
+         */
+        private int depth = 4;
+        /**
+         * Count-Min Sketch 列数
+         */
+        private int width = 4096;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * 是否记录命令指标，没有 MeterRegistry 时始终不记录
+         */
+        private boolean enabled = true;
+        /**
+         * prefix 标签的数量上限，超出后归入 other
+         */
+        private int maxPrefixes = 100;
+        /**
+         * 是否发布直方图，用于在监控系统中计算分位数
+         */
+        private boolean percentileHistogram = false;
+    }
+
+    @Data
+    public static class Counter {
+        /**
+         * 是否创建 BufferedCounter
+         */
+        private boolean enabled = false;
+        /**
+         * 写入 Redis 的间隔，也是进程被强制终止时最多丢失的增量时间
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /**
+         * 单个计数累计增量达到该值时提前写入，小于等于0时只按间隔写入
+         */
+        private long flushThreshold = 10000;
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * 是否开启异步写缓存
+         */
+        private boolean enabled = false;
+        /**
+         * 队列中最多的key数量，达到后调用方阻塞等待
+         */
+        private int capacity = 100000;
+        /**
+         * 每个 pipeline 写入的key数量，队列积累到该数量时提前写入
+         */
+        private int batchSize = 1000;
+        /**
+         * 写入间隔
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+        /**
+         * 队列满时最长等待时间，超时后同步写入
+         */
+        private Duration offerTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Stream {
+        /**
+         * 每个 stream 保留的消息数量(近似裁剪)，小于等于0时不裁剪
+         */
+        private long maxLen = 100000;
+        /**
+         * 每次读取的消息数，也是一个处理批次的大小
+         */
+        private int batchSize = 100;
+        /**
+         * 没有新消息时阻塞读取的时间
+         */
+        private Duration block = Duration.ofSeconds(2);
+        /**
+         * 每个消费者同时处理的批次数
+         */
+        private int concurrency = 4;
+        /**
+         * 消息超过该时间未确认时被其他消费者认领
+         */
+        private Duration claimMinIdle = Duration.ofMinutes(1);
+        /**
+         * 检查未确认消息的间隔
+         */
+        private Duration claimInterval = Duration.ofSeconds(30);
+        /**
+         * 投递次数达到该值的消息转入死信 stream，小于等于0时不转入
+         */
+        private int maxDeliveries = 16;
+    }
+
+    @Data
+    public static class DelayQueue {
+        /**
+         * 每次认领的最大任务数
+         */
+        private int batchSize = 100;
+        /**
+         * 每个队列同时处理的批次数
+         */
+        private int concurrency = 4;
+        /**
+         * 认领后超过该时间未确认的任务重新投递
+         */
+        private Duration visibilityTimeout = Duration.ofSeconds(30);
+        /**
+         * 投递次数达到该值仍未确认的任务转入死信，小于等于0时不限制
+         */
+        private int maxAttempts = 16;
+        /**
+         * 处理失败后重新投递的延迟
+         */
+        private Duration retryDelay = Duration.ofSeconds(5);
+        /**
+         * 最短轮询间隔
+         */
+        private Duration minPollInterval = Duration.ofMillis(20);
+        /**
+         * 队列为空时的最长轮询间隔
+         */
+        private Duration maxPollInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Shard {
+        /**
+         * 是否开启客户端分片，开启后按key的一致性哈希分布到 nodes 中的各个实例
+         */
+        private boolean enabled = false;
+        /**
+         * 每个实例在哈希环上的虚拟节点数
+         */
+        private int virtualNodes = 160;
+        /**
+         * 连接各实例的命令超时时间
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+        /**
+         * 分片实例
+         */
+        private List<ShardNode> nodes = new ArrayList<>();
+    }
+
+    @Data
+    public static class ShardNode {
+        /**
+         * 分片名，决定实例在哈希环上的位置；更换实例地址时保持名称不变，key的归属就不会变化
+         */
+        private String name;
+        private String host = "localhost";
+        private int port = 6379;
+        private String username;
+        private String password;
+        private int database = 0;
+    }
+
+    @Data
+    public static class Read {
+        /**
+         * RedisService 读命令的节点选择，取值为 Lettuce ReadFrom 名称：replicaPreferred、replica、anyReplica、nearest(lowestLatency)、any 等，
+         * 也可以写成 REPLICA_PREFERRED 形式；为空时读写都发往主节点
+         */
+        private String readFrom;
+        /**
+         * 对冲读
+         */
+        private Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class Hedge {
+        /**
+         * 是否开启对冲读，读请求超过延迟未返回时向另一节点再发一次，取先返回的结果
+         */
+        private boolean enabled = false;
+        /**
+         * 对冲请求的节点选择，取值同 read-from，master/upstream 表示主节点；应与 read-from 选到不同节点
+         */
+        private String readFrom = "anyReplica";
+        /**
+         * 对冲延迟取最近读耗时的该分位数
+         */
+        private double percentile = 0.95;
+        /**
+         * 最短对冲延迟
+         */
+        private Duration minDelay = Duration.ofMillis(2);
+        /**
+         * 最长对冲延迟，样本不足时使用
+         */
+        private Duration maxDelay = Duration.ofMillis(50);
+        /**
+         * 对冲请求占读请求的最大比例
+         */
+        private double maxRatio = 0.1;
+        /**
+         * 执行读请求的最大线程数，线程耗尽时在调用线程直接读取，不对冲
+         */
+        private int threads = 64;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * 是否启用 @FutureCacheable/@FutureCachePut/@FutureCacheEvict 与 CacheManager
+         */
+        private boolean enabled = true;
+        /**
+         * 未在 regions 中配置的区域使用的策略
+         */
+        private CacheRegion defaults = new CacheRegion();
+        /**
+         * 按区域名配置的策略，未设置的项取 CacheRegion 的默认值而不是 defaults
+         */
+        private Map<String, CacheRegion> regions = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class CacheRegion {
+        /**
+         * 过期时间，小于等于0为永不过期
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+        /**
+         * 过期时间随机增加 0~jitter 的比例，避免同一批写入的key同时过期
+         */
+        private double jitter = 0.1;
+        /**
+         * 是否缓存空结果
+         */
+        private boolean cacheNull = true;
+        /**
+         * 空结果过期时间
+         */
+        private Duration nullTtl = Duration.ofSeconds(60);
+        /**
+         * 是否开启本地一级缓存，需要 future.redis.local.enabled=true
+         */
+        private boolean local = false;
+        /**
+         * 本地缓存最大条目数
+         */
+        private long localMaximumSize = 10000;
+        /**
+         * 本地缓存写入后过期时间
+         */
+        private Duration localTtl = Duration.ofSeconds(30);
+        /**
+         * 值序列化器的 bean 名称(RedisSerializer)，为空时使用 redisTemplate 的值序列化器；
+         * 设置后该区域直接通过独立模板读写主实例，不经过本地缓存、分片与副本读
+         */
+        private String serializer;
+    }
+}
@@ -0,0 +1,66 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.cache.CacheRegionRegistry;
+import com.xujie.future.redis.cache.FutureCacheAdvisor;
+import com.xujie.future.redis.cache.FutureCacheInterceptor;
+import com.xujie.future.redis.cache.FutureRedisCacheManager;
+import com.xujie.future.redis.keyBuilder.RedisKeyBuilder;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.service.RedisService;
+import com.xujie.future.redis.util.RedisKeyUtil;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheAspectSupport;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 缓存注解与 CacheManager 配置，future.redis.cache.enabled=false 时关闭
+ * <p>
+ * 切面为基础设施角色，只要容器中有自动代理创建器(Spring Boot 默认开启 spring.aop.auto)即可生效，不依赖 AspectJ。
+ * 开启 &#64;EnableCaching 且未自定义 CacheManager 时注册 {@link FutureRedisCacheManager}，
+ * Spring Cache 注解与 &#64;FutureCacheable 共用区域配置与key。
+ *
+ * @author Xujie
+ * @since 2025/5/16 14:10
+ **/
+@ConditionalOnProperty(prefix = "future.redis.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RedisCacheAnnotationConfig {
+
+    @Bean
+    public CacheRegionRegistry cacheRegionRegistry(RedisService redisService, RedisTemplate<String, Object> redisTemplate,
+                                                   RedisKeyUtil redisKeyUtil, RedisKeyBuilder redisKeyBuilder,
+                                                   FutureRedisProperties properties, ObjectProvider<NearCache> nearCache,
+                                                   ObjectProvider<RedisMetrics> redisMetrics, BeanFactory beanFactory) {
+        CacheRegionRegistry registry = new CacheRegionRegistry(redisService, redisTemplate, redisKeyUtil, redisKeyBuilder,
+                properties.getCache(), nearCache.getIfAvailable(), beanFactory);
+        RedisMetrics metrics = redisMetrics.getIfAvailable();
+        if (metrics != null) {
+            registry.bindTo(metrics.getRegistry());
+        }
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnBean(CacheAspectSupport.class)
+    @ConditionalOnMissingBean(CacheManager.class)
+    public FutureRedisCacheManager cacheManager(CacheRegionRegistry cacheRegionRegistry, FutureRedisProperties properties) {
+        return new FutureRedisCacheManager(cacheRegionRegistry, properties.getCache().getRegions().keySet());
+    }
+
+    /**
+     * 静态方法，创建代理阶段不会提前实例化配置类；区域在首次调用时才获取
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static FutureCacheAdvisor futureCacheAdvisor(ObjectProvider<CacheRegionRegistry> cacheRegionRegistry, BeanFactory beanFactory) {
+        return new FutureCacheAdvisor(new FutureCacheInterceptor(cacheRegionRegistry, beanFactory));
+    }
+}
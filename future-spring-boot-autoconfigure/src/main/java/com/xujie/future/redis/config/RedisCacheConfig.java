@@ -1,17 +1,23 @@
 package com.xujie.future.redis.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import com.xujie.future.redis.codec.*;
+import com.xujie.future.redis.metrics.CompressionStats;
+import com.xujie.future.redis.metrics.KeyPrefixExtractor;
+import com.xujie.future.redis.metrics.MeteredRedisSerializer;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 public class RedisCacheConfig {
@@ -19,10 +25,11 @@ public class RedisCacheConfig {
      * 配置redisTemplate bean，自定义数据的序列化的方式
      *
      * @param redisConnectionFactory 连接redis的工厂，底层有场景依赖启动时，自动加载
+     * @param redisValueSerializer   值序列化器
      * @return
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, RedisSerializer<Object> redisValueSerializer) {
         //1.构建RedisTemplate模板对象
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
@@ -30,28 +37,114 @@ public class RedisCacheConfig {
         //设置key序列化方式
         template.setKeySerializer(new StringRedisSerializer());
         //设置value序列化方式
-        template.setValueSerializer(jackson2JsonRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
         //设置hash中field字段序列化方式
         template.setHashKeySerializer(new StringRedisSerializer());
         //设置hash中value的序列化方式
-        template.setHashValueSerializer(jackson2JsonRedisSerializer());
+        template.setHashValueSerializer(redisValueSerializer);
         //5.初始化参数设置
         template.afterPropertiesSet();
         return template;
     }
 
-    private Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer() {
-        // 创建一个ObjectMapper实例，用于处理JSON的序列化和反序列化
-        ObjectMapper objectMapper = new ObjectMapper();
-        // 设置属性访问权限为ANY，允许序列化和反序列化任何可见属性
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        // 配置ObjectMapper，在遇到未知属性时不会抛出异常，而是忽略这些属性
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        // 启用默认类型标记，使得反序列化时可以处理未标记为final的子类
-        objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
-        // 使用配置好的ObjectMapper创建Jackson2JsonRedisSerializer实例
-        Jackson2JsonRedisSerializer<Object> jsonRedisSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
-        // 返回配置好的JSON序列化器
-        return jsonRedisSerializer;
+    /**
+     * 值序列化器，按 future.redis.codec.type 选择写入格式，读取兼容所有已知格式；
+     * 引入 lz4-java/zstd-jni 后可按 future.redis.compression 压缩大值
+     *
+     * @param properties       配置
+     * @param customCodecs     自定义编解码器
+     * @param compressionStats 压缩统计
+     * @param redisMetrics     指标 存在时记录值大小
+     * @return
+     */
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(FutureRedisProperties properties, ObjectProvider<RedisValueCodec> customCodecs,
+                                                        CompressionStats compressionStats, ObjectProvider<RedisMetrics> redisMetrics) {
+        RedisSerializer<Object> serializer = valueSerializer(properties, customCodecs, compressionStats);
+        RedisMetrics metrics = redisMetrics.getIfAvailable();
+        return metrics == null ? serializer : new MeteredRedisSerializer(serializer, metrics);
+    }
+
+    private RedisSerializer<Object> valueSerializer(FutureRedisProperties properties, ObjectProvider<RedisValueCodec> customCodecs,
+                                                    CompressionStats compressionStats) {
+        List<RedisValueCodec> codecs = new ArrayList<>();
+        customCodecs.orderedStream().forEach(codecs::add);
+        codecs.add(new SmileRedisValueCodec(typeIds(properties.getCodec().getTypeIds())));
+        // json 无法通过魔数识别，必须最后一个
+        codecs.add(new JacksonJsonRedisValueCodec());
+
+        String type = properties.getCodec().getType();
+        RedisValueCodec writer = codecs.stream()
+                .filter(codec -> codec.name().equals(type))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("unknown future.redis.codec.type: " + type));
+        // 读取时优先尝试写入格式，json 仍保持在最后
+        List<RedisValueCodec> readers = new ArrayList<>(codecs);
+        if (!(writer instanceof JacksonJsonRedisValueCodec)) {
+            readers.remove(writer);
+            readers.add(0, writer);
+        }
+        RedisValueCodecSerializer codecSerializer = new RedisValueCodecSerializer(writer, readers);
+
+        FutureRedisProperties.Compression compression = properties.getCompression();
+        List<ValueCompressor> compressors = compressors(compression);
+        ValueCompressor compressor = null;
+        if (compression.isEnabled()) {
+            String algorithm = compression.getAlgorithm();
+            compressor = compressors.stream()
+                    .filter(c -> c.name().equals(algorithm))
+                    .findFirst()
+                    .orElseThrow(() -> missingCompressor(algorithm));
+        } else if (compressors.isEmpty()) {
+            return codecSerializer;
+        }
+        return new CompressingRedisSerializer(codecSerializer, compressor, compressors,
+                (int) compression.getThreshold().toBytes(), compressionStats);
+    }
+
+    /**
+     * 统计使用的key前缀提取方式，默认取第一个 : 之前的部分
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public KeyPrefixExtractor redisKeyPrefixExtractor() {
+        return KeyPrefixExtractor.delimited(':', 1);
+    }
+
+    @Bean
+    public CompressionStats redisCompressionStats(KeyPrefixExtractor redisKeyPrefixExtractor) {
+        return new CompressionStats(redisKeyPrefixExtractor);
+    }
+
+    private List<ValueCompressor> compressors(FutureRedisProperties.Compression compression) {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        List<ValueCompressor> compressors = new ArrayList<>();
+        if (ClassUtils.isPresent("net.jpountz.lz4.LZ4Factory", classLoader)) {
+            compressors.add(new Lz4ValueCompressor());
+        }
+        if (ClassUtils.isPresent("com.github.luben.zstd.Zstd", classLoader)) {
+            compressors.add(new ZstdValueCompressor(compression.getZstdLevel()));
+        }
+        return compressors;
+    }
+
+    /**
+     * 开启压缩但算法不可用：已知算法缺少依赖时抛出 IllegalStateException，未知算法抛出 IllegalArgumentException
+     */
+    private RuntimeException missingCompressor(String algorithm) {
+        if (Lz4ValueCompressor.NAME.equals(algorithm)) {
+            return new IllegalStateException("future.redis.compression.algorithm=lz4 requires org.lz4:lz4-java on the classpath");
+        }
+        if (ZstdValueCompressor.NAME.equals(algorithm)) {
+            return new IllegalStateException("future.redis.compression.algorithm=zstd requires com.github.luben:zstd-jni on the classpath");
+        }
+        return new IllegalArgumentException("compression algorithm not available: " + algorithm);
+    }
+
+    private Map<String, Class<?>> typeIds(Map<String, String> typeNames) {
+        Map<String, Class<?>> typeIds = new LinkedHashMap<>();
+        typeNames.forEach((id, className) ->
+                typeIds.put(id, ClassUtils.resolveClassName(className, ClassUtils.getDefaultClassLoader())));
+        return typeIds;
     }
 }
@@ -0,0 +1,39 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.hotkey.HotKeyEndpoint;
+import com.xujie.future.redis.metrics.KeyPrefixExtractor;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 热点key探测配置，future.redis.hotkey.enabled=true 时生效
+ *
+ * @author Xujie
+ * @since 2025/5/2 11:20
+ **/
+@ConditionalOnProperty(prefix = "future.redis.hotkey", name = "enabled", havingValue = "true")
+public class RedisHotKeyConfig {
+
+    @Bean
+    public HotKeyDetector hotKeyDetector(FutureRedisProperties properties, KeyPrefixExtractor redisKeyPrefixExtractor) {
+        FutureRedisProperties.HotKey hotKey = properties.getHotkey();
+        return new HotKeyDetector(hotKey.getSampleRate(), hotKey.getThreshold(), hotKey.getWindow(), hotKey.getLocalTtl(),
+                hotKey.getLocalMaximumSize(), hotKey.getTopN(), hotKey.getDepth(), hotKey.getWidth(),
+                redisKeyPrefixExtractor, hotKey.getPrefixThreshold());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class HotKeyEndpointConfig {
+
+        @Bean
+        @ConditionalOnAvailableEndpoint(endpoint = HotKeyEndpoint.class)
+        public HotKeyEndpoint redisHotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+            return new HotKeyEndpoint(hotKeyDetector);
+        }
+    }
+}
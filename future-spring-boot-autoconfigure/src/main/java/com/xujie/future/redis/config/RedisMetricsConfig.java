@@ -0,0 +1,48 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.counter.BufferedCounter;
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.metrics.CompressionStats;
+import com.xujie.future.redis.metrics.KeyPrefixExtractor;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.metrics.RedisStatsMeterBinder;
+import com.xujie.future.redis.script.RedisScriptRegistry;
+import com.xujie.future.redis.service.RedisService;
+import com.xujie.future.redis.writebehind.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Micrometer 指标配置，存在 MeterRegistry 且 future.redis.metrics.enabled 不为 false 时生效
+ *
+ * @author Xujie
+ * @since 2025/5/5 10:50
+ **/
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "future.redis.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RedisMetricsConfig {
+
+    @Bean
+    public RedisMetrics redisMetrics(MeterRegistry meterRegistry, KeyPrefixExtractor redisKeyPrefixExtractor,
+                                     FutureRedisProperties properties) {
+        FutureRedisProperties.Metrics metrics = properties.getMetrics();
+        return new RedisMetrics(meterRegistry, redisKeyPrefixExtractor, metrics.getMaxPrefixes(), metrics.isPercentileHistogram());
+    }
+
+    @Bean
+    public RedisStatsMeterBinder redisStatsMeterBinder(ObjectProvider<NearCache> nearCache, RedisScriptRegistry redisScriptRegistry,
+                                                       RedisService redisService, ObjectProvider<HotKeyDetector> hotKeyDetector,
+                                                       ObjectProvider<BufferedCounter> bufferedCounter,
+                                                       ObjectProvider<WriteBehindBuffer> writeBehindBuffer,
+                                                       ObjectProvider<CompressionStats> compressionStats) {
+        return new RedisStatsMeterBinder(nearCache.getIfAvailable(), redisScriptRegistry, redisService.getRefreshStats(),
+                hotKeyDetector.getIfAvailable(), bufferedCounter.getIfAvailable(), writeBehindBuffer.getIfAvailable(),
+                compressionStats.getIfAvailable());
+    }
+}
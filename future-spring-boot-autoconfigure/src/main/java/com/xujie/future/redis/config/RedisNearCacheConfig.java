@@ -0,0 +1,47 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.local.NearCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 本地一级缓存配置，future.redis.local.enabled=true 时生效
+ *
+ * @author Xujie
+ * @since 2025/4/12 11:02
+ **/
+@ConditionalOnProperty(prefix = "future.redis.local", name = "enabled", havingValue = "true")
+public class RedisNearCacheConfig {
+
+    @Bean
+    public NearCache nearCache(FutureRedisProperties properties) {
+        FutureRedisProperties.Local local = properties.getLocal();
+        NearCache nearCache = new NearCache(local.getChannel());
+        for (FutureRedisProperties.Region region : local.getRegions()) {
+            nearCache.addRegion(region.getPrefix(), region.getMaximumSize(), region.getTtl());
+        }
+        return nearCache;
+    }
+
+    /**
+     * 订阅失效频道，消息体与 {@link com.xujie.future.redis.service.RedisService#publish} 使用同一序列化方式
+     */
+    @Bean
+    public RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                    RedisTemplate<String, Object> redisTemplate,
+                                                                    NearCache nearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (body != null) {
+                nearCache.onInvalidation(body.toString());
+            }
+        }, new ChannelTopic(nearCache.getChannel()));
+        return container;
+    }
+}
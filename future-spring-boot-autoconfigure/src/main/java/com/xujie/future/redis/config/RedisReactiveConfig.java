@@ -0,0 +1,55 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.service.AsyncRedisService;
+import com.xujie.future.redis.service.ReactiveRedisService;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import io.lettuce.core.RedisClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import reactor.core.publisher.Mono;
+
+/**
+ * 非阻塞 Redis 配置，使用 Lettuce 客户端时生效
+ *
+ * @author Xujie
+ * @since 2025/4/26 11:05
+ **/
+@ConditionalOnClass({RedisClient.class, Mono.class})
+public class RedisReactiveConfig {
+
+    /**
+     * 与 redisTemplate 使用同一值序列化方式，两边读写的数据可以互通
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> futureReactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                             RedisSerializer<Object> redisValueSerializer) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(redisValueSerializer)
+                .hashKey(StringRedisSerializer.UTF_8)
+                .hashValue(redisValueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    @Bean
+    public ReactiveRedisService reactiveRedisService(ReactiveRedisTemplate<String, Object> futureReactiveRedisTemplate,
+                                                     ObjectProvider<NearCache> nearCache, ObjectProvider<RedisShardRouter> shardRouter) {
+        ReactiveRedisService reactiveRedisService = new ReactiveRedisService(futureReactiveRedisTemplate);
+        reactiveRedisService.setNearCache(nearCache.getIfAvailable());
+        reactiveRedisService.setShardRouter(shardRouter.getIfAvailable());
+        return reactiveRedisService;
+    }
+
+    @Bean
+    public AsyncRedisService asyncRedisService(ReactiveRedisService reactiveRedisService) {
+        return new AsyncRedisService(reactiveRedisService);
+    }
+}
@@ -0,0 +1,86 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.read.HedgedReader;
+import com.xujie.future.redis.read.ReadFromClientConfiguration;
+import com.xujie.future.redis.read.RedisReadRouter;
+import io.lettuce.core.ReadFrom;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 副本读与对冲读配置，设置 future.redis.read.read-from 或 future.redis.read.hedge.enabled=true 时生效
+ * <p>
+ * 按 ReadFrom 另建 Lettuce 连接，主 redisTemplate 不变，分布式锁、Lua 脚本、写命令仍只发往主节点。
+ * 需要 Lettuce 客户端。
+ *
+ * @author Xujie
+ * @since 2025/5/14 11:40
+ **/
+@ConditionalOnExpression("'${future.redis.read.read-from:}' != '' or ${future.redis.read.hedge.enabled:false}")
+public class RedisReadConfig {
+
+    @Bean
+    public RedisReadRouter redisReadRouter(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties,
+                                           ObjectProvider<RedisMetrics> redisMetrics) {
+        RedisConnectionFactory connectionFactory = redisTemplate.getConnectionFactory();
+        if (!(connectionFactory instanceof LettuceConnectionFactory)) {
+            throw new IllegalStateException("future.redis.read requires a LettuceConnectionFactory, found " + connectionFactory);
+        }
+        LettuceConnectionFactory primary = (LettuceConnectionFactory) connectionFactory;
+        FutureRedisProperties.Read read = properties.getRead();
+        List<LettuceConnectionFactory> created = new ArrayList<>();
+        RedisTemplate<String, Object> readTemplate = template(redisTemplate, primary, read.getReadFrom(), created);
+        HedgedReader hedgedReader = null;
+        FutureRedisProperties.Hedge hedge = read.getHedge();
+        if (hedge.isEnabled()) {
+            boolean sameNodes = StringUtils.hasText(hedge.getReadFrom()) && StringUtils.hasText(read.getReadFrom())
+                    && ReadFromClientConfiguration.readFrom(hedge.getReadFrom()) == ReadFromClientConfiguration.readFrom(read.getReadFrom());
+            RedisTemplate<String, Object> hedgeTemplate = sameNodes
+                    ? readTemplate : template(redisTemplate, primary, hedge.getReadFrom(), created);
+            if (hedgeTemplate == readTemplate) {
+                // 对冲请求与首选请求发往同一组节点，无法避开慢节点
+                throw new IllegalStateException("future.redis.read.hedge.read-from must select different nodes from future.redis.read.read-from");
+            }
+            hedgedReader = new HedgedReader(readTemplate, hedgeTemplate, hedge.getPercentile(), hedge.getMinDelay(),
+                    hedge.getMaxDelay(), hedge.getMaxRatio(), hedge.getThreads());
+            RedisMetrics metrics = redisMetrics.getIfAvailable();
+            if (metrics != null) {
+                hedgedReader.bindTo(metrics.getRegistry());
+            }
+        }
+        return new RedisReadRouter(readTemplate, hedgedReader, created);
+    }
+
+    /**
+     * readFrom 为空或为主节点时返回主 redisTemplate
+     */
+    private static RedisTemplate<String, Object> template(RedisTemplate<String, Object> redisTemplate, LettuceConnectionFactory primary,
+                                                         String readFrom, List<LettuceConnectionFactory> created) {
+        if (!StringUtils.hasText(readFrom)) {
+            return redisTemplate;
+        }
+        ReadFrom nodes = ReadFromClientConfiguration.readFrom(readFrom);
+        if (nodes == ReadFrom.MASTER || nodes == ReadFrom.UPSTREAM) {
+            return redisTemplate;
+        }
+        LettuceConnectionFactory connectionFactory = ReadFromClientConfiguration.connectionFactory(primary, nodes);
+        created.add(connectionFactory);
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(redisTemplate.getKeySerializer());
+        template.setValueSerializer(redisTemplate.getValueSerializer());
+        template.setHashKeySerializer(redisTemplate.getHashKeySerializer());
+        template.setHashValueSerializer(redisTemplate.getHashValueSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+}
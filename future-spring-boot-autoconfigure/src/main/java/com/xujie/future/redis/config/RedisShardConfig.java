@@ -0,0 +1,83 @@
+package com.xujie.future.redis.config;
+
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.shard.RedisShard;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 客户端分片配置，future.redis.shard.enabled=true 时生效
+ * <p>
+ * 每个分片实例一个 Lettuce 连接，模板的序列化方式与主 redisTemplate 相同。
+ * 主 redisTemplate(spring.data.redis)仍用于发布订阅、Lua 脚本注册、Stream、延迟队列等不按key路由的功能。
+ *
+ * @author Xujie
+ * @since 2025/5/13 14:20
+ **/
+@ConditionalOnProperty(prefix = "future.redis.shard", name = "enabled", havingValue = "true")
+public class RedisShardConfig {
+
+    @Bean
+    public RedisShardRouter redisShardRouter(RedisTemplate<String, Object> redisTemplate, FutureRedisProperties properties,
+                                             ObjectProvider<RedisMetrics> redisMetrics) {
+        FutureRedisProperties.Shard shard = properties.getShard();
+        if (shard.getNodes().isEmpty()) {
+            throw new IllegalStateException("future.redis.shard.nodes must not be empty when sharding is enabled");
+        }
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(shard.getTimeout())
+                .build();
+        Set<String> names = new HashSet<>();
+        List<RedisShard> shards = new ArrayList<>(shard.getNodes().size());
+        for (FutureRedisProperties.ShardNode node : shard.getNodes()) {
+            String name = StringUtils.hasText(node.getName()) ? node.getName() : node.getHost() + ":" + node.getPort();
+            if (!names.add(name)) {
+                throw new IllegalStateException("duplicate redis shard name: " + name);
+            }
+            RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(node.getHost(), node.getPort());
+            standalone.setDatabase(node.getDatabase());
+            standalone.setUsername(node.getUsername());
+            standalone.setPassword(RedisPassword.of(node.getPassword()));
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(standalone, clientConfiguration);
+            connectionFactory.afterPropertiesSet();
+            shards.add(new RedisShard(name, template(redisTemplate, connectionFactory), stringTemplate(connectionFactory)));
+        }
+        RedisShardRouter router = new RedisShardRouter(shards, shard.getVirtualNodes());
+        RedisMetrics metrics = redisMetrics.getIfAvailable();
+        if (metrics != null) {
+            router.bindTo(metrics.getRegistry());
+        }
+        return router;
+    }
+
+    private static RedisTemplate<String, Object> template(RedisTemplate<String, Object> primary, LettuceConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(primary.getKeySerializer());
+        template.setValueSerializer(primary.getValueSerializer());
+        template.setHashKeySerializer(primary.getHashKeySerializer());
+        template.setHashValueSerializer(primary.getHashValueSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static StringRedisTemplate stringTemplate(LettuceConnectionFactory connectionFactory) {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
@@ -0,0 +1,287 @@
+package com.xujie.future.redis.counter;
+
+import com.xujie.future.redis.pipeline.Response;
+import com.xujie.future.redis.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地聚合的计数器，适合浏览量、点赞数等只需秒级准确的计数
+ * <p>
+ * 增量先累加到本地 LongAdder，每隔 flushInterval 或单个计数的累计增量达到 flushThreshold 时，
+ * 把所有非零增量通过一个 pipeline 以 INCRBY/HINCRBY 写入 Redis。
+ * <p>
+ * 持久性：Redis 中的值最多落后 flushInterval(外加一次写入耗时)；进程正常关闭时会写入剩余增量，
+ * 进程被强制终止时最近一个周期内的增量会丢失。写入失败的增量保留在本地，下个周期重试；
+ * 网络中断发生在命令已执行、回复未收到时，重试会导致该增量重复计入。
+ *
+ * @author Xujie
+ * @since 2025/5/7 10:20
+ **/
+@Slf4j
+public class BufferedCounter implements DisposableBean {
+
+    private final RedisService redisService;
+
+    private final long flushThreshold;
+
+    private final Map<CounterKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 上一次写入时移除的空闲计数，可能仍有线程持有其引用，下一次写入时再汇总一次
+     */
+    private List<Map.Entry<CounterKey, LongAdder>> retired = new ArrayList<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * 最早一笔未写入增量的时间，没有未写入增量时为0
+     */
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+
+    private final LongAdder flushCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder flushedCommands = new LongAdder();
+
+    private volatile long lastFlushNanos;
+
+    /**
+     * @param redisService   Redis 操作
+     * @param flushInterval  写入间隔
+     * @param flushThreshold 单个计数累计增量(绝对值)达到该值时提前写入，小于等于0时只按间隔写入
+     */
+    public BufferedCounter(RedisService redisService, Duration flushInterval, long flushThreshold) {
+        this.redisService = redisService;
+        this.flushThreshold = flushThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-counter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 计数增加，对应 INCRBY
+     *
+     * @param key   键
+     * @param delta 增量 可以为负数
+     */
+    public void increment(String key, long delta) {
+        add(new CounterKey(key, null), delta);
+    }
+
+    /**
+     * hash 字段计数增加，对应 HINCRBY
+     *
+     * @param key   键
+     * @param item  项
+     * @param delta 增量 可以为负数
+     */
+    public void hincrement(String key, String item, long delta) {
+        add(new CounterKey(key, item), delta);
+    }
+
+    /**
+     * 本地尚未写入 Redis 的增量
+     */
+    public long pendingDelta(String key, String item) {
+        LongAdder adder = pending.get(new CounterKey(key, item));
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 立即写入所有增量
+     *
+     * @return 写入的计数个数
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        long start = System.nanoTime();
+        List<CounterKey> keys = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        oldestPendingNanos.set(0);
+        for (Map.Entry<CounterKey, LongAdder> entry : retired) {
+            collect(entry.getKey(), entry.getValue().sumThenReset(), keys, deltas);
+        }
+        retired = new ArrayList<>();
+        Iterator<Map.Entry<CounterKey, LongAdder>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CounterKey, LongAdder> entry = iterator.next();
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                // 一个周期内没有变化，移除以免key无限增长
+                iterator.remove();
+                retired.add(entry);
+            } else {
+                collect(entry.getKey(), delta, keys, deltas);
+            }
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Response<Long>> responses = new ArrayList<>(keys.size());
+        try {
+            redisService.pipelined(pipeline -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    CounterKey key = keys.get(i);
+                    responses.add(key.item == null
+                            ? pipeline.incr(key.key, deltas.get(i))
+                            : pipeline.hincr(key.key, key.item, deltas.get(i)));
+                }
+            });
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            log.error("redis buffered counter flush error, {} counters will be retried", keys.size(), e);
+        }
+        int written = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Response<Long> response = i < responses.size() ? responses.get(i) : null;
+            if (response != null && response.isDone() && !response.isFailed()) {
+                written++;
+            } else {
+                add(keys.get(i), deltas.get(i));
+            }
+        }
+        flushCount.increment();
+        flushedCommands.add(written);
+        lastFlushNanos = System.nanoTime() - start;
+        return written;
+    }
+
+    /**
+     * 最早一笔未写入增量距今的时间(毫秒)，没有未写入增量时为0
+     */
+    public long getFlushLagMillis() {
+        long oldest = oldestPendingNanos.get();
+        return oldest == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+    }
+
+    /**
+     * 本地计数个数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * 写入失败次数，失败的增量会在下个周期重试
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * 累计写入的 INCRBY/HINCRBY 命令数
+     */
+    public long getFlushedCommands() {
+        return flushedCommands.sum();
+    }
+
+    /**
+     * 上一次写入耗时(纳秒)
+     */
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private void add(CounterKey key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        LongAdder adder = pending.get(key);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(delta);
+        if (oldestPendingNanos.get() == 0) {
+            oldestPendingNanos.compareAndSet(0, System.nanoTime());
+        }
+        if (flushThreshold > 0 && Math.abs(adder.sum()) >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RuntimeException e) {
+                // 关闭中，由 destroy 写入
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private static void collect(CounterKey key, long delta, List<CounterKey> keys, List<Long> deltas) {
+        if (delta != 0) {
+            keys.add(key);
+            deltas.add(delta);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("redis buffered counter flush error", e);
+        }
+    }
+
+    private static final class CounterKey {
+
+        private final String key;
+
+        private final String item;
+
+        private CounterKey(String key, String item) {
+            this.key = key;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey that = (CounterKey) o;
+            return key.equals(that.key) && Objects.equals(item, that.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + (item == null ? 0 : item.hashCode());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.xujie.future.redis.delay;
+
+/**
+ * 延迟队列中被认领的任务
+ *
+ * @author Xujie
+ * @since 2025/5/12 10:20
+ **/
+public class DelayedJob<T> {
+
+    private final String id;
+
+    private final T payload;
+
+    private final long attempts;
+
+    DelayedJob(String id, T payload, long attempts) {
+        this.id = id;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public T getPayload() {
+        return payload;
+    }
+
+    /**
+     * 投递次数，首次投递为1
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+}
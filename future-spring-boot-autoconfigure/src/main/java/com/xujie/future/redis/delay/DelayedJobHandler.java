@@ -0,0 +1,18 @@
+package com.xujie.future.redis.delay;
+
+/**
+ * 延迟任务处理逻辑
+ *
+ * @author Xujie
+ * @since 2025/5/12 10:25
+ **/
+@FunctionalInterface
+public interface DelayedJobHandler<T> {
+
+    /**
+     * 处理一个到期任务，正常返回后任务被确认删除，抛出异常时按重试间隔重新投递
+     *
+     * @param job 任务
+     */
+    void handle(DelayedJob<T> job) throws Exception;
+}
@@ -0,0 +1,557 @@
+package com.xujie.future.redis.delay;
+
+import com.xujie.future.redis.script.RedisScriptRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 基于有序集合的延迟队列
+ * <p>
+ * 任务id按到期时间保存在 ready 有序集合中，内容保存在 jobs hash 中。认领由一个 Lua 脚本原子完成：
+ * 取出最多 N 个到期任务移入 inflight 有序集合(分数为可见性超时的截止时间)并返回内容，多个实例同时认领不会拿到同一个任务，
+ * 一次往返认领一批。超过可见性超时仍未确认的任务在下一次认领时放回 ready 重新投递，
+ * 投递次数达到 maxAttempts 的任务转入 dead 有序集合。
+ * <p>
+ * 所有 key 使用同一个 hash tag，集群下位于同一 slot。到期时间使用各实例的本地时钟，实例间时钟偏差会直接体现为投递偏差。
+ * 任务至少投递一次，处理逻辑需要幂等。
+ *
+ * @author Xujie
+ * @since 2025/5/12 10:30
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class RedisDelayedQueue<T> implements AutoCloseable {
+
+    private static final RedisSerializer<byte[]> RAW = RedisSerializer.byteArray();
+
+    /**
+     * 批量入队时每次脚本调用包含的任务数
+     */
+    private static final int OFFER_CHUNK_SIZE = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisScriptRegistry scriptRegistry;
+
+    private final RedisSerializer<Object> valueSerializer;
+
+    private final String name;
+
+    private final String readyKey;
+
+    private final String inflightKey;
+
+    private final String jobsKey;
+
+    private final String attemptsKey;
+
+    private final String deadKey;
+
+    private final Options options;
+
+    private final Semaphore inFlight;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+
+    private final LongAdder claimedCount = new LongAdder();
+
+    private final LongAdder ackedCount = new LongAdder();
+
+    private final LongAdder retriedCount = new LongAdder();
+
+    private final LongAdder redeliveredCount = new LongAdder();
+
+    private final LongAdder deadCount = new LongAdder();
+
+    /**
+     * 上一次认领后 ready 中最早的到期时间，没有任务时为-1
+     */
+    private volatile long nextDueMillis = -1;
+
+    private volatile boolean running;
+
+    private Thread poller;
+
+    /**
+     * @param redisTemplate  redisTemplate，使用其key和值序列化器
+     * @param scriptRegistry 脚本注册表
+     * @param name           队列名
+     * @param options        队列选项
+     * @param meterRegistry  指标注册表 可以为null
+     */
+    public RedisDelayedQueue(RedisTemplate<String, Object> redisTemplate, RedisScriptRegistry scriptRegistry, String name,
+                             Options options, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.scriptRegistry = scriptRegistry;
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.name = name;
+        String prefix = hasHashTag(name) ? name : "{" + name + "}";
+        this.readyKey = prefix + ":ready";
+        this.inflightKey = prefix + ":inflight";
+        this.jobsKey = prefix + ":jobs";
+        this.attemptsKey = prefix + ":attempts";
+        this.deadKey = prefix + ":dead";
+        this.options = options;
+        this.inFlight = new Semaphore(options.concurrency);
+        if (meterRegistry != null) {
+            bindMetrics(meterRegistry);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 入队，id 随机生成
+     *
+     * @param payload 任务内容
+     * @param delay   延迟时间
+     * @return 任务id
+     */
+    public String offer(T payload, Duration delay) {
+        String id = UUID.randomUUID().toString();
+        offer(id, payload, Instant.now().plus(delay));
+        return id;
+    }
+
+    /**
+     * 入队，相同 id 的任务已存在时覆盖其内容和到期时间
+     *
+     * @param id      任务id
+     * @param payload 任务内容
+     * @param dueAt   到期时间
+     */
+    public void offer(String id, T payload, Instant dueAt) {
+        offerAll(Collections.singletonMap(id, payload), dueAt);
+    }
+
+    /**
+     * 批量入队，每 1000 个任务一次脚本调用
+     *
+     * @param payloads key为任务id
+     * @param dueAt    到期时间
+     */
+    public void offerAll(Map<String, T> payloads, Instant dueAt) {
+        byte[] score = raw(Long.toString(dueAt.toEpochMilli()));
+        List<byte[]> args = new ArrayList<>(Math.min(payloads.size(), OFFER_CHUNK_SIZE) * 3);
+        for (Map.Entry<String, T> entry : payloads.entrySet()) {
+            args.add(raw(entry.getKey()));
+            args.add(score);
+            args.add(valueSerializer.serialize(entry.getValue()));
+            if (args.size() >= OFFER_CHUNK_SIZE * 3) {
+                offerChunk(args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            offerChunk(args);
+        }
+    }
+
+    /**
+     * 认领到期任务，认领后需在可见性超时内 {@link #ack} 或 {@link #retry}，否则重新投递
+     *
+     * @param max 最多认领数
+     * @return 认领的任务，没有到期任务时为空
+     */
+    public List<DelayedJob<T>> poll(int max) {
+        long now = System.currentTimeMillis();
+        List<Object> result = scriptRegistry.execute(redisTemplate, "delay-queue-claim", RAW, RAW,
+                Arrays.asList(readyKey, inflightKey, jobsKey, attemptsKey, deadKey),
+                raw(Long.toString(now)), raw(Integer.toString(max)),
+                raw(Long.toString(now + options.visibilityTimeout.toMillis())), raw(Integer.toString(options.maxAttempts)));
+        if (result == null || result.size() < 3) {
+            return Collections.emptyList();
+        }
+        nextDueMillis = ((Number) result.get(0)).longValue();
+        long redelivered = ((Number) result.get(1)).longValue();
+        long dead = ((Number) result.get(2)).longValue();
+        redeliveredCount.add(redelivered);
+        deadCount.add(dead);
+        if (dead > 0) {
+            log.warn("redis delayed queue {} moved {} jobs to dead after {} attempts", name, dead, options.maxAttempts);
+        }
+        List<DelayedJob<T>> jobs = new ArrayList<>((result.size() - 3) / 3);
+        for (int i = 3; i + 2 < result.size(); i += 3) {
+            String id = new String((byte[]) result.get(i), StandardCharsets.UTF_8);
+            T payload = (T) valueSerializer.deserialize((byte[]) result.get(i + 1));
+            jobs.add(new DelayedJob<>(id, payload, ((Number) result.get(i + 2)).longValue()));
+        }
+        claimedCount.add(jobs.size());
+        return jobs;
+    }
+
+    /**
+     * 确认任务完成，也可用于取消尚未到期的任务
+     *
+     * @param ids 任务id
+     * @return 实际删除的任务数
+     */
+    public long ack(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Long removed = scriptRegistry.execute(redisTemplate, "delay-queue-ack", RAW, RAW,
+                Arrays.asList(readyKey, inflightKey, jobsKey, attemptsKey), rawIds(ids));
+        long count = removed == null ? 0 : removed;
+        ackedCount.add(count);
+        return count;
+    }
+
+    public long ack(String id) {
+        return ack(Collections.singletonList(id));
+    }
+
+    /**
+     * 把已认领的任务放回队列，delay 后重新投递，投递次数继续累计；投递次数已达到 maxAttempts 的任务转入 dead
+     *
+     * @param ids   任务id
+     * @param delay 延迟时间
+     * @return 放回的任务数，已确认或已超时重新投递的任务不计入
+     */
+    public long retry(Collection<String> ids, Duration delay) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        List<Object> result = scriptRegistry.execute(redisTemplate, "delay-queue-retry", RAW, RAW,
+                Arrays.asList(inflightKey, readyKey, attemptsKey, deadKey),
+                rawIds(ids, raw(Long.toString(now + delay.toMillis())), raw(Integer.toString(options.maxAttempts))));
+        if (result == null || result.size() < 2) {
+            return 0;
+        }
+        long moved = ((Number) result.get(0)).longValue();
+        long dead = ((Number) result.get(1)).longValue();
+        retriedCount.add(moved);
+        deadCount.add(dead);
+        if (dead > 0) {
+            log.warn("redis delayed queue {} moved {} jobs to dead after {} attempts", name, dead, options.maxAttempts);
+        }
+        return moved;
+    }
+
+    /**
+     * 等待到期的任务数
+     */
+    public long readySize() {
+        return zCard(readyKey);
+    }
+
+    /**
+     * 已认领未确认的任务数
+     */
+    public long inflightSize() {
+        return zCard(inflightKey);
+    }
+
+    /**
+     * 超过最大投递次数的任务数，这些任务的内容仍保留在 jobs 中，需人工处理
+     */
+    public long deadSize() {
+        return zCard(deadKey);
+    }
+
+    /**
+     * 开始消费
+     * <p>
+     * 轮询线程每次认领一批任务交给 executor 处理，同时处理的批次不超过 concurrency；
+     * 队列为空时轮询间隔从 minPollInterval 倍增到 maxPollInterval，但不会晚于下一个任务的到期时间，
+     * 认领到任务后恢复为 minPollInterval，认领满一批时立即再次认领。
+     *
+     * @param handler  处理逻辑
+     * @param executor 处理线程池
+     */
+    public synchronized void start(DelayedJobHandler<T> handler, Executor executor) {
+        if (running) {
+            return;
+        }
+        running = true;
+        poller = new Thread(() -> pollLoop(handler, executor), "future-redis-delay-" + name);
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * 停止认领，等待处理中的批次完成
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        poller.interrupt();
+        try {
+            if (inFlight.tryAcquire(options.concurrency, 30, TimeUnit.SECONDS)) {
+                inFlight.release(options.concurrency);
+            } else {
+                log.warn("redis delayed queue {} closed with batches still in flight", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    public long getClaimedCount() {
+        return claimedCount.sum();
+    }
+
+    public long getAckedCount() {
+        return ackedCount.sum();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.sum();
+    }
+
+    /**
+     * 可见性超时后重新投递的任务数
+     */
+    public long getRedeliveredCount() {
+        return redeliveredCount.sum();
+    }
+
+    public long getDeadCount() {
+        return deadCount.sum();
+    }
+
+    private void offerChunk(List<byte[]> args) {
+        Long count = scriptRegistry.execute(redisTemplate, "delay-queue-offer", RAW, RAW,
+                Arrays.asList(readyKey, jobsKey, attemptsKey), args.toArray());
+        enqueuedCount.add(count == null ? 0 : count);
+    }
+
+    private void pollLoop(DelayedJobHandler<T> handler, Executor executor) {
+        long minPollMillis = options.minPollInterval.toMillis();
+        long maxPollMillis = options.maxPollInterval.toMillis();
+        long idleMillis = minPollMillis;
+        while (running) {
+            try {
+                inFlight.acquire();
+                List<DelayedJob<T>> jobs;
+                try {
+                    jobs = poll(options.batchSize);
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (jobs.isEmpty()) {
+                    inFlight.release();
+                    long waitMillis = idleMillis;
+                    long nextDue = nextDueMillis;
+                    if (nextDue >= 0) {
+                        waitMillis = Math.min(waitMillis, Math.max(1, nextDue - System.currentTimeMillis()));
+                    }
+                    idleMillis = Math.min(idleMillis * 2, maxPollMillis);
+                    Thread.sleep(waitMillis);
+                    continue;
+                }
+                idleMillis = minPollMillis;
+                dispatch(jobs, handler, executor);
+                if (jobs.size() < options.batchSize) {
+                    Thread.sleep(minPollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("redis delayed queue {} poll error", name, e);
+                try {
+                    Thread.sleep(maxPollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 提交一批任务处理，调用前已获取 inFlight 许可
+     */
+    private void dispatch(List<DelayedJob<T>> jobs, DelayedJobHandler<T> handler, Executor executor) {
+        try {
+            executor.execute(() -> {
+                try {
+                    process(jobs, handler);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            log.error("redis delayed queue {} batch rejected, {} jobs will be redelivered", name, jobs.size());
+        }
+    }
+
+    private void process(List<DelayedJob<T>> jobs, DelayedJobHandler<T> handler) {
+        List<String> succeeded = new ArrayList<>(jobs.size());
+        List<String> failed = new ArrayList<>();
+        for (DelayedJob<T> job : jobs) {
+            try {
+                handler.handle(job);
+                succeeded.add(job.getId());
+            } catch (Exception e) {
+                failed.add(job.getId());
+                log.error("redis delayed queue {} job {} failed, attempts {}", name, job.getId(), job.getAttempts(), e);
+            }
+        }
+        try {
+            ack(succeeded);
+            retry(failed, options.retryDelay);
+        } catch (RuntimeException e) {
+            // 未确认的任务在可见性超时后重新投递
+            log.error("redis delayed queue {} ack error", name, e);
+        }
+    }
+
+    private long zCard(String key) {
+        byte[] rawKey = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+        Long size = redisTemplate.execute((RedisCallback<Long>) connection -> connection.zSetCommands().zCard(rawKey));
+        return size == null ? 0 : size;
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Tags tags = Tags.of("queue", name);
+        counter(registry, "future.redis.delay.queue.enqueued", tags, RedisDelayedQueue::getEnqueuedCount);
+        counter(registry, "future.redis.delay.queue.claimed", tags, RedisDelayedQueue::getClaimedCount);
+        counter(registry, "future.redis.delay.queue.acked", tags, RedisDelayedQueue::getAckedCount);
+        counter(registry, "future.redis.delay.queue.retried", tags, RedisDelayedQueue::getRetriedCount);
+        counter(registry, "future.redis.delay.queue.redelivered", tags, RedisDelayedQueue::getRedeliveredCount);
+        counter(registry, "future.redis.delay.queue.dead", tags, RedisDelayedQueue::getDeadCount);
+    }
+
+    private void counter(MeterRegistry registry, String meterName, Tags tags, ToDoubleFunction<RedisDelayedQueue<?>> count) {
+        FunctionCounter.builder(meterName, this, count).tags(tags).register(registry);
+    }
+
+    private static Object[] rawIds(Collection<String> ids, byte[]... leading) {
+        Object[] args = new Object[leading.length + ids.size()];
+        System.arraycopy(leading, 0, args, 0, leading.length);
+        int index = leading.length;
+        for (String id : ids) {
+            args[index++] = raw(id);
+        }
+        return args;
+    }
+
+    private static byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean hasHashTag(String key) {
+        int open = key.indexOf('{');
+        int close = open < 0 ? -1 : key.indexOf('}', open + 1);
+        return close > open + 1;
+    }
+
+    /**
+     * 队列选项
+     */
+    public static class Options {
+
+        private int batchSize = 100;
+
+        private int concurrency = 4;
+
+        private Duration visibilityTimeout = Duration.ofSeconds(30);
+
+        private int maxAttempts = 16;
+
+        private Duration retryDelay = Duration.ofSeconds(5);
+
+        private Duration minPollInterval = Duration.ofMillis(20);
+
+        private Duration maxPollInterval = Duration.ofSeconds(1);
+
+        /**
+         * 每次认领的最大任务数
+         */
+        public Options batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * 同时处理的批次数
+         */
+        public Options concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * 认领后超过该时间未确认的任务重新投递，应明显长于一个批次的处理时间
+         */
+        public Options visibilityTimeout(Duration visibilityTimeout) {
+            this.visibilityTimeout = visibilityTimeout;
+            return this;
+        }
+
+        /**
+         * 投递次数达到该值且仍未确认的任务转入 dead，小于等于0时不限制
+         */
+        public Options maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * 处理失败后重新投递的延迟
+         */
+        public Options retryDelay(Duration retryDelay) {
+            this.retryDelay = retryDelay;
+            return this;
+        }
+
+        /**
+         * 最短轮询间隔
+         */
+        public Options minPollInterval(Duration minPollInterval) {
+            this.minPollInterval = minPollInterval;
+            return this;
+        }
+
+        /**
+         * 队列为空时的最长轮询间隔
+         */
+        public Options maxPollInterval(Duration maxPollInterval) {
+            this.maxPollInterval = maxPollInterval;
+            return this;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.xujie.future.redis.delay;
+
+import com.xujie.future.redis.script.RedisScriptRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建并管理 {@link RedisDelayedQueue}，容器关闭时停止所有消费
+ *
+ * @author Xujie
+ * @since 2025/5/12 11:40
+ **/
+public class RedisDelayedQueueFactory implements DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisScriptRegistry scriptRegistry;
+
+    private final RedisDelayedQueue.Options defaultOptions;
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<RedisDelayedQueue<?>> queues = new CopyOnWriteArrayList<>();
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param redisTemplate  redisTemplate
+     * @param scriptRegistry 脚本注册表
+     * @param defaultOptions 默认队列选项
+     * @param meterRegistry  指标注册表 可以为null
+     */
+    public RedisDelayedQueueFactory(RedisTemplate<String, Object> redisTemplate, RedisScriptRegistry scriptRegistry,
+                                    RedisDelayedQueue.Options defaultOptions, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.scriptRegistry = scriptRegistry;
+        this.defaultOptions = defaultOptions;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 创建队列，只入队或手动认领时使用
+     *
+     * @param name 队列名
+     */
+    public <T> RedisDelayedQueue<T> create(String name) {
+        return create(name, defaultOptions);
+    }
+
+    public <T> RedisDelayedQueue<T> create(String name, RedisDelayedQueue.Options options) {
+        RedisDelayedQueue<T> queue = new RedisDelayedQueue<>(redisTemplate, scriptRegistry, name, options, meterRegistry);
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * 创建队列并开始消费，使用 concurrency 个线程的独立线程池
+     *
+     * @param name    队列名
+     * @param handler 处理逻辑
+     */
+    public <T> RedisDelayedQueue<T> create(String name, DelayedJobHandler<T> handler) {
+        return create(name, defaultOptions, handler);
+    }
+
+    public <T> RedisDelayedQueue<T> create(String name, RedisDelayedQueue.Options options, DelayedJobHandler<T> handler) {
+        RedisDelayedQueue<T> queue = create(name, options);
+        ExecutorService executor = newExecutor(name, options.getConcurrency());
+        executors.add(executor);
+        queue.start(handler, executor);
+        return queue;
+    }
+
+    /**
+     * 已创建的队列
+     */
+    public List<RedisDelayedQueue<?>> getQueues() {
+        return queues;
+    }
+
+    @Override
+    public void destroy() {
+        for (RedisDelayedQueue<?> queue : queues) {
+            queue.close();
+        }
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newExecutor(String name, int concurrency) {
+        AtomicInteger index = new AtomicInteger();
+        // 提交前已由 concurrency 个许可限流，队列不会堆积
+        return new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-delay-" + name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,281 @@
+package com.xujie.future.redis.hotkey;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.xujie.future.redis.metrics.KeyPrefixExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点key探测与本地提升
+ * <p>
+ * 按 1/sampleRate 的概率抽样访问，用 {@link CountMinSketch} 估计各key的访问次数，每个窗口衰减一半。
+ * 估计的访问量(抽样数 * sampleRate)超过阈值的key成为热点key，其值在本地保留 localTtl，
+ * 期间的读取不再访问 Redis；本节点的写操作会立即清除本地副本，其他节点的写入最多延迟 localTtl 可见。
+ * 本地命中同样计数，热点key只有在访问量真正下降后才会被移除。
+ * <p>
+ * 同时按前缀统计访问量，用于发现大量不同key集中在同一业务前缀的情况。前缀只进入报告，不做本地提升。
+ *
+ * @author Xujie
+ * @since 2025/5/2 10:40
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class HotKeyDetector implements DisposableBean {
+
+    private final CountMinSketch sketch;
+
+    private final int sampleRate;
+
+    private final long threshold;
+
+    private final int topN;
+
+    /**
+     * 进入候选的最低估计值(抽样次数)，候选用于生成热点报告
+     */
+    private final int candidateFloor;
+
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Integer> candidates = new ConcurrentHashMap<>();
+
+    private final Cache<String, Object> localValues;
+
+    private final KeyPrefixExtractor prefixExtractor;
+
+    private final CountMinSketch prefixSketch;
+
+    private final long prefixThreshold;
+
+    private final int prefixCandidateFloor;
+
+    private final Map<String, Integer> prefixCandidates = new ConcurrentHashMap<>();
+
+    private final Set<String> hotPrefixes = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile List<HotKey> report = Collections.emptyList();
+
+    private volatile List<HotKey> prefixReport = Collections.emptyList();
+
+    /**
+     * @param sampleRate       每 sampleRate 次访问抽样一次
+     * @param threshold        每个窗口内访问次数达到该值视为热点
+     * @param window           衰减窗口
+     * @param localTtl         热点key本地副本有效期
+     * @param localMaximumSize 本地副本最大数量
+     * @param topN             报告中保留的key数量
+     * @param depth            sketch 行数
+     * @param width            sketch 列数
+     * @param prefixExtractor  前缀提取 为null时不统计前缀
+     * @param prefixThreshold  每个窗口内前缀访问次数达到该值视为热点前缀
+     */
+    public HotKeyDetector(int sampleRate, long threshold, Duration window, Duration localTtl, long localMaximumSize,
+                          int topN, int depth, int width, KeyPrefixExtractor prefixExtractor, long prefixThreshold) {
+        this.sketch = new CountMinSketch(depth, width);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.threshold = threshold;
+        this.topN = topN;
+        this.candidateFloor = (int) Math.max(1, threshold / this.sampleRate / 4);
+        this.prefixExtractor = prefixThreshold > 0 ? prefixExtractor : null;
+        this.prefixSketch = this.prefixExtractor != null ? new CountMinSketch(depth, width) : null;
+        this.prefixThreshold = prefixThreshold;
+        this.prefixCandidateFloor = (int) Math.max(1, prefixThreshold / this.sampleRate / 4);
+        this.localValues = CacheBuilder.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-hotkey");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowMillis = window.toMillis();
+        this.scheduler.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次访问，本地命中也需要记录
+     */
+    public void record(String key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        if (prefixExtractor != null) {
+            recordPrefix(prefixExtractor.extract(key));
+        }
+        int estimate = sketch.increment(key);
+        if (estimate < candidateFloor) {
+            return;
+        }
+        candidates.merge(key, estimate, Math::max);
+        if ((long) estimate * sampleRate >= threshold && hotKeys.add(key)) {
+            log.warn("redis hot key detected: {}, estimated {} requests per window", key, (long) estimate * sampleRate);
+        }
+    }
+
+    private void recordPrefix(String prefix) {
+        int estimate = prefixSketch.increment(prefix);
+        if (estimate < prefixCandidateFloor) {
+            return;
+        }
+        prefixCandidates.merge(prefix, estimate, Math::max);
+        if ((long) estimate * sampleRate >= prefixThreshold && hotPrefixes.add(prefix)) {
+            log.warn("redis hot key prefix detected: {}, estimated {} requests per window", prefix, (long) estimate * sampleRate);
+        }
+    }
+
+    public boolean isHot(String key) {
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * 当前热点key数量
+     */
+    public int getHotKeyCount() {
+        return hotKeys.size();
+    }
+
+    /**
+     * 热点key的本地副本
+     *
+     * @return 不是热点或没有副本时返回null
+     */
+    public <T> T getLocal(String key) {
+        return hotKeys.isEmpty() ? null : (T) localValues.getIfPresent(key);
+    }
+
+    /**
+     * 保存热点key的本地副本，非热点key忽略
+     */
+    public void putLocal(String key, Object value) {
+        if (value != null && hotKeys.contains(key)) {
+            localValues.put(key, value);
+        }
+    }
+
+    public void invalidate(String key) {
+        localValues.invalidate(key);
+    }
+
+    /**
+     * 最近一个窗口的热点报告，按估计访问量倒序
+     */
+    public List<HotKey> report() {
+        return report;
+    }
+
+    /**
+     * 最近一个窗口的热点前缀报告，按估计访问量倒序，promoted 表示超过前缀阈值
+     */
+    public List<HotKey> prefixReport() {
+        return prefixReport;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 窗口结束：生成报告、衰减计数、移除冷却的热点key
+     */
+    private void rotate() {
+        try {
+            List<HotKey> ranked = new ArrayList<>(candidates.size());
+            for (String key : candidates.keySet()) {
+                long estimate = (long) sketch.estimate(key) * sampleRate;
+                ranked.add(new HotKey(key, estimate, hotKeys.contains(key)));
+            }
+            ranked.sort(Comparator.comparingLong(HotKey::getEstimatedRequests).reversed());
+            report = Collections.unmodifiableList(new ArrayList<>(ranked.subList(0, Math.min(topN, ranked.size()))));
+
+            sketch.halve();
+            candidates.clear();
+            for (HotKey hotKey : ranked) {
+                int estimate = sketch.estimate(hotKey.getKey());
+                if (estimate >= candidateFloor) {
+                    candidates.put(hotKey.getKey(), estimate);
+                }
+            }
+            hotKeys.removeIf(key -> {
+                boolean cooled = (long) sketch.estimate(key) * sampleRate < threshold / 2;
+                if (cooled) {
+                    localValues.invalidate(key);
+                }
+                return cooled;
+            });
+            if (prefixSketch != null) {
+                rotatePrefixes();
+            }
+        } catch (Exception e) {
+            log.error("redis hot key rotate error", e);
+        }
+    }
+
+    private void rotatePrefixes() {
+        List<HotKey> ranked = new ArrayList<>(prefixCandidates.size());
+        for (String prefix : prefixCandidates.keySet()) {
+            long estimate = (long) prefixSketch.estimate(prefix) * sampleRate;
+            ranked.add(new HotKey(prefix, estimate, hotPrefixes.contains(prefix)));
+        }
+        ranked.sort(Comparator.comparingLong(HotKey::getEstimatedRequests).reversed());
+        prefixReport = Collections.unmodifiableList(new ArrayList<>(ranked.subList(0, Math.min(topN, ranked.size()))));
+
+        prefixSketch.halve();
+        prefixCandidates.clear();
+        for (HotKey hotPrefix : ranked) {
+            int estimate = prefixSketch.estimate(hotPrefix.getKey());
+            if (estimate >= prefixCandidateFloor) {
+                prefixCandidates.put(hotPrefix.getKey(), estimate);
+            }
+        }
+        hotPrefixes.removeIf(prefix -> (long) prefixSketch.estimate(prefix) * sampleRate < prefixThreshold / 2);
+    }
+
+    /**
+     * 热点报告条目
+     */
+    public static class HotKey {
+
+        private final String key;
+
+        private final long estimatedRequests;
+
+        private final boolean promoted;
+
+        HotKey(String key, long estimatedRequests, boolean promoted) {
+            this.key = key;
+            this.estimatedRequests = estimatedRequests;
+            this.promoted = promoted;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 估计的窗口访问量
+         */
+        public long getEstimatedRequests() {
+            return estimatedRequests;
+        }
+
+        /**
+         * 是否已提升为本地副本
+         */
+        public boolean isPromoted() {
+            return promoted;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.xujie.future.redis.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热点key报告，/actuator/redishotkeys，keys 为热点key，prefixes 为热点前缀
+ *
+ * @author Xujie
+ * @since 2025/5/2 11:30
+ **/
+@Endpoint(id = "redishotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    public HotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @ReadOperation
+    public Map<String, List<HotKeyDetector.HotKey>> hotKeys() {
+        Map<String, List<HotKeyDetector.HotKey>> report = new LinkedHashMap<>();
+        report.put("keys", hotKeyDetector.report());
+        report.put("prefixes", hotKeyDetector.prefixReport());
+        return report;
+    }
+}
@@ -0,0 +1,193 @@
+package com.xujie.future.redis.keyBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * key 命名空间，由 {@link RedisKeyBuilder#namespace(String...)} 创建，不可变
+ * <p>
+ * 前缀字符串与其 UTF-8 字节在创建时生成。{@link #key(Object)} 只做一次字符串拼接；
+ * {@link #rawKey(Object)} 直接在线程本地缓冲区中写入前缀字节与业务id，
+ * ASCII id(数字、UUID 等)不经过中间字符串和字符集编码器，最后复制出一个长度恰好的 byte[]，
+ * 适合交给 RedisConnection 的批量命令，省去 StringRedisSerializer 的再次编码。
+ * <p>
+ * rawKey 与 key 的 UTF-8 编码结果一致，redisTemplate 的 key 序列化器须为 UTF-8 的 StringRedisSerializer。
+ *
+ * @author Xujie
+ * @since 2025/5/15 10:20
+ **/
+public final class KeyNamespace {
+
+    static final KeyNamespace ROOT = new KeyNamespace("");
+
+    /**
+     * 线程本地缓冲区的保留上限，超过时本次使用临时缓冲区，避免线程长期持有大数组
+     */
+    private static final int MAX_CACHED_BUFFER = 4096;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    /**
+     * 以分隔符结尾的前缀，根命名空间为空串
+     */
+    private final String prefix;
+
+    private final byte[] prefixBytes;
+
+    private KeyNamespace(String prefix) {
+        this.prefix = prefix;
+        this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 子命名空间
+     *
+     * @param part 名称 不能为空
+     */
+    public KeyNamespace child(String part) {
+        if (part == null || part.isEmpty()) {
+            throw new IllegalArgumentException("redis key namespace part must not be empty");
+        }
+        return new KeyNamespace(prefix + part + RedisKeyBuilder.SEPARATOR);
+    }
+
+    /**
+     * 命名空间下的key
+     *
+     * @param id 业务id
+     */
+    public String key(Object id) {
+        return prefix.concat(String.valueOf(id));
+    }
+
+    /**
+     * 命名空间下由多段组成的key，各段以分隔符连接
+     *
+     * @param parts 业务id各段
+     */
+    public String key(Object... parts) {
+        StringBuilder builder = new StringBuilder(prefix.length() + parts.length * 16).append(prefix);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                builder.append(RedisKeyBuilder.SEPARATOR);
+            }
+            builder.append(parts[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 批量生成key，顺序与 ids 一致
+     */
+    public List<String> keys(Collection<?> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            keys.add(key(id));
+        }
+        return keys;
+    }
+
+    /**
+     * 命名空间下key的 UTF-8 字节
+     *
+     * @param id 业务id
+     */
+    public byte[] rawKey(Object id) {
+        if (id instanceof Long || id instanceof Integer || id instanceof Short) {
+            return rawKey(((Number) id).longValue());
+        }
+        String value = String.valueOf(id);
+        int length = prefixBytes.length + value.length();
+        byte[] buffer = buffer(length);
+        System.arraycopy(prefixBytes, 0, buffer, 0, prefixBytes.length);
+        int position = prefixBytes.length;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // 非 ASCII 交给编码器处理
+                return concat(value.getBytes(StandardCharsets.UTF_8));
+            }
+            buffer[position++] = (byte) c;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * 命名空间下数字id的key的 UTF-8 字节，数字直接写入字节，不生成字符串
+     *
+     * @param id 业务id
+     */
+    public byte[] rawKey(long id) {
+        byte[] buffer = buffer(prefixBytes.length + 20);
+        System.arraycopy(prefixBytes, 0, buffer, 0, prefixBytes.length);
+        int end = prefixBytes.length + digits(id);
+        int position = end;
+        long value = id;
+        // 按负数计算，Long.MIN_VALUE 取反会溢出
+        if (value > 0) {
+            value = -value;
+        }
+        do {
+            buffer[--position] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (id < 0) {
+            buffer[--position] = '-';
+        }
+        return Arrays.copyOf(buffer, end);
+    }
+
+    /**
+     * 批量生成key的 UTF-8 字节，顺序与 ids 一致，可直接用于 RedisConnection 的 mGet/del 等批量命令
+     */
+    public byte[][] rawKeys(Collection<?> ids) {
+        byte[][] rawKeys = new byte[ids.size()][];
+        int i = 0;
+        for (Object id : ids) {
+            rawKeys[i++] = rawKey(id);
+        }
+        return rawKeys;
+    }
+
+    /**
+     * 以分隔符结尾的前缀，可用于 SCAN 的 MATCH 模式 {@code prefix + "*"}
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    private byte[] concat(byte[] id) {
+        byte[] key = Arrays.copyOf(prefixBytes, prefixBytes.length + id.length);
+        System.arraycopy(id, 0, key, prefixBytes.length, id.length);
+        return key;
+    }
+
+    private static byte[] buffer(int length) {
+        byte[] buffer = BUFFER.get();
+        if (buffer.length >= length) {
+            return buffer;
+        }
+        buffer = new byte[Math.max(length, buffer.length * 2)];
+        if (buffer.length <= MAX_CACHED_BUFFER) {
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        long remaining = value;
+        while ((remaining /= 10) != 0) {
+            digits++;
+        }
+        return digits;
+    }
+
+    @Override
+    public String toString() {
+        return prefix;
+    }
+}
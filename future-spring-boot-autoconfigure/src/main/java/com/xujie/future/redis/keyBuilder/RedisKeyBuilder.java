@@ -1,17 +1,72 @@
 package com.xujie.future.redis.keyBuilder;
 
-import org.springframework.beans.factory.annotation.Value;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Redis KeyBuilder 用于规范业务Redis key
+ * <p>
+ * key 的格式为 {@code 应用名:模块:实体[:v版本]:业务id}，以 {@link #SEPARATOR} 分隔。
+ * 命名空间在启动时声明一次并保存在字段中，前缀的 UTF-8 字节随命名空间预先编码，
+ * 生成 key 时只拼接业务id，见 {@link KeyNamespace}。线程安全。
  *
  * @author Xujie
  * @since 2025/3/22 19:28
  **/
-public abstract class RedisKeyBuilder {
+public class RedisKeyBuilder {
 
-    @Value("${spring.application.name}")
-    private String applicationName;
+    public static final char SEPARATOR = ':';
 
-    abstract String buildKey(String info);
+    private final String applicationName;
+
+    private final KeyNamespace root;
+
+    private final ConcurrentMap<String, KeyNamespace> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * @param applicationName 应用名 为空时key不带应用名前缀
+     */
+    public RedisKeyBuilder(String applicationName) {
+        this.applicationName = applicationName == null ? "" : applicationName;
+        this.root = this.applicationName.isEmpty() ? KeyNamespace.ROOT : KeyNamespace.ROOT.child(this.applicationName);
+    }
+
+    /**
+     * 应用名下的命名空间，同样的路径返回同一个实例
+     *
+     * @param parts 命名空间路径 如 模块、实体，不能为空
+     */
+    public KeyNamespace namespace(String... parts) {
+        return namespaces.computeIfAbsent(String.join(String.valueOf(SEPARATOR), parts), path -> {
+            KeyNamespace namespace = root;
+            for (String part : parts) {
+                namespace = namespace.child(part);
+            }
+            return namespace;
+        });
+    }
+
+    /**
+     * 带版本的命名空间 {@code 应用名:模块:实体:v版本}，值结构不兼容时升级版本，旧数据随过期淘汰
+     *
+     * @param module  模块
+     * @param entity  实体
+     * @param version 版本
+     */
+    public KeyNamespace namespace(String module, String entity, int version) {
+        return namespace(module, entity, "v" + version);
+    }
+
+    /**
+     * 应用名前缀下的key
+     *
+     * @param info 业务部分
+     */
+    public String buildKey(String info) {
+        return root.key(info);
+    }
+
+    public String getApplicationName() {
+        return applicationName;
+    }
 }
@@ -0,0 +1,114 @@
+package com.xujie.future.redis.load;
+
+import com.xujie.future.redis.bloom.RedisBloomFilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getOrLoad 加载选项，未设置的项使用 future.redis.load 的默认配置
+ *
+ * @author Xujie
+ * @since 2025/4/20 16:30
+ **/
+public class LoadOptions {
+
+    private final long ttl;
+
+    private final TimeUnit timeUnit;
+
+    private Boolean cacheNull;
+
+    private Long nullTtlMillis;
+
+    private Boolean lease;
+
+    private RedisBloomFilter bloomFilter;
+
+    private String bloomMember;
+
+    private LoadOptions(long ttl, TimeUnit timeUnit) {
+        this.ttl = ttl;
+        this.timeUnit = timeUnit;
+    }
+
+    /**
+     * @param ttl      过期时间 小于等于0为永不过期
+     * @param timeUnit 时间单位
+     */
+    public static LoadOptions of(long ttl, TimeUnit timeUnit) {
+        return new LoadOptions(ttl, timeUnit);
+    }
+
+    /**
+     * 缓存空结果
+     *
+     * @param ttl      空值过期时间，应明显短于正常过期时间，至少1毫秒；不缓存空结果请用 {@link #noCacheNull()}
+     * @param timeUnit 时间单位
+     */
+    public LoadOptions cacheNull(long ttl, TimeUnit timeUnit) {
+        long millis = timeUnit.toMillis(ttl);
+        if (millis <= 0) {
+            // 小于等于0会写入永不过期的空值标记，数据之后再也加载不到
+            throw new IllegalArgumentException("null value ttl must be at least 1 millisecond");
+        }
+        this.cacheNull = true;
+        this.nullTtlMillis = millis;
+        return this;
+    }
+
+    /**
+     * 不缓存空结果
+     */
+    public LoadOptions noCacheNull() {
+        this.cacheNull = false;
+        return this;
+    }
+
+    /**
+     * 是否通过 Redis 租约保证集群内只有一个节点加载
+     */
+    public LoadOptions lease(boolean lease) {
+        this.lease = lease;
+        return this;
+    }
+
+    /**
+     * 未命中缓存时先检查布隆过滤器，member 一定不存在时直接返回null，不加载也不缓存空值
+     *
+     * @param bloomFilter 过滤器
+     * @param member      过滤器中的元素，通常是业务ID
+     */
+    public LoadOptions bloomFilter(RedisBloomFilter bloomFilter, String member) {
+        this.bloomFilter = bloomFilter;
+        this.bloomMember = member;
+        return this;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public TimeUnit getTimeUnit() {
+        return timeUnit;
+    }
+
+    public Boolean getCacheNull() {
+        return cacheNull;
+    }
+
+    public Long getNullTtlMillis() {
+        return nullTtlMillis;
+    }
+
+    public Boolean getLease() {
+        return lease;
+    }
+
+    public RedisBloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public String getBloomMember() {
+        return bloomMember;
+    }
+}
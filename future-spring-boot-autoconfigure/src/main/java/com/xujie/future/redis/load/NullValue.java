@@ -0,0 +1,22 @@
+package com.xujie.future.redis.load;
+
+/**
+ * 空值缓存标记，防止不存在的数据反复穿透到数据库
+ *
+ * @author Xujie
+ * @since 2025/4/20 16:22
+ **/
+public final class NullValue {
+
+    /**
+     * 写入 Redis 的空值标记，直接使用 get 读取时会拿到该字符串
+     */
+    public static final String MARKER = "@@future:null@@";
+
+    private NullValue() {
+    }
+
+    public static boolean isNull(Object value) {
+        return MARKER.equals(value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.xujie.future.redis.load;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 提前刷新使用的有界线程池，队列满时放弃刷新而不是阻塞读取方
+ *
+ * @author Xujie
+ * @since 2025/4/23 20:15
+ **/
+public class RefreshAheadExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public RefreshAheadExecutor(int threads, int queueCapacity) {
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-refresh-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交刷新任务
+     *
+     * @param task 任务
+     * @return false 队列已满，任务被放弃
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package com.xujie.future.redis.load;
+
+/**
+ * 支持提前刷新的缓存值，记录计算耗时与逻辑过期时间
+ *
+ * @author Xujie
+ * @since 2025/4/23 19:40
+ **/
+public class RefreshableValue {
+
+    private Object value;
+
+    /**
+     * 计算耗时(毫秒)
+     */
+    private long delta;
+
+    /**
+     * 过期时间戳(毫秒)
+     */
+    private long expireAt;
+
+    public RefreshableValue() {
+    }
+
+    public RefreshableValue(Object value, long delta, long expireAt) {
+        this.value = value;
+        this.delta = delta;
+        this.expireAt = expireAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getDelta() {
+        return delta;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+}
@@ -0,0 +1,235 @@
+package com.xujie.future.redis.local;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内一级缓存(L1)，位于 Redis(L2) 之前
+ * <p>
+ * 按key前缀划分区域，每个区域独立配置容量与过期时间；写操作后通过 Redis 发布订阅通知其他节点失效。
+ * 缓存中的对象为共享实例，调用方不应修改返回值。
+ *
+ * @author Xujie
+ * @since 2025/4/12 10:35
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class NearCache {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 批量失效消息中key之间的分隔符
+     */
+    private static final char KEY_SEPARATOR = '\n';
+
+    /**
+     * 当前节点标识，用于忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final String channel;
+
+    /**
+     * 按前缀长度倒序，保证最长前缀优先匹配
+     */
+    private final List<Region> regions = new CopyOnWriteArrayList<>();
+
+    /**
+     * 失效版本号，读 Redis 期间如果发生失效则放弃回填，避免旧值覆盖
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    public NearCache(String channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 注册缓存区域
+     *
+     * @param prefix      key前缀
+     * @param maximumSize 最大条目数
+     * @param ttl         写入后过期时间
+     */
+    public void addRegion(String prefix, long maximumSize, Duration ttl) {
+        regions.add(new Region(prefix, maximumSize, ttl));
+        regions.sort(Comparator.comparingInt((Region region) -> region.prefix.length()).reversed());
+    }
+
+    /**
+     * key是否属于某个本地缓存区域
+     */
+    public boolean isCached(String key) {
+        return region(key) != null;
+    }
+
+    /**
+     * 当前失效版本号，读取 Redis 之前获取，回填时传入
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public <T> T get(String key) {
+        Region region = region(key);
+        return region == null ? null : (T) region.values.getIfPresent(key);
+    }
+
+    /**
+     * 回填本地缓存，如果读取期间发生过失效则放弃
+     *
+     * @param key     键
+     * @param value   值 null不缓存
+     * @param version 读取前的版本号 {@link #version()}
+     */
+    public void put(String key, Object value, long version) {
+        Region region = region(key);
+        if (region == null || value == null || this.version.get() != version) {
+            return;
+        }
+        region.values.put(key, value);
+    }
+
+    public <T> T hget(String key, String item) {
+        Region region = region(key);
+        if (region == null) {
+            return null;
+        }
+        Map<String, Object> fields = region.hashes.getIfPresent(key);
+        return fields == null ? null : (T) fields.get(item);
+    }
+
+    public void hput(String key, String item, Object value, long version) {
+        Region region = region(key);
+        if (region == null || value == null || this.version.get() != version) {
+            return;
+        }
+        region.hashes.asMap().computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(item, value);
+    }
+
+    /**
+     * 仅失效本节点
+     *
+     * @param key 键
+     */
+    public void invalidate(String key) {
+        Region region = region(key);
+        if (region == null) {
+            return;
+        }
+        version.incrementAndGet();
+        region.values.invalidate(key);
+        region.hashes.invalidate(key);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 构建发往其他节点的失效消息
+     */
+    public String invalidationMessage(String key) {
+        return nodeId + SEPARATOR + key;
+    }
+
+    /**
+     * 构建批量失效消息，一次发布通知多个key
+     *
+     * @param keys 键 不能包含换行
+     */
+    public String invalidationMessage(Collection<String> keys) {
+        StringBuilder message = new StringBuilder(nodeId.length() + keys.size() * 32);
+        message.append(nodeId).append(SEPARATOR);
+        boolean first = true;
+        for (String key : keys) {
+            if (!first) {
+                message.append(KEY_SEPARATOR);
+            }
+            message.append(key);
+            first = false;
+        }
+        return message.toString();
+    }
+
+    /**
+     * 处理其他节点发来的失效消息
+     *
+     * @param message {@link #invalidationMessage(String)} 或 {@link #invalidationMessage(Collection)} 构建的消息
+     */
+    public void onInvalidation(String message) {
+        int index = message.indexOf(SEPARATOR);
+        if (index < 0) {
+            log.warn("ignore illegal near cache message: {}", message);
+            return;
+        }
+        if (message.regionMatches(0, nodeId, 0, index) && index == nodeId.length()) {
+            return;
+        }
+        int start = index + 1;
+        int end;
+        while ((end = message.indexOf(KEY_SEPARATOR, start)) >= 0) {
+            invalidate(message.substring(start, end));
+            start = end + 1;
+        }
+        invalidate(message.substring(start));
+    }
+
+    /**
+     * 各区域命中、未命中、淘汰统计
+     *
+     * @return key为区域前缀
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (Region region : regions) {
+            stats.put(region.prefix, region.values.stats().plus(region.hashes.stats()));
+        }
+        return stats;
+    }
+
+    private Region region(String key) {
+        for (Region region : regions) {
+            if (key.startsWith(region.prefix)) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    private static class Region {
+
+        private final String prefix;
+
+        private final Cache<String, Object> values;
+
+        private final Cache<String, Map<String, Object>> hashes;
+
+        Region(String prefix, long maximumSize, Duration ttl) {
+            this.prefix = prefix;
+            this.values = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            this.hashes = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+        }
+    }
+}
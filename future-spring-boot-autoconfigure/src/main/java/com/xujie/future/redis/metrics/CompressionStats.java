@@ -0,0 +1,169 @@
+package com.xujie.future.redis.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按key前缀统计的压缩效果，用于判断压缩是否划算
+ *
+ * @author Xujie
+ * @since 2025/4/15 20:31
+ **/
+public class CompressionStats {
+
+    /**
+     * 前缀数量上限，超出后归入 other，防止统计项无限增长
+     */
+    private static final int MAX_PREFIXES = 256;
+
+    private static final String OTHER = "other";
+
+    private final KeyPrefixExtractor prefixExtractor;
+
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    public CompressionStats(KeyPrefixExtractor prefixExtractor) {
+        this.prefixExtractor = prefixExtractor;
+    }
+
+    /**
+     * 记录一次压缩
+     *
+     * @param rawBytes        原始大小
+     * @param compressedBytes 压缩后大小
+     * @param nanos           耗时
+     */
+    public void recordCompress(int rawBytes, int compressedBytes, long nanos) {
+        Stat stat = current();
+        stat.compressCount.increment();
+        stat.rawBytes.add(rawBytes);
+        stat.compressedBytes.add(compressedBytes);
+        stat.compressNanos.add(nanos);
+    }
+
+    /**
+     * 记录一次解压
+     *
+     * @param nanos 耗时
+     */
+    public void recordDecompress(long nanos) {
+        Stat stat = current();
+        stat.decompressCount.increment();
+        stat.decompressNanos.add(nanos);
+    }
+
+    /**
+     * @return key为前缀
+     */
+    public Map<String, Stat> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 注册各前缀的压缩率、压缩/解压耗时与字节数，之后出现的前缀同样注册
+     */
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        stats.forEach((prefix, stat) -> bind(prefix, stat, registry));
+    }
+
+    private Stat current() {
+        String prefix = prefixExtractor.extract(RedisKeyContext.current());
+        Stat stat = stats.get(prefix);
+        if (stat != null) {
+            return stat;
+        }
+        if (stats.size() >= MAX_PREFIXES) {
+            prefix = OTHER;
+        }
+        Stat created = new Stat();
+        stat = stats.putIfAbsent(prefix, created);
+        if (stat != null) {
+            return stat;
+        }
+        MeterRegistry registry = this.meterRegistry;
+        if (registry != null) {
+            bind(prefix, created, registry);
+        }
+        return created;
+    }
+
+    private static void bind(String prefix, Stat stat, MeterRegistry registry) {
+        FunctionTimer.builder("future.redis.compression.compress", stat,
+                        Stat::getCompressCount, Stat::getCompressNanos, TimeUnit.NANOSECONDS)
+                .tag("prefix", prefix)
+                .register(registry);
+        FunctionTimer.builder("future.redis.compression.decompress", stat,
+                        Stat::getDecompressCount, Stat::getDecompressNanos, TimeUnit.NANOSECONDS)
+                .tag("prefix", prefix)
+                .register(registry);
+        Gauge.builder("future.redis.compression.ratio", stat, Stat::getRatio)
+                .tag("prefix", prefix)
+                .register(registry);
+        FunctionCounter.builder("future.redis.compression.raw", stat, Stat::getRawBytes)
+                .tag("prefix", prefix)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("future.redis.compression.compressed", stat, Stat::getCompressedBytes)
+                .tag("prefix", prefix)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public static class Stat {
+
+        private final LongAdder compressCount = new LongAdder();
+
+        private final LongAdder rawBytes = new LongAdder();
+
+        private final LongAdder compressedBytes = new LongAdder();
+
+        private final LongAdder compressNanos = new LongAdder();
+
+        private final LongAdder decompressCount = new LongAdder();
+
+        private final LongAdder decompressNanos = new LongAdder();
+
+        public long getCompressCount() {
+            return compressCount.sum();
+        }
+
+        public long getRawBytes() {
+            return rawBytes.sum();
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes.sum();
+        }
+
+        public long getCompressNanos() {
+            return compressNanos.sum();
+        }
+
+        public long getDecompressCount() {
+            return decompressCount.sum();
+        }
+
+        public long getDecompressNanos() {
+            return decompressNanos.sum();
+        }
+
+        /**
+         * 压缩率 压缩后/原始，越小越好
+         */
+        public double getRatio() {
+            long raw = rawBytes.sum();
+            return raw == 0 ? 1.0 : (double) compressedBytes.sum() / raw;
+        }
+    }
+}
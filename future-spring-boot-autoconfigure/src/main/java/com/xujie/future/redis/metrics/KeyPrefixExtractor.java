@@ -0,0 +1,48 @@
+package com.xujie.future.redis.metrics;
+
+/**
+ * 从 Redis key 中提取用于统计的前缀
+ *
+ * @author Xujie
+ * @since 2025/4/15 20:20
+ **/
+@FunctionalInterface
+public interface KeyPrefixExtractor {
+
+    /**
+     * key为null时使用的前缀
+     */
+    String UNKNOWN = "unknown";
+
+    /**
+     * 提取前缀
+     *
+     * @param key 键 可能为null
+     * @return 前缀
+     */
+    String extract(String key);
+
+    /**
+     * 按分隔符截取前 depth 段，例如 delimited(':', 2) 将 app:user:1 提取为 app:user
+     *
+     * @param delimiter 分隔符
+     * @param depth     段数
+     * @return 提取器
+     */
+    static KeyPrefixExtractor delimited(char delimiter, int depth) {
+        return key -> {
+            if (key == null) {
+                return UNKNOWN;
+            }
+            int index = -1;
+            for (int i = 0; i < depth; i++) {
+                int next = key.indexOf(delimiter, index + 1);
+                if (next < 0) {
+                    return i == 0 ? key : key.substring(0, index);
+                }
+                index = next;
+            }
+            return key.substring(0, index);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.xujie.future.redis.metrics;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 记录值大小的序列化器，包在最外层，记录的是实际写入 Redis 的字节数
+ *
+ * @author Xujie
+ * @since 2025/5/5 10:05
+ **/
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+
+    private final RedisMetrics metrics;
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, RedisMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            metrics.recordWrite(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            metrics.recordRead(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+}
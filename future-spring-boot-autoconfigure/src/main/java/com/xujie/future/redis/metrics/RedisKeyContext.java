@@ -0,0 +1,49 @@
+package com.xujie.future.redis.metrics;
+
+/**
+ * 当前线程正在操作的 Redis key
+ * <p>
+ * RedisTemplate 的同步操作在调用线程中完成序列化，序列化器可以借此按key前缀统计。
+ *
+ * @author Xujie
+ * @since 2025/4/15 20:12
+ **/
+public final class RedisKeyContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RedisKeyContext() {
+    }
+
+    /**
+     * 当前key，未设置时为null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前key
+     *
+     * @param key 键
+     * @return 之前的key，用于 {@link #restore(String)}
+     */
+    public static String swap(String key) {
+        String previous = CURRENT.get();
+        CURRENT.set(key);
+        return previous;
+    }
+
+    /**
+     * 恢复之前的key
+     *
+     * @param previous {@link #swap(String)} 的返回值
+     */
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
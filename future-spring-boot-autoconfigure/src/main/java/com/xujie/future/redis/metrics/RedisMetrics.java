@@ -0,0 +1,157 @@
+package com.xujie.future.redis.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 命令的 Micrometer 指标
+ * <p>
+ * 每个操作一个耗时 Timer，失败另计 Counter，值的字节数记入 DistributionSummary，均按 key 前缀打标签。
+ * Meter 按 操作/前缀 缓存，热路径上只有两次 Map 查找和前缀提取，不再创建 Meter 和标签；
+ * 前缀数量超过上限后归入 other，防止标签无限增长。
+ *
+ * @author Xujie
+ * @since 2025/5/5 09:30
+ **/
+public class RedisMetrics {
+
+    /**
+     * 命令耗时，标签 op、prefix
+     */
+    public static final String COMMAND = "future.redis.command";
+
+    /**
+     * 命令失败次数，标签 op、prefix、exception
+     */
+    public static final String ERRORS = "future.redis.command.errors";
+
+    /**
+     * 值的字节数(序列化、压缩之后)，标签 direction(read/write)、prefix
+     */
+    public static final String PAYLOAD = "future.redis.payload";
+
+    /**
+     * 批量操作没有单一的key，使用该前缀
+     */
+    public static final String MULTI = "multi";
+
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+
+    private final KeyPrefixExtractor prefixExtractor;
+
+    private final int maxPrefixes;
+
+    private final boolean percentileHistogram;
+
+    private final Set<String> prefixes = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> readSizes = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> writeSizes = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry            指标注册表
+     * @param prefixExtractor     key前缀提取
+     * @param maxPrefixes         前缀数量上限
+     * @param percentileHistogram 是否发布直方图，用于在监控系统中计算分位数
+     */
+    public RedisMetrics(MeterRegistry registry, KeyPrefixExtractor prefixExtractor, int maxPrefixes, boolean percentileHistogram) {
+        this.registry = registry;
+        this.prefixExtractor = prefixExtractor;
+        this.maxPrefixes = maxPrefixes;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 记录一次命令
+     *
+     * @param op         操作名
+     * @param key        键 批量操作为null
+     * @param startNanos {@link System#nanoTime()} 开始时间
+     * @param error      失败时的异常 成功为null
+     */
+    public void record(String op, String key, long startNanos, Throwable error) {
+        long nanos = System.nanoTime() - startNanos;
+        String prefix = prefix(key);
+        Map<String, Timer> byPrefix = timers.computeIfAbsent(op, k -> new ConcurrentHashMap<>());
+        Timer timer = byPrefix.get(prefix);
+        if (timer == null) {
+            timer = byPrefix.computeIfAbsent(prefix, p -> Timer.builder(COMMAND)
+                    .tag("op", op)
+                    .tag("prefix", p)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (error != null) {
+            // 失败路径不在意分配，交给 registry 自身的去重
+            Counter.builder(ERRORS)
+                    .tag("op", op)
+                    .tag("prefix", prefix)
+                    .tag("exception", error.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    /**
+     * 记录读取的值大小，key取自 {@link RedisKeyContext}
+     */
+    public void recordRead(int bytes) {
+        summary(readSizes, "read").record(bytes);
+    }
+
+    /**
+     * 记录写入的值大小，key取自 {@link RedisKeyContext}
+     */
+    public void recordWrite(int bytes) {
+        summary(writeSizes, "write").record(bytes);
+    }
+
+    private DistributionSummary summary(Map<String, DistributionSummary> summaries, String direction) {
+        String prefix = prefix(RedisKeyContext.current());
+        DistributionSummary summary = summaries.get(prefix);
+        if (summary == null) {
+            summary = summaries.computeIfAbsent(prefix, p -> DistributionSummary.builder(PAYLOAD)
+                    .baseUnit("bytes")
+                    .tag("direction", direction)
+                    .tag("prefix", p)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry));
+        }
+        return summary;
+    }
+
+    private String prefix(String key) {
+        if (key == null) {
+            return MULTI;
+        }
+        String prefix = prefixExtractor.extract(key);
+        if (prefix == null) {
+            return KeyPrefixExtractor.UNKNOWN;
+        }
+        if (prefixes.contains(prefix)) {
+            return prefix;
+        }
+        if (prefixes.size() >= maxPrefixes) {
+            return OTHER;
+        }
+        prefixes.add(prefix);
+        return prefix;
+    }
+}
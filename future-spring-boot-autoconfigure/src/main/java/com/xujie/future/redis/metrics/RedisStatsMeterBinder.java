@@ -0,0 +1,143 @@
+package com.xujie.future.redis.metrics;
+
+import com.google.common.cache.CacheStats;
+import com.xujie.future.redis.counter.BufferedCounter;
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.load.RefreshStats;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.script.RedisScriptRegistry;
+import com.xujie.future.redis.script.ScriptStats;
+import com.xujie.future.redis.writebehind.WriteBehindBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将已有的统计(本地缓存、Lua 脚本、提前刷新、热点key、本地聚合计数器、异步写缓存、值压缩)注册为指标，读取在抓取时进行，不影响热路径
+ *
+ * @author Xujie
+ * @since 2025/5/5 10:30
+ **/
+public class RedisStatsMeterBinder implements MeterBinder {
+
+    private final NearCache nearCache;
+
+    private final RedisScriptRegistry scriptRegistry;
+
+    private final RefreshStats refreshStats;
+
+    private final HotKeyDetector hotKeyDetector;
+
+    private final BufferedCounter bufferedCounter;
+
+    private final WriteBehindBuffer writeBehindBuffer;
+
+    private final CompressionStats compressionStats;
+
+    /**
+     * @param nearCache         本地缓存 可以为null
+     * @param scriptRegistry    脚本注册表 可以为null
+     * @param refreshStats      提前刷新统计 可以为null
+     * @param hotKeyDetector    热点key探测 可以为null
+     * @param bufferedCounter   本地聚合计数器 可以为null
+     * @param writeBehindBuffer 异步写缓存 可以为null
+     * @param compressionStats  值压缩统计 可以为null
+     */
+    public RedisStatsMeterBinder(NearCache nearCache, RedisScriptRegistry scriptRegistry,
+                                 RefreshStats refreshStats, HotKeyDetector hotKeyDetector, BufferedCounter bufferedCounter,
+                                 WriteBehindBuffer writeBehindBuffer, CompressionStats compressionStats) {
+        this.nearCache = nearCache;
+        this.scriptRegistry = scriptRegistry;
+        this.refreshStats = refreshStats;
+        this.hotKeyDetector = hotKeyDetector;
+        this.bufferedCounter = bufferedCounter;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.compressionStats = compressionStats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (nearCache != null) {
+            for (String region : nearCache.stats().keySet()) {
+                nearCacheCounter(registry, region, "future.redis.near.requests", "hit", CacheStats::hitCount);
+                nearCacheCounter(registry, region, "future.redis.near.requests", "miss", CacheStats::missCount);
+                nearCacheCounter(registry, region, "future.redis.near.evictions", null, CacheStats::evictionCount);
+            }
+        }
+        if (scriptRegistry != null) {
+            for (Map.Entry<String, ScriptStats> entry : scriptRegistry.stats().entrySet()) {
+                FunctionTimer.builder("future.redis.script", entry.getValue(),
+                                ScriptStats::getCallCount, ScriptStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                        .tag("script", entry.getKey())
+                        .register(registry);
+                FunctionCounter.builder("future.redis.script.errors", entry.getValue(), stats -> stats.getErrorCount())
+                        .tag("script", entry.getKey())
+                        .register(registry);
+            }
+        }
+        if (refreshStats != null) {
+            FunctionTimer.builder("future.redis.refresh", refreshStats,
+                            RefreshStats::getRefreshCount, RefreshStats::getTotalNanos, TimeUnit.NANOSECONDS)
+                    .register(registry);
+            FunctionCounter.builder("future.redis.refresh.failures", refreshStats, stats -> stats.getFailureCount())
+                    .register(registry);
+            FunctionCounter.builder("future.redis.refresh.rejected", refreshStats, stats -> stats.getRejectedCount())
+                    .register(registry);
+        }
+        if (hotKeyDetector != null) {
+            Gauge.builder("future.redis.hotkey.promoted", hotKeyDetector, HotKeyDetector::getHotKeyCount)
+                    .register(registry);
+        }
+        if (bufferedCounter != null) {
+            Gauge.builder("future.redis.counter.flush.lag", bufferedCounter, BufferedCounter::getFlushLagMillis)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("future.redis.counter.pending", bufferedCounter, BufferedCounter::getPendingCount)
+                    .register(registry);
+            Gauge.builder("future.redis.counter.flush.duration", bufferedCounter, counter -> counter.getLastFlushNanos() / 1e6)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("future.redis.counter.flushed", bufferedCounter, counter -> counter.getFlushedCommands())
+                    .register(registry);
+            FunctionCounter.builder("future.redis.counter.flush.failures", bufferedCounter, counter -> counter.getFailureCount())
+                    .register(registry);
+        }
+        if (writeBehindBuffer != null) {
+            Gauge.builder("future.redis.write.behind.depth", writeBehindBuffer, WriteBehindBuffer::getDepth)
+                    .register(registry);
+            Gauge.builder("future.redis.write.behind.coalescing.ratio", writeBehindBuffer, WriteBehindBuffer::getCoalescingRatio)
+                    .register(registry);
+            FunctionCounter.builder("future.redis.write.behind.submitted", writeBehindBuffer, buffer -> buffer.getSubmittedCount())
+                    .register(registry);
+            FunctionCounter.builder("future.redis.write.behind.write.through", writeBehindBuffer, buffer -> buffer.getWriteThroughCount())
+                    .register(registry);
+            FunctionCounter.builder("future.redis.write.behind.flush.failures", writeBehindBuffer, buffer -> buffer.getFailureCount())
+                    .register(registry);
+            FunctionTimer.builder("future.redis.write.behind.flush", writeBehindBuffer,
+                            WriteBehindBuffer::getFlushCount, WriteBehindBuffer::getFlushNanos, TimeUnit.NANOSECONDS)
+                    .register(registry);
+        }
+        if (compressionStats != null) {
+            compressionStats.bindTo(registry);
+        }
+    }
+
+    private void nearCacheCounter(MeterRegistry registry, String region, String name, String result,
+                                  ToDoubleFunction<CacheStats> value) {
+        FunctionCounter.Builder<NearCache> builder = FunctionCounter.builder(name, nearCache, cache -> {
+                    CacheStats stats = cache.stats().get(region);
+                    return stats == null ? 0 : value.applyAsDouble(stats);
+                })
+                .tag("region", region);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+}
@@ -0,0 +1,443 @@
+package com.xujie.future.redis.pipeline;
+
+import com.xujie.future.redis.cluster.ClusterSlotExecutor;
+import com.xujie.future.redis.keyBuilder.KeyNamespace;
+import com.xujie.future.redis.shard.RedisShard;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * pipeline 会话
+ * <p>
+ * 在 {@link com.xujie.future.redis.service.RedisService#pipelined(Consumer)} 的回调中登记命令，
+ * 回调结束后统一发送，命令较多时按 chunkSize 分批，每批一次往返。
+ * 每条命令返回一个 {@link Response}，执行后可以读取类型化的结果；整体结果与登记顺序一一对应，
+ * 不存在的key或字段对应null。
+ * <pre>
+ *     List&lt;Object&gt; results = redisService.pipelined(p -&gt; {
+ *         p.get("user:1");
+ *         p.hget("dept:1", "name");
+ *         p.zAdd("rank", "user:1", 100);
+ *     });
+ *     User user = (User) results.get(0);
+ * </pre>
+ *
+ * @author Xujie
+ * @since 2025/4/30 09:30
+ **/
+@SuppressWarnings("unchecked")
+public class RedisPipeline {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisSerializer<String> keySerializer;
+
+    private final RedisSerializer<String> hashKeySerializer;
+
+    private final RedisSerializer<Object> valueSerializer;
+
+    private final RedisSerializer<Object> hashValueSerializer;
+
+    private final List<Command<?>> commands = new ArrayList<>();
+
+    private final Set<String> writtenKeys = new LinkedHashSet<>();
+
+    /**
+     * 客户端分片，为null时不分片
+     */
+    private final RedisShardRouter shardRouter;
+
+    /**
+     * 分片时各分片的 pipeline 并行发送，为null时依次发送
+     */
+    private final ClusterSlotExecutor slotExecutor;
+
+    public RedisPipeline(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, null, null);
+    }
+
+    /**
+     * @param redisTemplate redisTemplate，分片时只使用其序列化器
+     * @param shardRouter   客户端分片 为null时不分片
+     * @param slotExecutor  并行执行各分片 为null时依次执行
+     */
+    public RedisPipeline(RedisTemplate<String, Object> redisTemplate, RedisShardRouter shardRouter, ClusterSlotExecutor slotExecutor) {
+        this.redisTemplate = redisTemplate;
+        this.shardRouter = shardRouter;
+        this.slotExecutor = slotExecutor;
+        this.keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        this.hashKeySerializer = (RedisSerializer<String>) redisTemplate.getHashKeySerializer();
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+    }
+
+    // ============================String(字符串)=============================
+
+    public <T> Response<T> get(String key) {
+        return add(key, c -> c.stringCommands().get(rawKey(key)), this::value);
+    }
+
+    /**
+     * 按命名空间读取，key 直接编码为字节，不经过 key 序列化器
+     */
+    public <T> Response<T> get(KeyNamespace namespace, Object id) {
+        byte[] rawKey = rawKey(namespace, id);
+        return add(routingKey(namespace, id), c -> c.stringCommands().get(rawKey), this::value);
+    }
+
+    public Response<Boolean> set(String key, Object value) {
+        return write(key, c -> c.stringCommands().set(rawKey(key), valueSerializer.serialize(value)));
+    }
+
+    public Response<Boolean> set(String key, Object value, long time, TimeUnit timeUnit) {
+        return write(key, c -> c.stringCommands().set(rawKey(key), valueSerializer.serialize(value),
+                Expiration.from(time, timeUnit), RedisStringCommands.SetOption.upsert()));
+    }
+
+    public Response<Boolean> setnx(String key, Object value) {
+        return write(key, c -> c.stringCommands().setNX(rawKey(key), valueSerializer.serialize(value)));
+    }
+
+    public Response<Long> incr(String key, long delta) {
+        return write(key, c -> c.stringCommands().incrBy(rawKey(key), delta));
+    }
+
+    public Response<Long> decr(String key, long delta) {
+        return write(key, c -> c.stringCommands().decrBy(rawKey(key), delta));
+    }
+
+    // ===============================Key(键)=================================
+
+    public Response<Long> del(String key) {
+        return write(key, c -> c.keyCommands().del(rawKey(key)));
+    }
+
+    public Response<Boolean> exists(String key) {
+        return add(key, c -> c.keyCommands().exists(rawKey(key)), raw -> (Boolean) raw);
+    }
+
+    public Response<Boolean> expire(String key, long time, TimeUnit timeUnit) {
+        return add(key, c -> c.keyCommands().pExpire(rawKey(key), timeUnit.toMillis(time)), raw -> (Boolean) raw);
+    }
+
+    // ================================Hash(哈希)=================================
+
+    public <T> Response<T> hget(String key, String item) {
+        return add(key, c -> c.hashCommands().hGet(rawKey(key), rawHashKey(item)), this::hashValue);
+    }
+
+    /**
+     * 按命名空间读取hash字段，key 直接编码为字节，不经过 key 序列化器
+     */
+    public <T> Response<T> hget(KeyNamespace namespace, Object id, String item) {
+        byte[] rawKey = rawKey(namespace, id);
+        return add(routingKey(namespace, id), c -> c.hashCommands().hGet(rawKey, rawHashKey(item)), this::hashValue);
+    }
+
+    /**
+     * 结果与 items 一一对应
+     */
+    public <T> Response<List<T>> hmget(String key, String... items) {
+        byte[][] rawItems = new byte[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            rawItems[i] = rawHashKey(items[i]);
+        }
+        return add(key, c -> c.hashCommands().hMGet(rawKey(key), rawItems), raw -> {
+            List<T> values = new ArrayList<>(items.length);
+            for (byte[] bytes : (List<byte[]>) raw) {
+                values.add((T) hashValue(bytes));
+            }
+            return values;
+        });
+    }
+
+    public <T> Response<Map<String, T>> hgetAll(String key) {
+        return add(key, c -> c.hashCommands().hGetAll(rawKey(key)), raw -> {
+            Map<byte[], byte[]> entries = (Map<byte[], byte[]>) raw;
+            Map<String, T> values = new LinkedHashMap<>(entries.size() * 2);
+            entries.forEach((k, v) -> values.put(hashKeySerializer.deserialize(k), (T) hashValue(v)));
+            return values;
+        });
+    }
+
+    public Response<Boolean> hset(String key, String item, Object value) {
+        return write(key, c -> c.hashCommands().hSet(rawKey(key), rawHashKey(item), hashValueSerializer.serialize(value)));
+    }
+
+    public Response<Long> hdel(String key, String... items) {
+        byte[][] rawItems = new byte[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            rawItems[i] = rawHashKey(items[i]);
+        }
+        return write(key, c -> c.hashCommands().hDel(rawKey(key), rawItems));
+    }
+
+    public Response<Long> hincr(String key, String item, long delta) {
+        return write(key, c -> c.hashCommands().hIncrBy(rawKey(key), rawHashKey(item), delta));
+    }
+
+    // ============================Set(集合)=============================
+
+    public Response<Long> sAdd(String key, Object... values) {
+        return add(key, c -> c.setCommands().sAdd(rawKey(key), rawValues(values)), raw -> (Long) raw);
+    }
+
+    public <T> Response<Set<T>> sMembers(String key) {
+        return add(key, c -> c.setCommands().sMembers(rawKey(key)), raw -> {
+            Set<T> values = new LinkedHashSet<>();
+            for (byte[] bytes : (Collection<byte[]>) raw) {
+                values.add((T) value(bytes));
+            }
+            return values;
+        });
+    }
+
+    public Response<Boolean> sIsMember(String key, Object value) {
+        return add(key, c -> c.setCommands().sIsMember(rawKey(key), valueSerializer.serialize(value)), raw -> (Boolean) raw);
+    }
+
+    public Response<Long> sRem(String key, Object... values) {
+        return add(key, c -> c.setCommands().sRem(rawKey(key), rawValues(values)), raw -> (Long) raw);
+    }
+
+    // ============================ZSet(集合)=============================
+
+    public Response<Boolean> zAdd(String key, Object value, double score) {
+        return add(key, c -> c.zSetCommands().zAdd(rawKey(key), score, valueSerializer.serialize(value)), raw -> (Boolean) raw);
+    }
+
+    public <T> Response<List<T>> zRange(String key, long start, long end) {
+        return add(key, c -> c.zSetCommands().zRange(rawKey(key), start, end), this::values);
+    }
+
+    public Response<Double> zScore(String key, Object value) {
+        return add(key, c -> c.zSetCommands().zScore(rawKey(key), valueSerializer.serialize(value)), raw -> (Double) raw);
+    }
+
+    public Response<Double> zIncr(String key, Object value, double delta) {
+        return add(key, c -> c.zSetCommands().zIncrBy(rawKey(key), delta, valueSerializer.serialize(value)), raw -> (Double) raw);
+    }
+
+    public Response<Long> zRem(String key, Object... values) {
+        return add(key, c -> c.zSetCommands().zRem(rawKey(key), rawValues(values)), raw -> (Long) raw);
+    }
+
+    // ===============================List(列表)=================================
+
+    public Response<Long> lPush(String key, Object... values) {
+        return add(key, c -> c.listCommands().lPush(rawKey(key), rawValues(values)), raw -> (Long) raw);
+    }
+
+    public Response<Long> rPush(String key, Object... values) {
+        return add(key, c -> c.listCommands().rPush(rawKey(key), rawValues(values)), raw -> (Long) raw);
+    }
+
+    public <T> Response<T> lPop(String key) {
+        return add(key, c -> c.listCommands().lPop(rawKey(key)), this::value);
+    }
+
+    public <T> Response<T> rPop(String key) {
+        return add(key, c -> c.listCommands().rPop(rawKey(key)), this::value);
+    }
+
+    public <T> Response<List<T>> lRange(String key, long start, long end) {
+        return add(key, c -> c.listCommands().lRange(rawKey(key), start, end), this::values);
+    }
+
+    // ===============================执行=================================
+
+    /**
+     * 已登记的命令数
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 有写操作的key，用于执行后失效本地缓存
+     */
+    public Set<String> getWrittenKeys() {
+        return writtenKeys;
+    }
+
+    /**
+     * 发送全部命令
+     * <p>
+     * 分片时按key所在分片拆分，各分片分别分批发送，结果仍按登记顺序排列。
+     *
+     * @param chunkSize 每批命令数
+     * @return 与登记顺序一一对应的结果
+     * @throws RedisPipelineException 有命令执行失败，其余命令的结果仍然可以从 Response 或异常的 pipelineResult 中读取
+     */
+    public List<Object> execute(int chunkSize) {
+        Object[] results = new Object[commands.size()];
+        RuntimeException[] firstError = new RuntimeException[1];
+        if (shardRouter == null) {
+            execute(redisTemplate, null, allIndices(), chunkSize, results, firstError);
+        } else {
+            List<String> keys = new ArrayList<>(commands.size());
+            for (Command<?> command : commands) {
+                keys.add(command.key);
+            }
+            Map<RedisShard, List<Integer>> groups = shardRouter.group(keys);
+            if (slotExecutor != null && groups.size() > 1) {
+                slotExecutor.parallel(groups.entrySet(), entry ->
+                        execute(entry.getKey().getRedisTemplate(), entry.getKey(), entry.getValue(), chunkSize, results, firstError));
+            } else {
+                groups.forEach((shard, indices) -> execute(shard.getRedisTemplate(), shard, indices, chunkSize, results, firstError));
+            }
+        }
+        List<Object> resultList = new ArrayList<>(Arrays.asList(results));
+        if (firstError[0] != null) {
+            throw new RedisPipelineException(firstError[0], resultList);
+        }
+        return resultList;
+    }
+
+    /**
+     * 在一个实例上分批发送一组命令，结果写入 results 的对应下标，各组下标互不重叠
+     */
+    private void execute(RedisTemplate<String, Object> template, RedisShard shard, List<Integer> indices, int chunkSize,
+                         Object[] results, RuntimeException[] firstError) {
+        for (int from = 0; from < indices.size(); from += chunkSize) {
+            List<Integer> chunk = indices.subList(from, Math.min(from + chunkSize, indices.size()));
+            List<Object> replies;
+            long start = System.nanoTime();
+            try {
+                replies = template.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Integer index : chunk) {
+                        commands.get(index).issue.accept(connection);
+                    }
+                    return null;
+                }, null);
+            } catch (RedisPipelineException e) {
+                replies = e.getPipelineResult();
+            }
+            if (shard != null) {
+                shard.record(System.nanoTime() - start);
+            }
+            if (replies.size() != chunk.size()) {
+                throw new IllegalStateException("redis pipeline returned " + replies.size()
+                        + " replies for " + chunk.size() + " commands");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Object reply = replies.get(i);
+                Command<?> command = commands.get(chunk.get(i));
+                if (reply instanceof Exception) {
+                    RuntimeException error = reply instanceof DataAccessException
+                            ? (DataAccessException) reply
+                            : new InvalidDataAccessApiUsageException(((Exception) reply).getMessage(), (Exception) reply);
+                    command.response.fail(error);
+                    results[chunk.get(i)] = error;
+                    synchronized (firstError) {
+                        if (firstError[0] == null) {
+                            firstError[0] = error;
+                        }
+                    }
+                } else {
+                    results[chunk.get(i)] = command.complete(reply);
+                }
+            }
+        }
+    }
+
+    private List<Integer> allIndices() {
+        List<Integer> indices = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    private <T> Response<T> write(String key, Consumer<RedisConnection> issue) {
+        writtenKeys.add(key);
+        return add(key, issue, raw -> (T) raw);
+    }
+
+    private <T> Response<T> add(String key, Consumer<RedisConnection> issue, Function<Object, T> converter) {
+        Command<T> command = new Command<>(key, issue, converter);
+        commands.add(command);
+        return command.response;
+    }
+
+    private byte[] rawKey(String key) {
+        return keySerializer.serialize(key);
+    }
+
+    private byte[] rawKey(KeyNamespace namespace, Object id) {
+        return keySerializer instanceof StringRedisSerializer ? namespace.rawKey(id) : rawKey(namespace.key(id));
+    }
+
+    /**
+     * 只有分片时需要字符串key确定所在分片
+     */
+    private String routingKey(KeyNamespace namespace, Object id) {
+        return shardRouter == null ? null : namespace.key(id);
+    }
+
+    private byte[] rawHashKey(String item) {
+        return hashKeySerializer.serialize(item);
+    }
+
+    private byte[][] rawValues(Object... values) {
+        byte[][] rawValues = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rawValues[i] = valueSerializer.serialize(values[i]);
+        }
+        return rawValues;
+    }
+
+    private <T> T value(Object raw) {
+        return raw == null ? null : (T) valueSerializer.deserialize((byte[]) raw);
+    }
+
+    private <T> T hashValue(Object raw) {
+        return raw == null ? null : (T) hashValueSerializer.deserialize((byte[]) raw);
+    }
+
+    private <T> List<T> values(Object raw) {
+        Collection<byte[]> rawValues = (Collection<byte[]>) raw;
+        List<T> values = new ArrayList<>(rawValues.size());
+        for (byte[] bytes : rawValues) {
+            values.add(value(bytes));
+        }
+        return values;
+    }
+
+    private static class Command<T> {
+
+        private final String key;
+
+        private final Consumer<RedisConnection> issue;
+
+        private final Function<Object, T> converter;
+
+        private final Response<T> response = new Response<>();
+
+        Command(String key, Consumer<RedisConnection> issue, Function<Object, T> converter) {
+            this.key = key;
+            this.issue = issue;
+            this.converter = converter;
+        }
+
+        T complete(Object reply) {
+            T value = reply == null ? null : converter.apply(reply);
+            response.complete(value);
+            return value;
+        }
+    }
+}
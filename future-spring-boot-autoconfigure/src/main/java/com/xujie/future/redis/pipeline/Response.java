@@ -0,0 +1,49 @@
+package com.xujie.future.redis.pipeline;
+
+/**
+ * pipeline 中单条命令的结果，pipeline 执行完成后才能读取
+ *
+ * @author Xujie
+ * @since 2025/4/30 09:40
+ **/
+public class Response<T> {
+
+    private T value;
+
+    private RuntimeException error;
+
+    private boolean done;
+
+    /**
+     * 命令结果，命令执行失败时抛出对应异常
+     *
+     * @return 结果，key或字段不存在时为null
+     */
+    public T get() {
+        if (!done) {
+            throw new IllegalStateException("pipeline has not been executed yet");
+        }
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    void complete(T value) {
+        this.value = value;
+        this.done = true;
+    }
+
+    void fail(RuntimeException error) {
+        this.error = error;
+        this.done = true;
+    }
+}
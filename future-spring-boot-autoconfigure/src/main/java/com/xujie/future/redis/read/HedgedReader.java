@@ -0,0 +1,264 @@
+package com.xujie.future.redis.read;
+
+import com.xujie.future.redis.metrics.RedisKeyContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 对冲读
+ * <p>
+ * 读请求先发往 primary，超过延迟仍未返回时向 hedge 再发一次相同的读，取先成功返回的结果。
+ * 延迟取 primary 最近耗时的分位数(默认 p95)，限制在 [minDelay, maxDelay] 之间，样本不足时使用 maxDelay；
+ * 大约只有慢于该分位数的请求会对冲，主节点因 fork、大key删除等偶发卡顿时由另一节点兜底，尾延迟接近两者中较快的一个。
+ * <p>
+ * 对冲请求数受 maxHedgeRatio 限制(令牌桶，每次读累积 maxHedgeRatio 个令牌)，整体变慢时不会把读流量放大一倍。
+ * primary 的读在独立线程池中执行以便调用方等待超时，带来一次线程切换的开销，只适合对尾延迟敏感的读。
+ * 只能用于读操作：对冲后两个请求都会执行。
+ *
+ * @author Xujie
+ * @since 2025/5/14 10:40
+ **/
+public class HedgedReader implements DisposableBean {
+
+    /**
+     * 令牌桶容量(个)
+     */
+    private static final long MAX_TOKENS = 10;
+
+    private static final long TOKEN_SCALE = 1000;
+
+    private final RedisOperations<String, Object> primary;
+
+    private final RedisOperations<String, Object> hedge;
+
+    private final LatencyTracker latency;
+
+    private final long minDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private final long tokensPerRead;
+
+    private final AtomicLong tokens = new AtomicLong(TOKEN_SCALE * MAX_TOKENS);
+
+    private final ExecutorService executor;
+
+    private final LongAdder readCount = new LongAdder();
+
+    private final LongAdder hedgeCount = new LongAdder();
+
+    private final LongAdder hedgeWinCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param primary       首选读的模板
+     * @param hedge         对冲读的模板，应连接到与 primary 不同的节点
+     * @param percentile    延迟取 primary 耗时的分位数，0~1 之间
+     * @param minDelay      最短延迟
+     * @param maxDelay      最长延迟，样本不足时使用
+     * @param maxHedgeRatio 对冲请求占读请求的最大比例
+     * @param threads       执行读请求的线程数，线程耗尽时直接在调用线程读取 primary，不对冲
+     */
+    public HedgedReader(RedisOperations<String, Object> primary, RedisOperations<String, Object> hedge, double percentile,
+                        Duration minDelay, Duration maxDelay, double maxHedgeRatio, int threads) {
+        this.primary = primary;
+        this.hedge = hedge;
+        this.latency = new LatencyTracker(percentile);
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.tokensPerRead = Math.round(maxHedgeRatio * TOKEN_SCALE);
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-hedge-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * 执行读操作
+     *
+     * @param read 读操作，分别以 primary、hedge 为参数执行
+     * @return 先成功返回的结果
+     */
+    public <T> T read(Function<RedisOperations<String, Object>, T> read) {
+        readCount.increment();
+        addToken();
+        String keyContext = RedisKeyContext.current();
+        long start = System.nanoTime();
+        CompletableFuture<T> primaryFuture = submit(read, primary, keyContext);
+        if (primaryFuture == null) {
+            rejectedCount.increment();
+            T value = read.apply(primary);
+            latency.record(System.nanoTime() - start);
+            return value;
+        }
+        primaryFuture.whenComplete((value, error) -> latency.record(System.nanoTime() - start));
+        try {
+            return primaryFuture.get(delayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 超过延迟，尝试对冲
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("redis hedged read interrupted", e);
+        }
+        CompletableFuture<T> hedgeFuture = tryAcquireToken() ? submit(read, hedge, keyContext) : null;
+        if (hedgeFuture == null) {
+            return await(primaryFuture);
+        }
+        hedgeCount.increment();
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primaryFuture.whenComplete((value, error) -> complete(first, value, error, failures));
+        hedgeFuture.whenComplete((value, error) -> {
+            if (error == null && !first.isDone()) {
+                hedgeWinCount.increment();
+            }
+            complete(first, value, error, failures);
+        });
+        return await(first);
+    }
+
+    /**
+     * 当前对冲延迟(毫秒)
+     */
+    public double getDelayMillis() {
+        return delayNanos() / 1_000_000.0;
+    }
+
+    public long getReadCount() {
+        return readCount.sum();
+    }
+
+    /**
+     * 发出的对冲请求数
+     */
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    /**
+     * 对冲请求先返回的次数
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    /**
+     * 线程耗尽直接读取 primary 的次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 注册读请求数、对冲请求数、对冲胜出次数与当前对冲延迟指标
+     */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("future.redis.read.hedge.reads", this, HedgedReader::getReadCount).register(registry);
+        FunctionCounter.builder("future.redis.read.hedge.hedges", this, HedgedReader::getHedgeCount).register(registry);
+        FunctionCounter.builder("future.redis.read.hedge.wins", this, HedgedReader::getHedgeWinCount).register(registry);
+        FunctionCounter.builder("future.redis.read.hedge.rejected", this, HedgedReader::getRejectedCount).register(registry);
+        Gauge.builder("future.redis.read.hedge.delay", this, HedgedReader::getDelayMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private long delayNanos() {
+        long percentileNanos = latency.get();
+        if (percentileNanos < 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, percentileNanos));
+    }
+
+    private <T> CompletableFuture<T> submit(Function<RedisOperations<String, Object>, T> read, RedisOperations<String, Object> target,
+                                            String keyContext) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                // 值序列化器按key前缀统计，需要带上调用线程的key上下文
+                String previous = RedisKeyContext.swap(keyContext);
+                try {
+                    return read.apply(target);
+                } finally {
+                    RedisKeyContext.restore(previous);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private void addToken() {
+        long cap = TOKEN_SCALE * MAX_TOKENS;
+        if (tokens.get() < cap) {
+            tokens.getAndUpdate(current -> Math.min(cap, current + tokensPerRead));
+        }
+    }
+
+    private boolean tryAcquireToken() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+        return true;
+    }
+
+    private static <T> void complete(CompletableFuture<T> first, T value, Throwable error, AtomicInteger failures) {
+        if (error == null) {
+            first.complete(value);
+        } else if (failures.incrementAndGet() == 2) {
+            // 两个请求都失败时才失败
+            first.completeExceptionally(error);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("redis hedged read interrupted", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException("redis hedged read error", cause);
+    }
+}
@@ -0,0 +1,63 @@
+package com.xujie.future.redis.read;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 最近一段时间的耗时分位数
+ * <p>
+ * 最近 {@link #WINDOW} 次耗时保存在环形数组中，每记录 {@link #RECOMPUTE_INTERVAL} 次重新排序计算一次分位数，
+ * 读取分位数只是一次 volatile 读。并发写入可能互相覆盖个别样本，对分位数估计没有影响。
+ *
+ * @author Xujie
+ * @since 2025/5/14 10:10
+ **/
+class LatencyTracker {
+
+    static final int WINDOW = 1024;
+
+    static final int RECOMPUTE_INTERVAL = 128;
+
+    private final long[] samples = new long[WINDOW];
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final double percentile;
+
+    /**
+     * 样本不足时为-1
+     */
+    private volatile long percentileNanos = -1;
+
+    /**
+     * @param percentile 分位数，0~1 之间
+     */
+    LatencyTracker(double percentile) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples[(int) (index & (WINDOW - 1))] = nanos;
+        if ((index + 1) % RECOMPUTE_INTERVAL == 0) {
+            recompute(Math.min(index + 1, WINDOW));
+        }
+    }
+
+    /**
+     * 当前分位数(纳秒)，样本不足 {@link #RECOMPUTE_INTERVAL} 个时为-1
+     */
+    long get() {
+        return percentileNanos;
+    }
+
+    private void recompute(long size) {
+        long[] sorted = Arrays.copyOf(samples, (int) size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        percentileNanos = sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+}
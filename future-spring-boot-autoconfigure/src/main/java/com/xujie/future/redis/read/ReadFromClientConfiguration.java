@@ -0,0 +1,115 @@
+package com.xujie.future.redis.read;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.RedisCredentialsProviderFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 沿用已有连接的客户端配置(SSL、超时、ClientResources 等)，只替换 ReadFrom
+ * <p>
+ * 单机配置下 Lettuce 通过 INFO replication 发现副本；哨兵、集群配置下从哨兵或集群拓扑获取副本。
+ *
+ * @author Xujie
+ * @since 2025/5/14 11:05
+ **/
+public class ReadFromClientConfiguration implements LettuceClientConfiguration {
+
+    private final LettuceClientConfiguration delegate;
+
+    private final ReadFrom readFrom;
+
+    ReadFromClientConfiguration(LettuceClientConfiguration delegate, ReadFrom readFrom) {
+        this.delegate = delegate;
+        this.readFrom = readFrom;
+    }
+
+    /**
+     * 解析节点选择，除 Lettuce 的名称(replicaPreferred、anyReplica)外也接受常量写法(REPLICA_PREFERRED、any-replica)
+     *
+     * @param name 名称 忽略大小写、下划线与中划线
+     */
+    public static ReadFrom readFrom(String name) {
+        return ReadFrom.valueOf(name.replace("_", "").replace("-", ""));
+    }
+
+    /**
+     * 创建连接到同一 Redis 部署、按 readFrom 选择节点的连接工厂，已初始化
+     *
+     * @param source   已有连接工厂
+     * @param readFrom 节点选择 如 ReadFrom.REPLICA_PREFERRED、ReadFrom.NEAREST、ReadFrom.ANY_REPLICA
+     */
+    public static LettuceConnectionFactory connectionFactory(LettuceConnectionFactory source, ReadFrom readFrom) {
+        LettuceClientConfiguration clientConfiguration = new ReadFromClientConfiguration(source.getClientConfiguration(), readFrom);
+        LettuceConnectionFactory connectionFactory;
+        if (source.isClusterAware()) {
+            connectionFactory = new LettuceConnectionFactory(source.getClusterConfiguration(), clientConfiguration);
+        } else if (source.isRedisSentinelAware()) {
+            connectionFactory = new LettuceConnectionFactory(source.getSentinelConfiguration(), clientConfiguration);
+        } else {
+            connectionFactory = new LettuceConnectionFactory(source.getStandaloneConfiguration(), clientConfiguration);
+        }
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    @Override
+    public boolean isUseSsl() {
+        return delegate.isUseSsl();
+    }
+
+    @Override
+    public boolean isVerifyPeer() {
+        return delegate.isVerifyPeer();
+    }
+
+    @Override
+    public boolean isStartTls() {
+        return delegate.isStartTls();
+    }
+
+    @Override
+    public Optional<ClientResources> getClientResources() {
+        return delegate.getClientResources();
+    }
+
+    @Override
+    public Optional<ClientOptions> getClientOptions() {
+        return delegate.getClientOptions();
+    }
+
+    @Override
+    public Optional<String> getClientName() {
+        return delegate.getClientName();
+    }
+
+    @Override
+    public Optional<ReadFrom> getReadFrom() {
+        return Optional.of(readFrom);
+    }
+
+    @Override
+    public Optional<RedisCredentialsProviderFactory> getRedisCredentialsProviderFactory() {
+        return delegate.getRedisCredentialsProviderFactory();
+    }
+
+    @Override
+    public Duration getCommandTimeout() {
+        return delegate.getCommandTimeout();
+    }
+
+    @Override
+    public Duration getShutdownTimeout() {
+        return delegate.getShutdownTimeout();
+    }
+
+    @Override
+    public Duration getShutdownQuietPeriod() {
+        return delegate.getShutdownQuietPeriod();
+    }
+}
@@ -0,0 +1,66 @@
+package com.xujie.future.redis.read;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 读命令路由
+ * <p>
+ * 读命令发往 readTemplate(按 future.redis.read.read-from 连接副本，未配置时为主节点)，
+ * 开启对冲读时由 {@link HedgedReader} 在 readTemplate 与对冲模板之间竞速。写命令不经过这里，始终发往主节点。
+ * <p>
+ * 副本复制是异步的，读副本可能读不到刚写入的值；需要读己之写的场景应直接使用 redisTemplate。
+ *
+ * @author Xujie
+ * @since 2025/5/14 11:20
+ **/
+public class RedisReadRouter implements DisposableBean {
+
+    private final RedisOperations<String, Object> readTemplate;
+
+    private final HedgedReader hedgedReader;
+
+    private final List<LettuceConnectionFactory> connectionFactories;
+
+    /**
+     * @param readTemplate        读命令使用的模板
+     * @param hedgedReader        对冲读 为null时不对冲
+     * @param connectionFactories 为读路由创建的连接，关闭时释放
+     */
+    public RedisReadRouter(RedisOperations<String, Object> readTemplate, HedgedReader hedgedReader,
+                           List<LettuceConnectionFactory> connectionFactories) {
+        this.readTemplate = readTemplate;
+        this.hedgedReader = hedgedReader;
+        this.connectionFactories = connectionFactories;
+    }
+
+    /**
+     * 执行读命令
+     *
+     * @param read 读操作 开启对冲读时可能执行两次
+     */
+    public <T> T read(Function<RedisOperations<String, Object>, T> read) {
+        return hedgedReader == null ? read.apply(readTemplate) : hedgedReader.read(read);
+    }
+
+    /**
+     * 对冲读，未开启时为null
+     */
+    public HedgedReader getHedgedReader() {
+        return hedgedReader;
+    }
+
+    @Override
+    public void destroy() {
+        if (hedgedReader != null) {
+            hedgedReader.destroy();
+        }
+        for (LettuceConnectionFactory connectionFactory : connectionFactories) {
+            connectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.xujie.future.redis.script;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lua 脚本注册表
+ * <p>
+ * 启动时从 classpath 加载 .lua 文件(文件名即脚本名)并 SCRIPT LOAD 到 Redis，执行时只发送 SHA1(EVALSHA)。
+ * Redis 重启或切换节点后脚本缓存丢失时，会收到 NOSCRIPT，此时自动以 EVAL 重发脚本并重新缓存，
+ * 调用方无感知。
+ * <p>
+ * 文件开头用 {@code -- @return long} 声明返回类型，可选 long、list、boolean、string，不声明时按状态返回。
+ *
+ * @author Xujie
+ * @since 2025/4/27 14:05
+ **/
+@Slf4j
+public class RedisScriptRegistry implements InitializingBean {
+
+    /**
+     * 内置脚本位置，自定义脚本放在同一目录下即可一并加载
+     */
+    public static final String DEFAULT_LOCATION = "classpath*:META-INF/future/redis/lua/*.lua";
+
+    private static final String RETURN_HEADER = "-- @return";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Map<String, RedisScript<?>> scripts = new ConcurrentHashMap<>();
+
+    private final Map<String, ScriptStats> stats = new ConcurrentHashMap<>();
+
+    public RedisScriptRegistry(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 加载指定位置的脚本
+     *
+     * @param locations 资源路径，支持通配符
+     */
+    public void load(Collection<String> locations) throws IOException {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String location : locations) {
+            for (Resource resource : resolver.getResources(location)) {
+                String filename = resource.getFilename();
+                if (filename == null || !filename.endsWith(".lua")) {
+                    continue;
+                }
+                String scriptText;
+                try (InputStream in = resource.getInputStream()) {
+                    scriptText = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+                }
+                register(filename.substring(0, filename.length() - ".lua".length()), scriptText, resultType(scriptText));
+            }
+        }
+    }
+
+    /**
+     * 注册脚本，同名脚本会被覆盖
+     *
+     * @param name       脚本名
+     * @param scriptText 脚本内容
+     * @param resultType 返回类型 为null时按状态返回
+     * @return 脚本
+     */
+    public <T> RedisScript<T> register(String name, String scriptText, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>(scriptText, resultType);
+        if (scripts.put(name, script) != null) {
+            log.info("redis script overridden: {}", name);
+        }
+        stats.computeIfAbsent(name, k -> new ScriptStats());
+        return script;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> RedisScript<T> getScript(String name) {
+        RedisScript<?> script = scripts.get(name);
+        if (script == null) {
+            throw new IllegalArgumentException("redis script not registered: " + name);
+        }
+        return (RedisScript<T>) script;
+    }
+
+    public boolean contains(String name) {
+        return scripts.containsKey(name);
+    }
+
+    /**
+     * 执行脚本，键和参数按 operations 的序列化方式编码
+     *
+     * @param operations 执行使用的模板
+     * @param name       脚本名
+     * @param keys       KEYS
+     * @param args       ARGV
+     * @return 结果
+     */
+    public <T> T execute(RedisOperations<String, ?> operations, String name, List<String> keys, Object... args) {
+        RedisScript<T> script = getScript(name);
+        ScriptStats scriptStats = stats.get(name);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = operations.execute(script, keys, args);
+            success = true;
+            return result;
+        } finally {
+            scriptStats.record(System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * 执行脚本，参数和结果使用指定的序列化方式，例如以 {@link RedisSerializer#byteArray()} 收发原始字节
+     *
+     * @param operations       执行使用的模板，只使用其key序列化器
+     * @param name             脚本名
+     * @param argsSerializer   ARGV 序列化器
+     * @param resultSerializer 结果序列化器，数值结果不经过序列化器
+     * @param keys             KEYS
+     * @param args             ARGV
+     * @return 结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisOperations<String, ?> operations, String name, RedisSerializer<?> argsSerializer,
+                         RedisSerializer<?> resultSerializer, List<String> keys, Object... args) {
+        RedisScript<T> script = getScript(name);
+        ScriptStats scriptStats = stats.get(name);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = operations.execute(script, argsSerializer, (RedisSerializer<T>) resultSerializer, keys, args);
+            success = true;
+            return result;
+        } finally {
+            scriptStats.record(System.nanoTime() - start, success);
+        }
+    }
+
+    public <T> T execute(String name, List<String> keys, Object... args) {
+        return execute(redisTemplate, name, keys, args);
+    }
+
+    /**
+     * 将所有脚本 SCRIPT LOAD 到 Redis，失败不影响启动，首次执行时会自动补发
+     */
+    public void preload() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                for (RedisScript<?> script : scripts.values()) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("redis script preload failed, scripts will be loaded on first use", e);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        preload();
+    }
+
+    /**
+     * 各脚本执行统计，key为脚本名
+     */
+    public Map<String, ScriptStats> stats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static Class<?> resultType(String scriptText) {
+        for (String line : scriptText.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith("--")) {
+                break;
+            }
+            if (trimmed.startsWith(RETURN_HEADER)) {
+                String type = trimmed.substring(RETURN_HEADER.length()).trim();
+                switch (type) {
+                    case "long":
+                        return Long.class;
+                    case "list":
+                        return List.class;
+                    case "boolean":
+                        return Boolean.class;
+                    case "string":
+                        return String.class;
+                    default:
+                        throw new IllegalArgumentException("unsupported redis script return type: " + type);
+                }
+            }
+        }
+        return null;
+    }
+}
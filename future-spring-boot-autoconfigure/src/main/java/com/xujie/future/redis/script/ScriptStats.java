@@ -0,0 +1,54 @@
+package com.xujie.future.redis.script;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 Lua 脚本的执行统计
+ *
+ * @author Xujie
+ * @since 2025/4/27 14:20
+ **/
+public class ScriptStats {
+
+    private final LongAdder callCount = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos, boolean success) {
+        callCount.increment();
+        if (!success) {
+            errorCount.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 平均耗时(纳秒)
+     */
+    public long getAvgNanos() {
+        long count = callCount.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+}
@@ -0,0 +1,273 @@
+package com.xujie.future.redis.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 异步 Redis 操作，返回 {@link CompletableFuture}，方法与 {@link RedisService} 一一对应
+ * <p>
+ * 基于 {@link ReactiveRedisService}，调用线程不会阻塞等待网络往返，可以在一次请求中并行发起多个查询：
+ * <pre>
+ *     CompletableFuture&lt;User&gt; user = asyncRedisService.get("user:1");
+ *     CompletableFuture&lt;Dept&gt; dept = asyncRedisService.get("dept:1");
+ *     CompletableFuture.allOf(user, dept).join();
+ * </pre>
+ * 回调默认在 Lettuce 的 IO 线程上执行，其中不要做阻塞操作，耗时逻辑请使用 xxxAsync 并指定线程池。
+ *
+ * @author Xujie
+ * @since 2025/4/26 10:40
+ **/
+@SuppressWarnings("unchecked")
+public class AsyncRedisService {
+
+    private final ReactiveRedisService reactiveRedisService;
+
+    public AsyncRedisService(ReactiveRedisService reactiveRedisService) {
+        this.reactiveRedisService = reactiveRedisService;
+    }
+
+    // ============================String(字符串)=============================
+
+    public <T> CompletableFuture<T> get(String key) {
+        return reactiveRedisService.<T>get(key).toFuture();
+    }
+
+    public <T> CompletableFuture<T> getAndSet(String key, T value) {
+        return reactiveRedisService.getAndSet(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> set(String key, T value) {
+        return reactiveRedisService.set(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> set(String key, T value, Long time) {
+        return reactiveRedisService.set(key, value, time).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> set(String key, T value, Long time, TimeUnit timeUnit) {
+        return reactiveRedisService.set(key, value, time, timeUnit).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> setnx(String key, T value) {
+        return reactiveRedisService.setnx(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> setnx(String key, T value, Long time) {
+        return reactiveRedisService.setnx(key, value, time).toFuture();
+    }
+
+    public CompletableFuture<Boolean> multiSet(Map<String, Object> map) {
+        return reactiveRedisService.multiSet(map).toFuture();
+    }
+
+    public <T> CompletableFuture<List<T>> multiGet(Collection<String> keys) {
+        return reactiveRedisService.<T>multiGet(keys).toFuture();
+    }
+
+    public CompletableFuture<Long> incr(String key, Long delta) {
+        return reactiveRedisService.incr(key, delta).toFuture();
+    }
+
+    public CompletableFuture<Long> decr(String key, Long delta) {
+        return reactiveRedisService.decr(key, delta).toFuture();
+    }
+
+    // ================================Hash(哈希)=================================
+
+    public <T> CompletableFuture<T> hget(String key, String item) {
+        return reactiveRedisService.<T>hget(key, item).toFuture();
+    }
+
+    public <T> CompletableFuture<T> hgetOrDefault(String key, String item, T defaultValue) {
+        return reactiveRedisService.hgetOrDefault(key, item, defaultValue).toFuture();
+    }
+
+    public <T> CompletableFuture<Map<String, T>> hmget(String key) {
+        return reactiveRedisService.<T>hmget(key).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hmset(String key, Map<String, T> map) {
+        return reactiveRedisService.hmset(key, map).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hmset(String key, Map<String, T> map, Long time) {
+        return reactiveRedisService.hmset(key, map, time).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hmset(String key, Map<String, T> map, Long time, TimeUnit timeUnit) {
+        return reactiveRedisService.hmset(key, map, time, timeUnit).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hset(String key, String item, T value) {
+        return reactiveRedisService.hset(key, item, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hset(String key, String item, T value, Long time) {
+        return reactiveRedisService.hset(key, item, value, time).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> hset(String key, String item, T value, Long time, TimeUnit timeUnit) {
+        return reactiveRedisService.hset(key, item, value, time, timeUnit).toFuture();
+    }
+
+    public CompletableFuture<Long> hdel(String key, String... item) {
+        return reactiveRedisService.hdel(key, item).toFuture();
+    }
+
+    public CompletableFuture<Boolean> hHasKey(String key, String item) {
+        return reactiveRedisService.hHasKey(key, item).toFuture();
+    }
+
+    public CompletableFuture<Double> hincr(String key, String item, double by) {
+        return reactiveRedisService.hincr(key, item, by).toFuture();
+    }
+
+    public CompletableFuture<Double> hdecr(String key, String item, double by) {
+        return reactiveRedisService.hdecr(key, item, by).toFuture();
+    }
+
+    public CompletableFuture<Map<String, Object>> hEntries(String key) {
+        return reactiveRedisService.hEntries(key).toFuture();
+    }
+
+    // ============================Set(集合)=============================
+
+    public <T> CompletableFuture<Set<T>> sGet(String key) {
+        return reactiveRedisService.<T>sGet(key).collect(Collectors.toSet()).toFuture();
+    }
+
+    public <T> CompletableFuture<T> sPop(String key) {
+        return reactiveRedisService.<T>sPop(key).toFuture();
+    }
+
+    public <T> CompletableFuture<List<T>> sPop(String key, Long count) {
+        return reactiveRedisService.<T>sPop(key, count).collectList().toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> sHasKey(String key, T value) {
+        return reactiveRedisService.sHasKey(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Long> sAdd(String key, T... values) {
+        return reactiveRedisService.sAdd(key, values).toFuture();
+    }
+
+    public <T> CompletableFuture<Long> sAddAndTime(String key, Long time, T... values) {
+        return reactiveRedisService.sAddAndTime(key, time, values).toFuture();
+    }
+
+    public CompletableFuture<Long> sGetSetSize(String key) {
+        return reactiveRedisService.sGetSetSize(key).toFuture();
+    }
+
+    public <T> CompletableFuture<Long> setRemove(String key, T... values) {
+        return reactiveRedisService.setRemove(key, values).toFuture();
+    }
+
+    // ============================ZSet(集合)=============================
+
+    public <T> CompletableFuture<List<T>> zGet(String key, Long start, Long end) {
+        return reactiveRedisService.<T>zGet(key, start, end).collectList().toFuture();
+    }
+
+    public <T> CompletableFuture<List<T>> zGetByScore(String key, double min, double max) {
+        return reactiveRedisService.<T>zGetByScore(key, min, max).collectList().toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> zAdd(String key, T value, double score) {
+        return reactiveRedisService.zAdd(key, value, score).toFuture();
+    }
+
+    public CompletableFuture<Long> zSize(String key) {
+        return reactiveRedisService.zSize(key).toFuture();
+    }
+
+    public CompletableFuture<Long> zCount(String key, double min, double max) {
+        return reactiveRedisService.zCount(key, min, max).toFuture();
+    }
+
+    public <T> CompletableFuture<Long> zRemove(String key, T... values) {
+        return reactiveRedisService.zRemove(key, values).toFuture();
+    }
+
+    public CompletableFuture<Long> zRemoveByRange(String key, Long start, Long end) {
+        return reactiveRedisService.zRemoveByRange(key, start, end).toFuture();
+    }
+
+    public CompletableFuture<Long> zRemoveByScore(String key, double min, double max) {
+        return reactiveRedisService.zRemoveByScore(key, min, max).toFuture();
+    }
+
+    public <T> CompletableFuture<Double> zincrScore(String key, T value, double delta) {
+        return reactiveRedisService.zincrScore(key, value, delta).toFuture();
+    }
+
+    public <T> CompletableFuture<Double> zdecrScore(String key, T value, double delta) {
+        return reactiveRedisService.zdecrScore(key, value, delta).toFuture();
+    }
+
+    // ===============================List(列表)=================================
+
+    public <T> CompletableFuture<List<T>> lGet(String key, Long start, Long end) {
+        return reactiveRedisService.<T>lGet(key, start, end).collectList().toFuture();
+    }
+
+    public <T> CompletableFuture<T> lLeftPop(String key) {
+        return reactiveRedisService.<T>lLeftPop(key).toFuture();
+    }
+
+    public <T> CompletableFuture<T> lRightPop(String key) {
+        return reactiveRedisService.<T>lRightPop(key).toFuture();
+    }
+
+    public CompletableFuture<Long> lGetSize(String key) {
+        return reactiveRedisService.lGetSize(key).toFuture();
+    }
+
+    public <T> CompletableFuture<T> lGetIndex(String key, Long index) {
+        return reactiveRedisService.<T>lGetIndex(key, index).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> lLeftPush(String key, T... value) {
+        return reactiveRedisService.lLeftPush(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> lLeftPushAll(String key, Collection<T> values) {
+        return reactiveRedisService.lLeftPushAll(key, values).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> lRightPush(String key, T... value) {
+        return reactiveRedisService.lRightPush(key, value).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> lRightPushAll(String key, Collection<T> values) {
+        return reactiveRedisService.lRightPushAll(key, values).toFuture();
+    }
+
+    public <T> CompletableFuture<Boolean> lUpdateIndex(String key, Long index, T value) {
+        return reactiveRedisService.lUpdateIndex(key, index, value).toFuture();
+    }
+
+    // ===============================Key(键)=================================
+
+    public CompletableFuture<Long> remove(String key) {
+        return reactiveRedisService.remove(key).toFuture();
+    }
+
+    public CompletableFuture<Boolean> exists(String key) {
+        return reactiveRedisService.exists(key).toFuture();
+    }
+
+    public CompletableFuture<Boolean> expire(String key, long time, TimeUnit timeUnit) {
+        return reactiveRedisService.expire(key, time, timeUnit).toFuture();
+    }
+
+    public CompletableFuture<Long> publish(String channel, Object message) {
+        return reactiveRedisService.publish(channel, message).toFuture();
+    }
+}
@@ -0,0 +1,647 @@
+package com.xujie.future.redis.service;
+
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.shard.RedisShard;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞 Redis 操作，与 {@link RedisService} 的方法一一对应
+ * <p>
+ * 基于 {@link ReactiveRedisTemplate}(Lettuce 异步连接)，与 RedisService 使用同一值序列化方式；
+ * 写操作同样会失效本地一级缓存。出错时的返回值与 RedisService 保持一致。
+ * 开启客户端分片时按同一个哈希环路由，发布订阅仍使用主连接。
+ *
+ * @author Xujie
+ * @since 2025/4/26 10:15
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class ReactiveRedisService {
+
+    /**
+     * 带过期时间的 HSET，写入与 PEXPIRE 在同一脚本内完成，ARGV[1] 为毫秒数，其后依次为 field, value
+     */
+    private static final RedisScript<Long> HSET_AND_EXPIRE = RedisScript.of(
+            "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) return 1", Long.class);
+
+    /**
+     * 带过期时间的 SADD，ARGV[1] 为毫秒数，其后为成员，返回新增成员数
+     */
+    private static final RedisScript<Long> SADD_AND_EXPIRE = RedisScript.of(
+            "local count = 0 for i = 2, #ARGV do count = count + redis.call('SADD', KEYS[1], ARGV[i]) end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) return count", Long.class);
+
+    private static final RedisElementWriter<ByteBuffer> SERIALIZED_ARGS = ByteBuffer::duplicate;
+
+    private static final RedisElementReader<Long> LONG_RESULT =
+            RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    private NearCache nearCache;
+
+    private RedisShardRouter shardRouter;
+
+    /**
+     * 各分片的模板，按分片连接懒创建
+     */
+    private final Map<RedisShard, ReactiveRedisTemplate<String, Object>> shardTemplates = new ConcurrentHashMap<>();
+
+    public ReactiveRedisService(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+    }
+
+    /**
+     * 设置本地一级缓存
+     *
+     * @param nearCache 本地缓存 为null时不使用
+     */
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 设置客户端分片，与 {@link RedisService#setShardRouter} 使用同一个路由，同一个key在两边落在同一实例
+     *
+     * @param shardRouter 分片路由 为null时不分片
+     */
+    public void setShardRouter(RedisShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    // ============================String(字符串)=============================
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public <T> Mono<T> get(String key) {
+        if (key == null) {
+            return Mono.empty();
+        }
+        if (nearCache == null || !nearCache.isCached(key)) {
+            return (Mono<T>) ops(key).opsForValue().get(key);
+        }
+        T cached = nearCache.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long version = nearCache.version();
+        return (Mono<T>) ops(key).opsForValue().get(key)
+                .doOnNext(value -> nearCache.put(key, value, version));
+    }
+
+    public <T> Mono<T> getAndSet(String key, T value) {
+        if (key == null) {
+            return Mono.empty();
+        }
+        return (Mono<T>) ops(key).opsForValue().getAndSet(key, value)
+                .flatMap(old -> invalidateNear(key).thenReturn(old));
+    }
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return true成功 false失败
+     */
+    public <T> Mono<Boolean> set(String key, T value) {
+        return afterWrite(key, ops(key).opsForValue().set(key, value), "redis set error");
+    }
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false 失败
+     */
+    public <T> Mono<Boolean> set(String key, T value, Long time) {
+        return set(key, value, time, TimeUnit.SECONDS);
+    }
+
+    public <T> Mono<Boolean> set(String key, T value, Long time, TimeUnit timeUnit) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return afterWrite(key, ops(key).opsForValue().set(key, value, duration(time, timeUnit)), "redis set error");
+    }
+
+    public <T> Mono<Boolean> setnx(String key, T value) {
+        return afterWrite(key, ops(key).opsForValue().setIfAbsent(key, value), "redis setnx error");
+    }
+
+    public <T> Mono<Boolean> setnx(String key, T value, Long time) {
+        if (time <= 0) {
+            return setnx(key, value);
+        }
+        return afterWrite(key, ops(key).opsForValue().setIfAbsent(key, value, Duration.ofSeconds(time)),
+                "redis setnx error");
+    }
+
+    public Mono<Boolean> multiSet(Map<String, Object> map) {
+        Mono<Boolean> write;
+        if (shardRouter == null) {
+            write = reactiveRedisTemplate.opsForValue().multiSet(map);
+        } else {
+            write = Mono.defer(() -> {
+                List<String> keys = new ArrayList<>(map.keySet());
+                return Flux.fromIterable(shardRouter.group(keys).entrySet())
+                        .flatMap(group -> {
+                            Map<String, Object> part = new LinkedHashMap<>();
+                            for (int index : group.getValue()) {
+                                part.put(keys.get(index), map.get(keys.get(index)));
+                            }
+                            return ops(group.getKey()).opsForValue().multiSet(part);
+                        })
+                        .all(Boolean.TRUE::equals);
+            });
+        }
+        return write
+                .flatMap(result -> Flux.fromIterable(map.keySet()).concatMap(this::invalidateNear).then(Mono.just(result)))
+                .onErrorResume(e -> {
+                    log.error("redis multi set error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    public <T> Mono<List<T>> multiGet(Collection<String> keys) {
+        Mono<List<Object>> read;
+        if (shardRouter == null) {
+            read = reactiveRedisTemplate.opsForValue().multiGet(keys);
+        } else {
+            read = Mono.defer(() -> {
+                List<String> keyList = new ArrayList<>(keys);
+                Object[] values = new Object[keyList.size()];
+                return Flux.fromIterable(shardRouter.group(keyList).entrySet())
+                        .flatMap(group -> {
+                            List<Integer> indices = group.getValue();
+                            List<String> part = new ArrayList<>(indices.size());
+                            for (int index : indices) {
+                                part.add(keyList.get(index));
+                            }
+                            return ops(group.getKey()).opsForValue().multiGet(part)
+                                    .doOnNext(partValues -> {
+                                        for (int i = 0; i < indices.size(); i++) {
+                                            values[indices.get(i)] = partValues.get(i);
+                                        }
+                                    });
+                        })
+                        .then(Mono.fromSupplier(() -> Arrays.asList(values)));
+            });
+        }
+        return read
+                .map(values -> (List<T>) values)
+                .onErrorResume(e -> {
+                    log.error("redis multi get error", e);
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Long> incr(String key, Long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递增因子必须大于0"));
+        }
+        return ops(key).opsForValue().increment(key, delta)
+                .flatMap(value -> invalidateNear(key).thenReturn(value));
+    }
+
+    public Mono<Long> decr(String key, Long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递减因子必须大于0"));
+        }
+        return ops(key).opsForValue().decrement(key, delta)
+                .flatMap(value -> invalidateNear(key).thenReturn(value));
+    }
+
+    // ================================Hash(哈希)=================================
+
+    public <T> Mono<T> hget(String key, String item) {
+        ReactiveHashOperations<String, String, T> hashOperations = ops(key).opsForHash();
+        if (nearCache == null || !nearCache.isCached(key)) {
+            return hashOperations.get(key, item);
+        }
+        T cached = nearCache.hget(key, item);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long version = nearCache.version();
+        return hashOperations.get(key, item).doOnNext(value -> nearCache.hput(key, item, value, version));
+    }
+
+    public <T> Mono<T> hgetOrDefault(String key, String item, T defaultValue) {
+        return this.<T>hget(key, item).defaultIfEmpty(defaultValue);
+    }
+
+    public <T> Mono<Map<String, T>> hmget(String key) {
+        ReactiveHashOperations<String, String, T> hashOperations = ops(key).opsForHash();
+        return hashOperations.entries(key).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    public <T> Mono<Boolean> hmset(String key, Map<String, T> map) {
+        return afterWrite(key, ops(key).opsForHash().putAll(key, map), "redis hash multi set error");
+    }
+
+    public <T> Mono<Boolean> hmset(String key, Map<String, T> map, Long time) {
+        return hmset(key, map, time, TimeUnit.SECONDS);
+    }
+
+    public <T> Mono<Boolean> hmset(String key, Map<String, T> map, Long time, TimeUnit timeUnit) {
+        if (time == null || time <= 0) {
+            return hmset(key, map);
+        }
+        RedisSerializationContext<String, Object> context = ops(key).getSerializationContext();
+        List<ByteBuffer> elements = new ArrayList<>(map.size() * 2);
+        map.forEach((item, value) -> {
+            elements.add(context.getHashKeySerializationPair().write(item));
+            elements.add(context.getHashValueSerializationPair().write(value));
+        });
+        return afterWrite(key, writeAndExpire(key, HSET_AND_EXPIRE, elements, time, timeUnit).thenReturn(true),
+                "redis hash multi set error");
+    }
+
+    public <T> Mono<Boolean> hset(String key, String item, T value) {
+        return afterWrite(key, ops(key).opsForHash().put(key, item, value).thenReturn(true),
+                "redis hash set error");
+    }
+
+    public <T> Mono<Boolean> hset(String key, String item, T value, Long time) {
+        return hset(key, item, value, time, TimeUnit.SECONDS);
+    }
+
+    public <T> Mono<Boolean> hset(String key, String item, T value, Long time, TimeUnit timeUnit) {
+        if (time == null || time <= 0) {
+            return hset(key, item, value);
+        }
+        RedisSerializationContext<String, Object> context = ops(key).getSerializationContext();
+        List<ByteBuffer> elements = List.of(context.getHashKeySerializationPair().write(item),
+                context.getHashValueSerializationPair().write(value));
+        return afterWrite(key, writeAndExpire(key, HSET_AND_EXPIRE, elements, time, timeUnit).thenReturn(true),
+                "redis hash set error");
+    }
+
+    public Mono<Long> hdel(String key, String... item) {
+        return ops(key).opsForHash().remove(key, (Object[]) item)
+                .flatMap(count -> invalidateNear(key).thenReturn(count));
+    }
+
+    public Mono<Boolean> hHasKey(String key, String item) {
+        return ops(key).opsForHash().hasKey(key, item);
+    }
+
+    public Mono<Double> hincr(String key, String item, double by) {
+        return ops(key).<String, Object>opsForHash().increment(key, item, by)
+                .flatMap(value -> invalidateNear(key).thenReturn(value));
+    }
+
+    public Mono<Double> hdecr(String key, String item, double by) {
+        return hincr(key, item, -by);
+    }
+
+    public Mono<Map<String, Object>> hEntries(String key) {
+        return hmget(key);
+    }
+
+    // ============================Set(集合)=============================
+
+    public <T> Flux<T> sGet(String key) {
+        return (Flux<T>) ops(key).opsForSet().members(key)
+                .onErrorResume(e -> {
+                    log.error("redis set get all error", e);
+                    return Flux.empty();
+                });
+    }
+
+    public <T> Mono<T> sPop(String key) {
+        return (Mono<T>) ops(key).opsForSet().pop(key)
+                .onErrorResume(e -> {
+                    log.error("redis set pop error", e);
+                    return Mono.empty();
+                });
+    }
+
+    public <T> Flux<T> sPop(String key, Long count) {
+        return (Flux<T>) ops(key).opsForSet().pop(key, count)
+                .onErrorResume(e -> {
+                    log.error("redis set pop error", e);
+                    return Flux.empty();
+                });
+    }
+
+    public <T> Mono<Boolean> sHasKey(String key, T value) {
+        return ops(key).opsForSet().isMember(key, value)
+                .onErrorResume(e -> {
+                    log.error("redis set has value error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    public <T> Mono<Long> sAdd(String key, T... values) {
+        return ops(key).opsForSet().add(key, (Object[]) values)
+                .onErrorResume(e -> {
+                    log.error("redis set add value error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public <T> Mono<Long> sAddAndTime(String key, Long time, T... values) {
+        if (time == null || time <= 0) {
+            return sAdd(key, values);
+        }
+        RedisSerializationContext<String, Object> context = ops(key).getSerializationContext();
+        List<ByteBuffer> elements = new ArrayList<>(values.length);
+        for (T value : values) {
+            elements.add(context.getValueSerializationPair().write(value));
+        }
+        return writeAndExpire(key, SADD_AND_EXPIRE, elements, time, TimeUnit.SECONDS)
+                .onErrorResume(e -> {
+                    log.error("redis set add value error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public Mono<Long> sGetSetSize(String key) {
+        return ops(key).opsForSet().size(key)
+                .onErrorResume(e -> {
+                    log.error("redis get set size error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public <T> Mono<Long> setRemove(String key, T... values) {
+        return ops(key).opsForSet().remove(key, (Object[]) values)
+                .onErrorResume(e -> {
+                    log.error("redis set remove error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    // ============================ZSet(集合)=============================
+
+    public <T> Flux<T> zGet(String key, Long start, Long end) {
+        return (Flux<T>) ops(key).opsForZSet().range(key, Range.closed(start, end))
+                .onErrorResume(e -> {
+                    log.error("redis zset get all error", e);
+                    return Flux.empty();
+                });
+    }
+
+    public <T> Flux<T> zGetByScore(String key, double min, double max) {
+        return (Flux<T>) ops(key).opsForZSet().rangeByScore(key, Range.closed(min, max))
+                .onErrorResume(e -> {
+                    log.error("redis zset get all error", e);
+                    return Flux.empty();
+                });
+    }
+
+    public <T> Mono<Boolean> zAdd(String key, T value, double score) {
+        return ops(key).opsForZSet().add(key, value, score)
+                .onErrorResume(e -> {
+                    log.error("redis set add value error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Long> zSize(String key) {
+        return ops(key).opsForZSet().size(key)
+                .onErrorResume(e -> {
+                    log.error("redis get zset size error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public Mono<Long> zCount(String key, double min, double max) {
+        return ops(key).opsForZSet().count(key, Range.closed(min, max))
+                .onErrorResume(e -> {
+                    log.error("redis get zset count error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public <T> Mono<Long> zRemove(String key, T... values) {
+        return ops(key).opsForZSet().remove(key, (Object[]) values)
+                .onErrorResume(e -> {
+                    log.error("redis zset remove error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public Mono<Long> zRemoveByRange(String key, Long start, Long end) {
+        return ops(key).opsForZSet().removeRange(key, Range.closed(start, end))
+                .onErrorResume(e -> {
+                    log.error("redis zset remove error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public Mono<Long> zRemoveByScore(String key, double min, double max) {
+        return ops(key).opsForZSet().removeRangeByScore(key, Range.closed(min, max))
+                .onErrorResume(e -> {
+                    log.error("redis zset remove error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public <T> Mono<Double> zincrScore(String key, T value, double delta) {
+        return ops(key).opsForZSet().incrementScore(key, value, delta)
+                .onErrorResume(e -> {
+                    log.error("redis zset inc error", e);
+                    return Mono.just(0D);
+                });
+    }
+
+    public <T> Mono<Double> zdecrScore(String key, T value, double delta) {
+        return zincrScore(key, value, -delta);
+    }
+
+    // ===============================List(列表)=================================
+
+    public <T> Flux<T> lGet(String key, Long start, Long end) {
+        return (Flux<T>) ops(key).opsForList().range(key, start, end)
+                .onErrorResume(e -> {
+                    log.error("redis list get range error", e);
+                    return Flux.empty();
+                });
+    }
+
+    public <T> Mono<T> lLeftPop(String key) {
+        return (Mono<T>) ops(key).opsForList().leftPop(key)
+                .onErrorResume(e -> {
+                    log.error("redis list left pop error", e);
+                    return Mono.empty();
+                });
+    }
+
+    public <T> Mono<T> lRightPop(String key) {
+        return (Mono<T>) ops(key).opsForList().rightPop(key)
+                .onErrorResume(e -> {
+                    log.error("redis list right pop error", e);
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Long> lGetSize(String key) {
+        return ops(key).opsForList().size(key)
+                .onErrorResume(e -> {
+                    log.error("redis get list size error", e);
+                    return Mono.just(0L);
+                });
+    }
+
+    public <T> Mono<T> lGetIndex(String key, Long index) {
+        return (Mono<T>) ops(key).opsForList().index(key, index)
+                .onErrorResume(e -> {
+                    log.error("redis get list index error", e);
+                    return Mono.empty();
+                });
+    }
+
+    public <T> Mono<Boolean> lLeftPush(String key, T... value) {
+        return ops(key).opsForList().leftPushAll(key, (Object[]) value)
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.error("redis  list left push error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    public <T> Mono<Boolean> lLeftPushAll(String key, Collection<T> values) {
+        if (values == null || values.isEmpty()) {
+            return Mono.just(false);
+        }
+        return lLeftPush(key, values.toArray());
+    }
+
+    public <T> Mono<Boolean> lRightPush(String key, T... value) {
+        return ops(key).opsForList().rightPushAll(key, (Object[]) value)
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.error("redis list right push error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    public <T> Mono<Boolean> lRightPushAll(String key, Collection<T> values) {
+        if (values == null || values.isEmpty()) {
+            return Mono.just(false);
+        }
+        return lRightPush(key, values.toArray());
+    }
+
+    public <T> Mono<Boolean> lUpdateIndex(String key, Long index, T value) {
+        return ops(key).opsForList().set(key, index, value)
+                .onErrorResume(e -> {
+                    log.error("redis list update value error", e);
+                    return Mono.just(false);
+                });
+    }
+
+    // ===============================Key(键)=================================
+
+    public Mono<Long> remove(String key) {
+        return ops(key).delete(key).flatMap(count -> invalidateNear(key).thenReturn(count));
+    }
+
+    public Mono<Boolean> exists(String key) {
+        return ops(key).hasKey(key);
+    }
+
+    public Mono<Boolean> expire(String key, long time, TimeUnit timeUnit) {
+        return ops(key).expire(key, duration(time, timeUnit));
+    }
+
+    /**
+     * redis 发布
+     *
+     * @param channel channel key
+     * @param message message
+     * @return 收到消息的订阅者数量
+     */
+    public Mono<Long> publish(String channel, Object message) {
+        return reactiveRedisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * key 所在实例的模板，未分片时为 reactiveRedisTemplate
+     */
+    private ReactiveRedisTemplate<String, Object> ops(String key) {
+        return shardRouter == null ? reactiveRedisTemplate : ops(shardRouter.route(key));
+    }
+
+    private ReactiveRedisTemplate<String, Object> ops(RedisShard shard) {
+        return shardTemplates.computeIfAbsent(shard, s -> new ReactiveRedisTemplate<>(
+                (ReactiveRedisConnectionFactory) s.getRedisTemplate().getRequiredConnectionFactory(),
+                reactiveRedisTemplate.getSerializationContext()));
+    }
+
+    /**
+     * 在一个脚本内写入并设置过期时间，避免写入成功而 EXPIRE 丢失时留下永不过期的 key
+     *
+     * @param elements 已按模板序列化的参数
+     */
+    private Mono<Long> writeAndExpire(String key, RedisScript<Long> script, List<ByteBuffer> elements,
+                                      long time, TimeUnit timeUnit) {
+        List<ByteBuffer> args = new ArrayList<>(elements.size() + 1);
+        args.add(StandardCharsets.UTF_8.encode(String.valueOf(duration(time, timeUnit).toMillis())));
+        args.addAll(elements);
+        return ops(key).execute(script, List.of(key), args, SERIALIZED_ARGS, LONG_RESULT).next();
+    }
+
+    /**
+     * 写成功后失效本地缓存，出错时记录日志并返回false
+     */
+    private Mono<Boolean> afterWrite(String key, Mono<Boolean> write, String errorMessage) {
+        return write
+                .flatMap(result -> Boolean.TRUE.equals(result) ? invalidateNear(key).thenReturn(true) : Mono.just(false))
+                .onErrorResume(e -> {
+                    log.error(errorMessage, e);
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Void> invalidateNear(String key) {
+        if (nearCache == null || !nearCache.isCached(key)) {
+            return Mono.empty();
+        }
+        nearCache.invalidate(key);
+        return reactiveRedisTemplate.convertAndSend(nearCache.getChannel(), nearCache.invalidationMessage(key))
+                .onErrorResume(e -> {
+                    log.error("redis near cache invalidation publish error", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static Duration duration(long time, TimeUnit timeUnit) {
+        return Duration.ofNanos(timeUnit.toNanos(time));
+    }
+}
@@ -1,24 +1,57 @@
 package com.xujie.future.redis.service;
 
-import cn.hutool.json.JSONUtil;
+import com.xujie.future.redis.batch.RedisGetBatcher;
+import com.xujie.future.redis.cluster.ClusterSlotExecutor;
+import com.xujie.future.redis.config.FutureRedisProperties;
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.keyBuilder.KeyNamespace;
+import com.xujie.future.redis.load.LoadOptions;
+import com.xujie.future.redis.load.NullValue;
+import com.xujie.future.redis.load.RefreshAheadExecutor;
+import com.xujie.future.redis.load.RefreshStats;
+import com.xujie.future.redis.load.RefreshableValue;
+import com.xujie.future.redis.load.SingleFlight;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.metrics.RedisKeyContext;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.pipeline.RedisPipeline;
+import com.xujie.future.redis.read.RedisReadRouter;
+import com.xujie.future.redis.script.RedisScriptRegistry;
+import com.xujie.future.redis.shard.RedisShard;
+import com.xujie.future.redis.shard.RedisShardRouter;
 import com.xujie.future.redis.util.RedisKeyUtil;
+import com.xujie.future.redis.writebehind.WriteBehindBuffer;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.*;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @SuppressWarnings("unchecked")
 public class RedisService {
+    /**
+     * 一条失效通知最多包含的key数量
+     */
+    private static final int INVALIDATION_BATCH_SIZE = 1000;
+
     /**
      * 注入redisTemplate bean
      */
@@ -29,12 +62,222 @@ public class RedisService {
 
     private final RedisKeyUtil redisKeyUtil;
 
+    /**
+     * 本地一级缓存，未开启时为null
+     */
+    private NearCache nearCache;
+
+    /**
+     * 热点key探测，未开启时为null
+     */
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * GET 合并器，未开启时为null
+     */
+    private RedisGetBatcher getBatcher;
+
+    private long getBatchTimeoutMillis;
+
+    /**
+     * getOrLoad 默认配置
+     */
+    private FutureRedisProperties.Load loadProperties = new FutureRedisProperties.Load();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    /**
+     * 提前刷新线程池，为null时不提前刷新
+     */
+    private RefreshAheadExecutor refreshExecutor;
+
+    private double refreshBeta = 1.0;
+
+    private final RefreshStats refreshStats = new RefreshStats();
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lua 脚本注册表，未设置时首次使用按默认位置加载
+     */
+    private volatile RedisScriptRegistry scriptRegistry;
+
+    /**
+     * 集群按 slot 分批执行，为null时直接使用 redisTemplate
+     */
+    private ClusterSlotExecutor slotExecutor;
+
+    /**
+     * pipeline 每批命令数
+     */
+    private int pipelineChunkSize = 1000;
+
+    /**
+     * 带时间的hash写入是否只对字段设置过期时间
+     */
+    private boolean hashFieldTtl;
+
+    /**
+     * 命令指标，没有 MeterRegistry 时为null
+     */
+    private RedisMetrics metrics;
+
+    /**
+     * 异步写缓存，未开启时为null
+     */
+    private WriteBehindBuffer writeBehind;
+
+    /**
+     * 客户端分片，未开启时为null
+     */
+    private RedisShardRouter shardRouter;
+
+    /**
+     * 读路由，未开启副本读和对冲读时为null
+     */
+    private RedisReadRouter readRouter;
+
     public RedisService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, RedisKeyUtil redisKeyUtil) {
         this.redisTemplate = redisTemplate;
         this.stringRedisTemplate = stringRedisTemplate;
         this.redisKeyUtil = redisKeyUtil;
     }
 
+    /**
+     * 设置本地一级缓存
+     *
+     * @param nearCache 本地缓存 为null时不使用
+     */
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 设置热点key探测
+     *
+     * @param hotKeyDetector 探测器 为null时不探测
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    /**
+     * 设置GET合并器
+     *
+     * @param getBatcher    合并器 为null时 getBatched 等同于 get
+     * @param timeoutMillis 等待结果的超时时间(毫秒)
+     */
+    public void setGetBatcher(RedisGetBatcher getBatcher, long timeoutMillis) {
+        this.getBatcher = getBatcher;
+        this.getBatchTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 设置 getOrLoad 默认配置
+     */
+    public void setLoadProperties(FutureRedisProperties.Load loadProperties) {
+        if (loadProperties.isCacheNull() && loadProperties.getNullTtl().toMillis() <= 0) {
+            throw new IllegalArgumentException("future.redis.load.null-ttl must be at least 1ms when cache-null is enabled");
+        }
+        this.loadProperties = loadProperties;
+    }
+
+    /**
+     * 设置提前刷新线程池
+     *
+     * @param refreshExecutor 刷新线程池 为null时不提前刷新
+     * @param beta            提前刷新系数
+     */
+    public void setRefreshExecutor(RefreshAheadExecutor refreshExecutor, double beta) {
+        this.refreshExecutor = refreshExecutor;
+        this.refreshBeta = beta;
+    }
+
+    /**
+     * 设置 Lua 脚本注册表
+     */
+    public void setScriptRegistry(RedisScriptRegistry scriptRegistry) {
+        this.scriptRegistry = scriptRegistry;
+    }
+
+    /**
+     * 设置集群批量执行器
+     */
+    public void setSlotExecutor(ClusterSlotExecutor slotExecutor) {
+        this.slotExecutor = slotExecutor;
+    }
+
+    /**
+     * 设置 pipeline 每批命令数
+     */
+    public void setPipelineChunkSize(int pipelineChunkSize) {
+        this.pipelineChunkSize = pipelineChunkSize;
+    }
+
+    /**
+     * 设置带时间的hash写入是否只对字段设置过期时间，需要 Redis 7.4+
+     */
+    public void setHashFieldTtl(boolean hashFieldTtl) {
+        this.hashFieldTtl = hashFieldTtl;
+    }
+
+    /**
+     * 设置命令指标
+     *
+     * @param metrics 指标 为null时不记录
+     */
+    public void setMetrics(RedisMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 设置异步写缓存，设置后 get/hget 能读到尚未写入 Redis 的值
+     *
+     * @param writeBehind 异步写缓存 为null时不使用
+     */
+    public void setWriteBehind(WriteBehindBuffer writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * 设置客户端分片，设置后每个key的命令发往其所在实例，批量命令按实例拆分并行执行
+     *
+     * @param shardRouter 分片路由 为null时不分片
+     */
+    public void setShardRouter(RedisShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * 设置读路由，设置后 get/hget/mget/zrange 等读命令按 future.redis.read 发往副本或对冲读，写命令仍发往主节点
+     *
+     * @param readRouter 读路由 为null时读写都发往主节点
+     */
+    public void setReadRouter(RedisReadRouter readRouter) {
+        this.readRouter = readRouter;
+    }
+
+    /**
+     * 异步写缓存，适合批量填充缓存等不需要等待写入完成的场景
+     *
+     * @throws IllegalStateException 未开启 future.redis.write-behind
+     */
+    public WriteBehindBuffer writeBehind() {
+        if (writeBehind == null) {
+            throw new IllegalStateException("write-behind is not enabled, set future.redis.write-behind.enabled=true");
+        }
+        return writeBehind;
+    }
+
+    /**
+     * 提前刷新统计
+     */
+    public RefreshStats getRefreshStats() {
+        return refreshStats;
+    }
+
     // ============================String(字符串)=============================
 
     /**
@@ -44,7 +287,86 @@ public class RedisService {
      * @return 值
      */
     public <T> T get(String key) {
-        return key == null ? null : (T) redisTemplate.opsForValue().get(key);
+        return get(key, false);
+    }
+
+    /**
+     * 先查异步写缓存中未落库的值与热点key本地副本，再查本地一级缓存和 Redis
+     *
+     * @param batched 是否通过合并器查询 Redis
+     */
+    private <T> T get(String key, boolean batched) {
+        if (key == null) {
+            return null;
+        }
+        if (writeBehind != null) {
+            Object pending = writeBehind.pendingValue(key);
+            if (pending != null) {
+                return (T) pending;
+            }
+        }
+        if (hotKeyDetector != null) {
+            hotKeyDetector.record(key);
+            T local = hotKeyDetector.getLocal(key);
+            if (local != null) {
+                return local;
+            }
+            T value = getRemote(key, batched);
+            hotKeyDetector.putLocal(key, value);
+            return value;
+        }
+        return getRemote(key, batched);
+    }
+
+    private <T> T getRemote(String key, boolean batched) {
+        if (nearCache == null || !nearCache.isCached(key)) {
+            return batched ? getBatchedRemote(key) : timed("get", key, () -> (T) read(key, ops -> ops.opsForValue().get(key)));
+        }
+        T value = nearCache.get(key);
+        if (value == null) {
+            long version = nearCache.version();
+            value = timed("get", key, () -> (T) read(key, ops -> ops.opsForValue().get(key)));
+            nearCache.put(key, value, version);
+        }
+        return value;
+    }
+
+    /**
+     * 普通缓存获取，同一时刻的并发调用会被合并为一次 MGET
+     * <p>
+     * 适用于大量线程同时读取不同key的热点路径，单次调用会多出最多一个时间窗口的等待；
+     * 与 {@link #get(String)} 一样先查异步写缓存、热点key与本地一级缓存，只有需要访问 Redis 时才合并。
+     * 未开启 future.redis.batch 或队列已满时等同于 {@link #get(String)}
+     *
+     * @param key 键
+     * @return 值
+     */
+    public <T> T getBatched(String key) {
+        return get(key, getBatcher != null);
+    }
+
+    private <T> T getBatchedRemote(String key) {
+        CompletableFuture<Object> future = getBatcher.submit(key);
+        if (future == null) {
+            return timed("get", key, () -> (T) read(key, ops -> ops.opsForValue().get(key)));
+        }
+        return timed("get", key, () -> awaitBatched(key, future));
+    }
+
+    private <T> T awaitBatched(String key, CompletableFuture<Object> future) {
+        try {
+            return (T) future.get(getBatchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("redis batched get timeout: " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("redis batched get interrupted: " + key, e);
+        }
     }
 
     /**
@@ -54,7 +376,12 @@ public class RedisService {
      * @return 值
      */
     public <T> T getAndSet(String key, T value) {
-        return key == null ? null : (T) redisTemplate.opsForValue().getAndSet(key, value);
+        if (key == null) {
+            return null;
+        }
+        T old = timed("getset", key, () -> (T) ops(key).opsForValue().getAndSet(key, value));
+        invalidateNear(key);
+        return old;
     }
 
     /**
@@ -66,7 +393,8 @@ public class RedisService {
      */
     public <T> boolean set(String key, T value) {
         try {
-            redisTemplate.opsForValue().set(key, value);
+            timedRun("set", key, () -> ops(key).opsForValue().set(key, value));
+            invalidateNear(key);
             return true;
         } catch (Exception e) {
             log.error("redis set error", e);
@@ -85,7 +413,8 @@ public class RedisService {
     public <T> boolean set(String key, T value, Long time) {
         try {
             if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
+                timedRun("set", key, () -> ops(key).opsForValue().set(key, value, time, TimeUnit.SECONDS));
+                invalidateNear(key);
             } else {
                 return set(key, value);
             }
@@ -108,7 +437,8 @@ public class RedisService {
     public <T> boolean set(String key, T value, Long time, TimeUnit timeUnit) {
         try {
             if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, timeUnit);
+                timedRun("set", key, () -> ops(key).opsForValue().set(key, value, time, timeUnit));
+                invalidateNear(key);
             } else {
                 return set(key, value);
             }
@@ -127,7 +457,11 @@ public class RedisService {
      * @return true key不存在保存成功 false key存在，失败
      */
     public <T> boolean setnx(String key, T value) {
-        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value));
+        boolean success = Boolean.TRUE.equals(timed("setnx", key, () -> ops(key).opsForValue().setIfAbsent(key, value)));
+        if (success) {
+            invalidateNear(key);
+        }
+        return success;
     }
 
     /**
@@ -139,9 +473,27 @@ public class RedisService {
      * @return true key不存在保存成功 false key存在，失败
      */
     public <T> boolean setnx(String key, Object value, Long time) {
+        return setnx(key, value, time, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 普通缓存放入并设置时间 （ key 不存在时，为 key 设置指定的值）
+     *
+     * @param key      键
+     * @param value    值
+     * @param time     时间 time要大于0 如果time小于等于0 将设置无限期
+     * @param timeUnit 过期时间单位 {@link TimeUnit}
+     * @return true key不存在保存成功 false key存在，失败
+     */
+    public <T> boolean setnx(String key, Object value, Long time, TimeUnit timeUnit) {
         try {
             if (time > 0) {
-                return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, time, TimeUnit.SECONDS));
+                boolean success = Boolean.TRUE.equals(timed("setnx", key,
+                        () -> ops(key).opsForValue().setIfAbsent(key, value, time, timeUnit)));
+                if (success) {
+                    invalidateNear(key);
+                }
+                return success;
             } else {
                 return setnx(key, value);
             }
@@ -159,7 +511,12 @@ public class RedisService {
      */
     public Boolean multiSet(Map<String, Object> map) {
         try {
-            redisTemplate.opsForValue().multiSet(mapCovert(map));
+            if (slotExecutor != null) {
+                timedRun("mset", null, () -> slotExecutor.multiSet(map));
+            } else {
+                timedRun("mset", null, () -> redisTemplate.opsForValue().multiSet(map));
+            }
+            map.keySet().forEach(this::invalidateNear);
             return true;
         } catch (Exception e) {
             log.error("redis multi set error", e);
@@ -176,7 +533,44 @@ public class RedisService {
      */
     public <T> List<T> multiGet(Collection<String> keys) {
         try {
-            return (List<T>) redisTemplate.opsForValue().multiGet(keys);
+            if (slotExecutor != null && (readRouter == null || slotExecutor.isCluster() || shardRouter != null)) {
+                return timed("mget", null, () -> (List<T>) slotExecutor.multiGet(keys instanceof List ? (List<String>) keys : new ArrayList<>(keys)));
+            }
+            return timed("mget", null, () -> (List<T>) read(null, ops -> ops.opsForValue().multiGet(keys)));
+        } catch (Exception e) {
+            log.error("redis multi get error", e);
+            return null;
+        }
+    }
+
+    /**
+     * 按命名空间批量获取，key 直接编码为字节交给 MGET，不经过 key 序列化器
+     * <p>
+     * 集群、分片或 key 序列化器不是 StringRedisSerializer 时退回 {@link #multiGet(Collection)}
+     *
+     * @param namespace 命名空间
+     * @param ids       业务id
+     * @return 与 ids 顺序一致的值，不存在的为null
+     */
+    public <T> List<T> multiGet(KeyNamespace namespace, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (shardRouter != null || (slotExecutor != null && slotExecutor.isCluster())
+                || !(redisTemplate.getKeySerializer() instanceof StringRedisSerializer)) {
+            return multiGet(namespace.keys(ids));
+        }
+        try {
+            byte[][] rawKeys = namespace.rawKeys(ids);
+            RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+            return timed("mget", null, () -> read(null, ops -> ops.execute((RedisCallback<List<T>>) connection -> {
+                List<byte[]> values = connection.stringCommands().mGet(rawKeys);
+                List<T> result = new ArrayList<>(rawKeys.length);
+                for (byte[] value : values) {
+                    result.add(value == null ? null : (T) valueSerializer.deserialize(value));
+                }
+                return result;
+            })));
         } catch (Exception e) {
             log.error("redis multi get error", e);
             return null;
@@ -194,7 +588,9 @@ public class RedisService {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, delta);
+        Long value = timed("incr", key, () -> ops(key).opsForValue().increment(key, delta));
+        invalidateNear(key);
+        return value;
     }
 
     /**
@@ -208,8 +604,251 @@ public class RedisService {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, -delta);
+        Long value = timed("decr", key, () -> ops(key).opsForValue().increment(key, -delta));
+        invalidateNear(key);
+        return value;
+    }
+    // ============================Pipeline=============================
+
+    /**
+     * 在一个 pipeline 中执行多条命令，命令较多时自动分批
+     *
+     * @param commands 登记命令的回调
+     * @return 与登记顺序一一对应的结果，不存在的key或字段为null
+     * @throws org.springframework.data.redis.connection.RedisPipelineException 有命令执行失败
+     */
+    public List<Object> pipelined(Consumer<RedisPipeline> commands) {
+        RedisPipeline pipeline = new RedisPipeline(redisTemplate, shardRouter, slotExecutor);
+        commands.accept(pipeline);
+        if (pipeline.size() == 0) {
+            return new ArrayList<>();
+        }
+        try {
+            return timed("pipeline", null, () -> pipeline.execute(pipelineChunkSize));
+        } finally {
+            invalidateNear(pipeline.getWrittenKeys());
+        }
+    }
+
+    // ============================Cache-Aside(缓存加载)=============================
+
+    /**
+     * 缓存获取，未命中时加载并写入缓存
+     *
+     * @param key    键
+     * @param loader 加载逻辑，返回null表示数据不存在
+     * @param time   时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return 值
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, Long time) {
+        return getOrLoad(key, loader, LoadOptions.of(time, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 缓存获取，未命中时加载并写入缓存
+     *
+     * @param key      键
+     * @param loader   加载逻辑，返回null表示数据不存在
+     * @param time     时间 time要大于0 如果time小于等于0 将设置无限期
+     * @param timeUnit 时间单位
+     * @return 值
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, Long time, TimeUnit timeUnit) {
+        return getOrLoad(key, loader, LoadOptions.of(time, timeUnit));
     }
+
+    /**
+     * 缓存获取，未命中时加载并写入缓存
+     * <p>
+     * 同一JVM内同一个key同时只有一个线程执行加载，其余线程等待该结果；开启租约后，
+     * 集群内只有拿到租约的节点加载，其余节点轮询等待结果，等待超时后自行加载。
+     * 空结果按配置写入空值标记，在较短的时间内不再穿透；设置了布隆过滤器时，一定不存在的数据直接返回null。
+     *
+     * @param key     键
+     * @param loader  加载逻辑，返回null表示数据不存在
+     * @param options 加载选项
+     * @return 值
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, LoadOptions options) {
+        Object cached = get(key);
+        if (cached != null) {
+            return NullValue.isNull(cached) ? null : (T) cached;
+        }
+        if (definitelyAbsent(options)) {
+            return null;
+        }
+        return singleFlight.execute(key, () -> {
+            // 上一轮加载可能刚刚完成
+            Object current = getFromPrimary(key);
+            if (current != null) {
+                return NullValue.isNull(current) ? null : (T) current;
+            }
+            boolean lease = options.getLease() != null ? options.getLease() : loadProperties.isLease();
+            return lease ? loadWithLease(key, loader, options) : loadAndCache(key, loader, options);
+        });
+    }
+
+    /**
+     * 加载前的二次检查与租约等待从主节点读取，刚由其他线程或节点写入的值在副本上可能还不可见
+     */
+    private Object getFromPrimary(String key) {
+        if (readRouter == null) {
+            return get(key);
+        }
+        if (writeBehind != null) {
+            Object pending = writeBehind.pendingValue(key);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        return timed("get", key, () -> ops(key).opsForValue().get(key));
+    }
+
+    /**
+     * 布隆过滤器判断数据一定不存在；过滤器不可用时按可能存在处理，不影响正常加载
+     */
+    private boolean definitelyAbsent(LoadOptions options) {
+        if (options.getBloomFilter() == null || options.getBloomMember() == null) {
+            return false;
+        }
+        try {
+            return !options.getBloomFilter().mightContain(options.getBloomMember());
+        } catch (Exception e) {
+            log.error("redis bloom filter check error: {}", options.getBloomFilter().getKey(), e);
+            return false;
+        }
+    }
+
+    private <T> T loadWithLease(String key, Supplier<T> loader, LoadOptions options) {
+        String leaseKey = key + ":lease";
+        Boolean acquired = ops(leaseKey).opsForValue().setIfAbsent(leaseKey, leaseToken, loadProperties.getLeaseTime());
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return loadAndCache(key, loader, options);
+            } finally {
+                // 租约可能已过期被其他节点持有，只释放自己的；释放失败时等待租约自然过期
+                try {
+                    scriptRegistry().execute(ops(leaseKey), "lease-release", Collections.singletonList(leaseKey), leaseToken);
+                } catch (Exception e) {
+                    log.error("redis lease release error: {}", leaseKey, e);
+                }
+            }
+        }
+        long deadline = System.nanoTime() + loadProperties.getLeaseWait().toNanos();
+        long pollMillis = loadProperties.getLeasePollInterval().toMillis();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Object value = getFromPrimary(key);
+            if (value != null) {
+                return NullValue.isNull(value) ? null : (T) value;
+            }
+        }
+        log.warn("redis lease wait timeout, load locally: {}", key);
+        return loadAndCache(key, loader, options);
+    }
+
+    private <T> T loadAndCache(String key, Supplier<T> loader, LoadOptions options) {
+        T value = loader.get();
+        if (value != null) {
+            set(key, value, options.getTtl(), options.getTimeUnit());
+            return value;
+        }
+        boolean cacheNull = options.getCacheNull() != null ? options.getCacheNull() : loadProperties.isCacheNull();
+        if (cacheNull) {
+            long nullTtlMillis = options.getNullTtlMillis() != null
+                    ? options.getNullTtlMillis() : loadProperties.getNullTtl().toMillis();
+            set(key, NullValue.MARKER, nullTtlMillis, TimeUnit.MILLISECONDS);
+        }
+        return null;
+    }
+
+    /**
+     * 缓存获取，并在过期前按概率提前在后台重新计算(XFetch)
+     * <p>
+     * 缓存中保存 {@link RefreshableValue}，记录上次计算耗时与过期时间。每次读取时按
+     * now - delta * beta * ln(random) >= expireAt 判断是否提前刷新：计算越慢、越接近过期，
+     * 刷新概率越高。刷新在后台线程执行，读取方继续返回当前值，避免昂贵的key过期瞬间出现延迟尖刺。
+     * 该方法写入的值只能通过本方法读取。
+     *
+     * @param key     键
+     * @param loader  计算逻辑，返回null表示数据不存在
+     * @param options 加载选项，不支持租约
+     * @return 值
+     */
+    public <T> T getOrRefresh(String key, Supplier<T> loader, LoadOptions options) {
+        Object cached = get(key);
+        if (cached instanceof RefreshableValue) {
+            RefreshableValue entry = (RefreshableValue) cached;
+            if (shouldRefresh(entry)) {
+                scheduleRefresh(key, loader, options);
+            }
+            return (T) entry.getValue();
+        }
+        return singleFlight.execute(key, () -> {
+            Object current = getFromPrimary(key);
+            if (current instanceof RefreshableValue) {
+                return (T) ((RefreshableValue) current).getValue();
+            }
+            return computeAndStore(key, loader, options);
+        });
+    }
+
+    private boolean shouldRefresh(RefreshableValue entry) {
+        if (refreshExecutor == null || entry.getExpireAt() == Long.MAX_VALUE) {
+            return false;
+        }
+        double gap = -entry.getDelta() * refreshBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.getExpireAt();
+    }
+
+    private <T> void scheduleRefresh(String key, Supplier<T> loader, LoadOptions options) {
+        if (singleFlight.isLoading(key) || !refreshing.add(key)) {
+            return;
+        }
+        boolean submitted = refreshExecutor.submit(() -> {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                singleFlight.execute(key, () -> computeAndStore(key, loader, options));
+                success = true;
+            } catch (Exception e) {
+                log.error("redis refresh ahead error: {}", key, e);
+            } finally {
+                refreshing.remove(key);
+                refreshStats.recordRefresh(System.nanoTime() - start, success);
+            }
+        });
+        if (!submitted) {
+            refreshing.remove(key);
+            refreshStats.recordRejected();
+        }
+    }
+
+    private <T> T computeAndStore(String key, Supplier<T> loader, LoadOptions options) {
+        long start = System.currentTimeMillis();
+        T value = loader.get();
+        long now = System.currentTimeMillis();
+        long ttlMillis;
+        if (value != null) {
+            ttlMillis = options.getTtl() > 0 ? options.getTimeUnit().toMillis(options.getTtl()) : 0;
+        } else {
+            boolean cacheNull = options.getCacheNull() != null ? options.getCacheNull() : loadProperties.isCacheNull();
+            if (!cacheNull) {
+                return null;
+            }
+            ttlMillis = options.getNullTtlMillis() != null
+                    ? options.getNullTtlMillis() : loadProperties.getNullTtl().toMillis();
+        }
+        long expireAt = ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE;
+        set(key, new RefreshableValue(value, now - start, expireAt), ttlMillis, TimeUnit.MILLISECONDS);
+        return value;
+    }
+
     // ================================Hash(哈希)=================================
 
     /**
@@ -220,8 +859,22 @@ public class RedisService {
      * @return 值
      */
     public <T> T hget(String key, String item) {
-        HashOperations<String, String, T> hashOperations = redisTemplate.opsForHash();
-        return hashOperations.get(key, item);
+        if (writeBehind != null) {
+            Object pending = writeBehind.pendingField(key, item);
+            if (pending != null) {
+                return (T) pending;
+            }
+        }
+        if (nearCache == null || !nearCache.isCached(key)) {
+            return timed("hget", key, () -> read(key, ops -> ops.<String, T>opsForHash().get(key, item)));
+        }
+        T value = nearCache.hget(key, item);
+        if (value == null) {
+            long version = nearCache.version();
+            value = timed("hget", key, () -> read(key, ops -> ops.<String, T>opsForHash().get(key, item)));
+            nearCache.hput(key, item, value, version);
+        }
+        return value;
     }
 
     /**
@@ -233,8 +886,7 @@ public class RedisService {
      * @return 值
      */
     public <T> T hgetOrDefault(String key, String item, T defaultValue) {
-        HashOperations<String, String, T> hashOperations = redisTemplate.opsForHash();
-        T obj = hashOperations.get(key, item);
+        T obj = timed("hget", key, () -> read(key, ops -> ops.<String, T>opsForHash().get(key, item)));
         if (obj == null) {
             return defaultValue;
         }
@@ -248,8 +900,7 @@ public class RedisService {
      * @return 对应的多个键值
      */
     public <T> Map<String, T> hmget(String key) {
-        HashOperations<String, String, T> hashOperations = redisTemplate.opsForHash();
-        return hashOperations.entries(key);
+        return timed("hgetall", key, () -> read(key, ops -> ops.<String, T>opsForHash().entries(key)));
     }
 
     /**
@@ -261,7 +912,8 @@ public class RedisService {
      */
     public <T> boolean hmset(String key, Map<String, T> map) {
         try {
-            redisTemplate.opsForHash().putAll(key, map);
+            timedRun("hmset", key, () -> ops(key).opsForHash().putAll(key, map));
+            invalidateNear(key);
             return true;
         } catch (Exception e) {
             log.error("redis hash multi set error", e);
@@ -278,24 +930,28 @@ public class RedisService {
      * @return true成功 false失败
      */
     public <T> boolean hmset(String key, Map<String, T> map, Long time) {
-        try {
-            redisTemplate.opsForHash().putAll(key, map);
-            if (time > 0) {
-                redisKeyUtil.expire(key, time, TimeUnit.SECONDS);
-            }
-            return true;
-        } catch (Exception e) {
-            log.error("redis hash multi set error", e);
-            return false;
-        }
+        return hmset(key, map, time, TimeUnit.SECONDS);
     }
 
+    /**
+     * HashSet 并设置时间，写入与设置时间在同一个事务中一次发送
+     * <p>
+     * 开启 future.redis.hash.field-ttl 时只对本次写入的字段设置过期时间(HPEXPIRE，需要 Redis 7.4+)
+     *
+     * @param key      键
+     * @param map      对应多个键值
+     * @param time     时间
+     * @param timeUnit 时间单位
+     * @return true成功 false失败
+     */
     public <T> boolean hmset(String key, Map<String, T> map, Long time, TimeUnit timeUnit) {
         try {
-            redisTemplate.opsForHash().putAll(key, map);
-            if (time > 0) {
-                redisKeyUtil.expire(key, time, timeUnit);
+            if (time != null && time > 0 && hashFieldTtl) {
+                timedRun("hmset", key, () -> hashWriteWithFieldTtl(key, (Map<String, Object>) map, time, timeUnit));
+            } else {
+                timedRun("hmset", key, () -> writeWithTtl(key, time, timeUnit, ops -> ops.opsForHash().putAll(key, map)));
             }
+            invalidateNear(key);
             return true;
         } catch (Exception e) {
             log.error("redis hash multi set error", e);
@@ -313,7 +969,8 @@ public class RedisService {
      */
     public <T> boolean hset(String key, String item, T value) {
         try {
-            redisTemplate.opsForHash().put(key, item, value);
+            timedRun("hset", key, () -> ops(key).opsForHash().put(key, item, value));
+            invalidateNear(key);
             return true;
         } catch (Exception e) {
             log.error("redis hash set error", e);
@@ -340,16 +997,19 @@ public class RedisService {
      * @param key      键
      * @param item     项
      * @param value    值
-     * @param time     时间 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @param time     时间 注意:如果已存在的hash表有时间,这里将会替换原有的时间；
+     *                 开启 future.redis.hash.field-ttl 时只对该字段设置过期时间(HPEXPIRE，需要 Redis 7.4+)
      * @param timeUnit 时间单位
      * @return true 成功 false失败
      */
     public <T> boolean hset(String key, String item, T value, Long time, TimeUnit timeUnit) {
         try {
-            redisTemplate.opsForHash().put(key, item, value);
-            if (time > 0) {
-                redisKeyUtil.expire(key, time, timeUnit);
+            if (time != null && time > 0 && hashFieldTtl) {
+                timedRun("hset", key, () -> hashWriteWithFieldTtl(key, Collections.singletonMap(item, value), time, timeUnit));
+            } else {
+                timedRun("hset", key, () -> writeWithTtl(key, time, timeUnit, ops -> ops.opsForHash().put(key, item, value)));
             }
+            invalidateNear(key);
             return true;
         } catch (Exception e) {
             log.error("redis hash set error", e);
@@ -364,7 +1024,8 @@ public class RedisService {
      * @param item 项 可以使多个 不能为null
      */
     public void hdel(String key, String... item) {
-        redisTemplate.opsForHash().delete(key, item);
+        timed("hdel", key, () -> ops(key).opsForHash().delete(key, item));
+        invalidateNear(key);
     }
 
     /**
@@ -375,7 +1036,7 @@ public class RedisService {
      * @return true 存在 false不存在
      */
     public boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(key, item);
+        return timed("hexists", key, () -> read(key, ops -> ops.opsForHash().hasKey(key, item)));
     }
 
     /**
@@ -387,7 +1048,9 @@ public class RedisService {
      * @return
      */
     public double hincr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, by);
+        double value = timed("hincrby", key, () -> ops(key).opsForHash().increment(key, item, by));
+        invalidateNear(key);
+        return value;
     }
 
     /**
@@ -399,7 +1062,9 @@ public class RedisService {
      * @return
      */
     public double hdecr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, -by);
+        double value = timed("hincrby", key, () -> ops(key).opsForHash().increment(key, item, -by));
+        invalidateNear(key);
+        return value;
     }
 
     /**
@@ -409,8 +1074,7 @@ public class RedisService {
      * @return
      */
     public Map<String, Object> hEntries(String key) {
-        HashOperations<String, String, Object> hashOperations = redisTemplate.opsForHash();
-        return hashOperations.entries(key);
+        return timed("hgetall", key, () -> read(key, ops -> ops.<String, Object>opsForHash().entries(key)));
     }
 
     // ============================Set(集合)=============================
@@ -423,9 +1087,7 @@ public class RedisService {
      */
     public <T> Set<T> sGet(String key) {
         try {
-            SetOperations<String, Object> setOperations = redisTemplate.opsForSet();
-
-            return (Set<T>) setOperations.members(key);
+            return timed("smembers", key, () -> (Set<T>) read(key, ops -> ops.opsForSet().members(key)));
         } catch (Exception e) {
             log.error("redis set get all error", e);
             return null;
@@ -440,8 +1102,8 @@ public class RedisService {
      */
     public <T> T sPop(String key) {
         try {
-            SetOperations<String, Object> setOperations = redisTemplate.opsForSet();
-            return (T) setOperations.pop(key);
+            SetOperations<String, Object> setOperations = ops(key).opsForSet();
+            return timed("spop", key, () -> (T) setOperations.pop(key));
         } catch (Exception e) {
             log.error("redis set pop error", e);
             return null;
@@ -456,8 +1118,8 @@ public class RedisService {
      */
     public <T> List<T> sPop(String key, Long count) {
         try {
-            SetOperations<String, Object> setOperations = redisTemplate.opsForSet();
-            return (List<T>) setOperations.pop(key, count);
+            SetOperations<String, Object> setOperations = ops(key).opsForSet();
+            return timed("spop", key, () -> (List<T>) setOperations.pop(key, count));
         } catch (Exception e) {
             log.error("redis set pop error", e);
             return null;
@@ -473,7 +1135,7 @@ public class RedisService {
      */
     public <T> boolean sHasKey(String key, T value) {
         try {
-            return redisTemplate.opsForSet().isMember(key, value);
+            return timed("sismember", key, () -> read(key, ops -> ops.opsForSet().isMember(key, value)));
         } catch (Exception e) {
             log.error("redis set has value error", e);
             return false;
@@ -489,7 +1151,7 @@ public class RedisService {
      */
     public <T> Long sAdd(String key, T... values) {
         try {
-            return redisTemplate.opsForSet().add(key, values);
+            return timed("sadd", key, () -> ops(key).opsForSet().add(key, values));
         } catch (Exception e) {
             log.error("redis set add value error", e);
             return 0L;
@@ -506,13 +1168,13 @@ public class RedisService {
      */
     public <T> Long sAddAndTime(String key, Long time, T... values) {
         try {
-            Long count = redisTemplate.opsForSet().add(key, values);
-            if (time > 0) {
-                redisKeyUtil.expire(key, time, TimeUnit.SECONDS);
+            if (time == null || time <= 0) {
+                return timed("sadd", key, () -> ops(key).opsForSet().add(key, values));
             }
-            return count;
+            Object count = timed("sadd", key, () -> writeWithTtl(key, time, TimeUnit.SECONDS, ops -> ops.opsForSet().add(key, values)));
+            return count instanceof Long ? (Long) count : 0L;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("redis set add value error", e);
             return 0L;
         }
     }
@@ -525,7 +1187,7 @@ public class RedisService {
      */
     public Long sGetSetSize(String key) {
         try {
-            return redisTemplate.opsForSet().size(key);
+            return timed("scard", key, () -> read(key, ops -> ops.opsForSet().size(key)));
         } catch (Exception e) {
             log.error("redis get set size error", e);
             return 0L;
@@ -541,7 +1203,7 @@ public class RedisService {
      */
     public <T> Long setRemove(String key, T... values) {
         try {
-            Long count = redisTemplate.opsForSet().remove(key, values);
+            Long count = timed("srem", key, () -> ops(key).opsForSet().remove(key, values));
             return count;
         } catch (Exception e) {
             log.error("redis set remove error", e);
@@ -560,8 +1222,7 @@ public class RedisService {
      */
     public <T> Set<T> zGet(String key, Long start, Long end) {
         try {
-            ZSetOperations<String, Object> zSetOperations = redisTemplate.opsForZSet();
-            return (Set<T>) zSetOperations.range(key, start, end);
+            return timed("zrange", key, () -> (Set<T>) read(key, ops -> ops.opsForZSet().range(key, start, end)));
         } catch (Exception e) {
             log.error("redis zset get all error", e);
             return null;
@@ -577,9 +1238,7 @@ public class RedisService {
      */
     public <T> Set<T> zGetByScore(String key, double min, double max) {
         try {
-            ZSetOperations<String, Object> zSetOperations = redisTemplate.opsForZSet();
-
-            return (Set<T>) zSetOperations.rangeByScore(key, min, max);
+            return timed("zrangebyscore", key, () -> (Set<T>) read(key, ops -> ops.opsForZSet().rangeByScore(key, min, max)));
         } catch (Exception e) {
             log.error("redis zset get all error", e);
             return null;
@@ -597,9 +1256,7 @@ public class RedisService {
      */
     public <T> Set<T> zGetByScore(String key, double min, double max, Long offset, Long count) {
         try {
-            ZSetOperations<String, Object> zSetOperations = redisTemplate.opsForZSet();
-
-            return (Set<T>) zSetOperations.rangeByScore(key, min, max, offset, count);
+            return timed("zrangebyscore", key, () -> (Set<T>) read(key, ops -> ops.opsForZSet().rangeByScore(key, min, max, offset, count)));
         } catch (Exception e) {
             log.error("redis zset get all error", e);
             return null;
@@ -635,7 +1292,7 @@ public class RedisService {
      */
     public <T> boolean zAdd(String key, T value, double score) {
         try {
-            return redisTemplate.opsForZSet().add(key, value, score);
+            return timed("zadd", key, () -> ops(key).opsForZSet().add(key, value, score));
         } catch (Exception e) {
             log.error("redis set add value error", e);
             return false;
@@ -659,7 +1316,7 @@ public class RedisService {
             tupleSet.add(tuple);
         }
 
-        return redisTemplate.opsForZSet().add(key, tupleSet);
+        return timed("zadd", key, () -> ops(key).opsForZSet().add(key, tupleSet));
     }
 
     /**
@@ -670,7 +1327,7 @@ public class RedisService {
      */
     public Long zSize(String key) {
         try {
-            return redisTemplate.opsForZSet().size(key);
+            return timed("zcard", key, () -> read(key, ops -> ops.opsForZSet().size(key)));
         } catch (Exception e) {
             log.error("redis get zset size error", e);
             return 0L;
@@ -687,7 +1344,7 @@ public class RedisService {
      */
     public Long zCount(String key, double min, double max) {
         try {
-            return redisTemplate.opsForZSet().count(key, min, max);
+            return timed("zcount", key, () -> read(key, ops -> ops.opsForZSet().count(key, min, max)));
         } catch (Exception e) {
             log.error("redis get zset count error", e);
             return 0L;
@@ -703,7 +1360,7 @@ public class RedisService {
      */
     public <T> Long zRemove(String key, T... values) {
         try {
-            Long count = redisTemplate.opsForZSet().remove(key, values);
+            Long count = timed("zrem", key, () -> ops(key).opsForZSet().remove(key, values));
             return count;
         } catch (Exception e) {
             log.error("redis zset remove error", e);
@@ -721,7 +1378,7 @@ public class RedisService {
      */
     public Long zRemoveByRange(String key, Long start, Long end) {
         try {
-            Long count = redisTemplate.opsForZSet().removeRange(key, start, end);
+            Long count = timed("zremrangebyrank", key, () -> ops(key).opsForZSet().removeRange(key, start, end));
             return count;
         } catch (Exception e) {
             log.error("redis zset remove error", e);
@@ -739,7 +1396,7 @@ public class RedisService {
      */
     public Long zRemoveByScore(String key, double min, double max) {
         try {
-            Long count = redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+            Long count = timed("zremrangebyscore", key, () -> ops(key).opsForZSet().removeRangeByScore(key, min, max));
             return count;
         } catch (Exception e) {
             log.error("redis zset remove error", e);
@@ -758,7 +1415,7 @@ public class RedisService {
      */
     public <T> double zincrScore(String key, T value, double delta) {
         try {
-            return redisTemplate.opsForZSet().incrementScore(key, value, delta);
+            return timed("zincrby", key, () -> ops(key).opsForZSet().incrementScore(key, value, delta));
         } catch (Exception e) {
             log.error("redis zset inc error", e);
             return 0;
@@ -775,7 +1432,7 @@ public class RedisService {
      */
     public <T> double zdecrScore(String key, T value, double delta) {
         try {
-            return redisTemplate.opsForZSet().incrementScore(key, value, -delta);
+            return timed("zincrby", key, () -> ops(key).opsForZSet().incrementScore(key, value, -delta));
         } catch (Exception e) {
             log.error("redis zset inc error", e);
             return 0;
@@ -794,8 +1451,7 @@ public class RedisService {
      */
     public <T> List<T> lGet(String key, Long start, Long end) {
         try {
-            ListOperations<String, Object> listOperations = redisTemplate.opsForList();
-            return (List<T>) listOperations.range(key, start, end);
+            return timed("lrange", key, () -> (List<T>) read(key, ops -> ops.opsForList().range(key, start, end)));
         } catch (Exception e) {
             log.error("redis list get range error", e);
             return null;
@@ -810,7 +1466,7 @@ public class RedisService {
      */
     public <T> T lLeftPop(String key) {
         try {
-            return (T) redisTemplate.opsForList().leftPop(key);
+            return timed("lpop", key, () -> (T) ops(key).opsForList().leftPop(key));
         } catch (Exception e) {
             log.error("redis list left pop error", e);
             return null;
@@ -825,7 +1481,7 @@ public class RedisService {
      */
     public <T> T lRightPop(String key) {
         try {
-            return (T) redisTemplate.opsForList().rightPop(key);
+            return timed("rpop", key, () -> (T) ops(key).opsForList().rightPop(key));
         } catch (Exception e) {
             log.error("redis list right pop error", e);
             return null;
@@ -840,7 +1496,7 @@ public class RedisService {
      */
     public Long lGetSize(String key) {
         try {
-            return redisTemplate.opsForList().size(key);
+            return timed("llen", key, () -> read(key, ops -> ops.opsForList().size(key)));
         } catch (Exception e) {
             log.error("redis get list size error", e);
             return 0L;
@@ -856,7 +1512,7 @@ public class RedisService {
      */
     public <T> T lGetIndex(String key, Long index) {
         try {
-            return (T) redisTemplate.opsForList().index(key, index);
+            return timed("lindex", key, () -> (T) read(key, ops -> ops.opsForList().index(key, index)));
         } catch (Exception e) {
             log.error("redis get list index error", e);
             return null;
@@ -872,7 +1528,7 @@ public class RedisService {
      */
     public <T> boolean lLeftPush(String key, T... value) {
         try {
-            redisTemplate.opsForList().leftPush(key, value);
+            timed("lpush", key, () -> ops(key).opsForList().leftPush(key, value));
             return true;
         } catch (Exception e) {
             log.error("redis  list left push error", e);
@@ -892,7 +1548,7 @@ public class RedisService {
             if (CollectionUtils.isEmpty(values)) {
                 throw new IllegalArgumentException("value is null");
             }
-            redisTemplate.opsForList().leftPushAll(key, values.toArray());
+            timed("lpush", key, () -> ops(key).opsForList().leftPushAll(key, values.toArray()));
             return true;
         } catch (Exception e) {
             log.error("redis  list left push error", e);
@@ -909,7 +1565,7 @@ public class RedisService {
      */
     public <T> boolean lRightPush(String key, T... value) {
         try {
-            redisTemplate.opsForList().rightPush(key, value);
+            timed("rpush", key, () -> ops(key).opsForList().rightPush(key, value));
             return true;
         } catch (Exception e) {
             log.error("redis list right push error", e);
@@ -929,7 +1585,7 @@ public class RedisService {
             if (CollectionUtils.isEmpty(values)) {
                 throw new IllegalArgumentException("values is null");
             }
-            redisTemplate.opsForList().rightPushAll(key, values.toArray());
+            timed("rpush", key, () -> ops(key).opsForList().rightPushAll(key, values.toArray()));
             return true;
         } catch (Exception e) {
             log.error("redis list right push error", e);
@@ -947,7 +1603,7 @@ public class RedisService {
      */
     public <T> boolean lUpdateIndex(String key, Long index, T value) {
         try {
-            redisTemplate.opsForList().set(key, index, value);
+            timedRun("lset", key, () -> ops(key).opsForList().set(key, index, value));
             return true;
         } catch (Exception e) {
             log.error("redis list update value error", e);
@@ -956,7 +1612,7 @@ public class RedisService {
     }
 
     public Long bitCount(String key) {
-        return redisTemplate.execute((RedisCallback<Long>) con -> con.bitCount(key.getBytes()));
+        return timed("bitcount", key, () -> ops(key).execute((RedisCallback<Long>) con -> con.bitCount(key.getBytes())));
     }
 
     /**
@@ -965,9 +1621,9 @@ public class RedisService {
      * @param key
      */
     public void remove(final String key) {
-        if (exists(key)) {
-            redisTemplate.delete(key);
-        }
+        // 不先判断 exists：exists 可能读到落后的副本，DEL 不存在的key没有副作用
+        timed("del", key, () -> ops(key).delete(key));
+        invalidateNear(key);
     }
 
     /**
@@ -976,7 +1632,20 @@ public class RedisService {
      * @param collection
      */
     public void remove(final Collection collection) {
-        redisTemplate.delete(collection);
+        if (slotExecutor != null) {
+            List<String> keys = new ArrayList<>(collection.size());
+            for (Object key : collection) {
+                keys.add(String.valueOf(key));
+            }
+            timed("del", null, () -> slotExecutor.delete(keys));
+        } else {
+            timed("del", null, () -> redisTemplate.delete(collection));
+        }
+        List<String> keys = new ArrayList<>(collection.size());
+        for (Object key : collection) {
+            keys.add(String.valueOf(key));
+        }
+        invalidateNear(keys);
     }
 
     /**
@@ -986,49 +1655,273 @@ public class RedisService {
      * @return
      */
     public boolean exists(final String key) {
-        return redisTemplate.hasKey(key);
+        return timed("exists", key, () -> read(key, ops -> ops.hasKey(key)));
     }
 
     /**
      * redis 发布
      *
      * @param channel channel key
-     * @param message message
+     * @param message message 使用值序列化器编码，订阅方需用同一序列化器解码
      */
     public void publish(String channel, Object message) {
-        redisTemplate.convertAndSend(channel, parseStrValue(message));
+        timed("publish", channel, () -> redisTemplate.convertAndSend(channel, message));
     }
 
-    private String parseStrValue(Object value) {
-        if (null == value) {
-            return StringUtils.EMPTY;
-        }
-        if (value instanceof String) {
-            return (String) value;
+    /**
+     * 执行一条命令：设置key上下文供序列化器按前缀统计，有指标时记录耗时和失败
+     *
+     * @param op     操作名，作为指标的 op 标签
+     * @param key    键 批量操作为null
+     * @param action 操作
+     * @return 操作结果
+     */
+    private <T> T timed(String op, String key, Supplier<T> action) {
+        String previous = RedisKeyContext.swap(key);
+        RedisMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            T result = action.get();
+            if (metrics != null) {
+                metrics.record(op, key, start, null);
+                recordShard(key, start);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (metrics != null) {
+                metrics.record(op, key, start, e);
+            }
+            throw e;
+        } finally {
+            RedisKeyContext.restore(previous);
         }
+    }
 
-        return JSONUtil.toJsonStr(value);
+    private void timedRun(String op, String key, Runnable action) {
+        String previous = RedisKeyContext.swap(key);
+        RedisMetrics metrics = this.metrics;
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            action.run();
+            if (metrics != null) {
+                metrics.record(op, key, start, null);
+                recordShard(key, start);
+            }
+        } catch (RuntimeException e) {
+            if (metrics != null) {
+                metrics.record(op, key, start, e);
+            }
+            throw e;
+        } finally {
+            RedisKeyContext.restore(previous);
+        }
     }
 
-    private String[] parseStrValues(Object... values) {
-        String[] arrs = new String[values.length];
-        for (int i = 0; i < values.length; i++) {
-            arrs[i] = parseStrValue(values[i]);
+    /**
+     * 单key命令所在分片的耗时，批量命令由 {@link ClusterSlotExecutor} 按分片记录
+     */
+    private void recordShard(String key, long start) {
+        if (shardRouter != null && key != null) {
+            shardRouter.record(key, System.nanoTime() - start);
         }
+    }
+
+    /**
+     * key 所在实例的模板，未分片时为 redisTemplate
+     */
+    private RedisTemplate<String, Object> ops(String key) {
+        return shardRouter == null ? redisTemplate : shardRouter.route(key).getRedisTemplate();
+    }
 
-        return arrs;
+    /**
+     * 执行读命令：分片时发往key所在实例，否则交给读路由(副本读/对冲读)，未开启读路由时发往主节点
+     *
+     * @param key 键 为null时表示多key读取，仅在未分片时使用
+     */
+    private <T> T read(String key, Function<RedisOperations<String, Object>, T> command) {
+        if (shardRouter != null) {
+            return command.apply(ops(key));
+        }
+        return readRouter == null ? command.apply(redisTemplate) : readRouter.read(command);
     }
 
+    private StringRedisTemplate stringOps(String key) {
+        return shardRouter == null ? stringRedisTemplate : shardRouter.route(key).getStringRedisTemplate();
+    }
 
-    private Map<String, String> mapCovert(Map<String, Object> map) {
-        if (map == null || map.isEmpty()) {
-            return new HashMap<>();
+    /**
+     * 写入并设置过期时间，两条命令放在同一个 MULTI/EXEC 中一次发送，不会出现写入成功而过期时间丢失的key
+     * <p>
+     * 集群连接不支持 MULTI，此时两条命令在同一个 pipeline 中按顺序发送(同一个key，发往同一节点)
+     *
+     * @param write 写操作，只能执行一条命令
+     * @return 写操作的结果
+     */
+    private Object writeWithTtl(String key, Long time, TimeUnit timeUnit, Consumer<RedisOperations<String, Object>> write) {
+        if (time == null || time <= 0) {
+            write.accept(ops(key));
+            return null;
         }
-        Map<String, String> result = new HashMap<>(map.size());
+        boolean transactional = transactional();
+        List<Object> results = ops(key).executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                if (transactional) {
+                    ops.multi();
+                }
+                write.accept(ops);
+                ops.expire(key, time, timeUnit);
+                if (transactional) {
+                    ops.exec();
+                }
+                return null;
+            }
+        });
+        return firstTxResult(results);
+    }
+
+    /**
+     * 是否可以使用 MULTI/EXEC，集群模式下不可用
+     */
+    private boolean transactional() {
+        return slotExecutor == null || !slotExecutor.isCluster();
+    }
+
+    /**
+     * 写入hash字段并只对这些字段设置过期时间(HPEXPIRE)，同样在一个 MULTI/EXEC 中发送，集群模式下改为普通 pipeline
+     */
+    private void hashWriteWithFieldTtl(String key, Map<String, Object> map, Long time, TimeUnit timeUnit) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<String> hashKeySerializer = (RedisSerializer<String>) redisTemplate.getHashKeySerializer();
+        RedisSerializer<Object> hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        byte[] rawKey = keySerializer.serialize(key);
+        Map<byte[], byte[]> rawMap = new LinkedHashMap<>(map.size() * 2);
+        // HPEXPIRE key milliseconds FIELDS numfields field [field ...]
+        byte[][] args = new byte[4 + map.size()][];
+        args[0] = rawKey;
+        args[1] = String.valueOf(timeUnit.toMillis(time)).getBytes(StandardCharsets.UTF_8);
+        args[2] = "FIELDS".getBytes(StandardCharsets.UTF_8);
+        args[3] = String.valueOf(map.size()).getBytes(StandardCharsets.UTF_8);
+        int i = 4;
         for (Map.Entry<String, Object> entry : map.entrySet()) {
-            result.put(entry.getKey(), parseStrValue(entry.getValue()));
+            byte[] rawItem = hashKeySerializer.serialize(entry.getKey());
+            rawMap.put(rawItem, hashValueSerializer.serialize(entry.getValue()));
+            args[i++] = rawItem;
+        }
+        boolean transactional = transactional();
+        ops(key).executePipelined((RedisCallback<Object>) connection -> {
+            if (transactional) {
+                connection.multi();
+            }
+            connection.hashCommands().hMSet(rawKey, rawMap);
+            connection.execute("HPEXPIRE", args);
+            if (transactional) {
+                connection.exec();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * pipeline 中 MULTI/EXEC 的结果可能整体作为一个列表返回，也可能逐条展开，取第一条命令的结果
+     */
+    private static Object firstTxResult(List<Object> results) {
+        if (results == null || results.isEmpty()) {
+            return null;
+        }
+        Object first = results.get(0);
+        if (results.size() == 1 && first instanceof List) {
+            List<?> txResults = (List<?>) first;
+            return txResults.isEmpty() ? null : txResults.get(0);
+        }
+        return first;
+    }
+
+    private RedisScriptRegistry scriptRegistry() {
+        RedisScriptRegistry registry = scriptRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                if (scriptRegistry == null) {
+                    registry = new RedisScriptRegistry(redisTemplate);
+                    try {
+                        registry.load(Collections.singletonList(RedisScriptRegistry.DEFAULT_LOCATION));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    scriptRegistry = registry;
+                }
+                registry = scriptRegistry;
+            }
+        }
+        return registry;
+    }
+
+    private <R> List<R> perSlot(List<String> keys, Function<List<Integer>, List<R>> call) {
+        if (slotExecutor != null) {
+            return slotExecutor.perSlot(keys, call);
+        }
+        List<Integer> indices = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            indices.add(i);
+        }
+        List<R> result = call.apply(indices);
+        return result == null ? new ArrayList<>() : new ArrayList<>(result);
+    }
+
+    private static List<String> select(List<String> values, List<Integer> indices) {
+        List<String> selected = new ArrayList<>(indices.size());
+        for (Integer index : indices) {
+            selected.add(values.get(index));
+        }
+        return selected;
+    }
+
+    /**
+     * 写操作后失效本地缓存，并通知其他节点
+     *
+     * @param key 键
+     */
+    private void invalidateNear(String key) {
+        if (hotKeyDetector != null && key != null) {
+            hotKeyDetector.invalidate(key);
+        }
+        if (nearCache == null || key == null || !nearCache.isCached(key)) {
+            return;
+        }
+        nearCache.invalidate(key);
+        try {
+            publish(nearCache.getChannel(), nearCache.invalidationMessage(key));
+        } catch (Exception e) {
+            log.error("redis near cache invalidation publish error", e);
+        }
+    }
+
+    /**
+     * 批量失效，其他节点的失效通知每 {@value #INVALIDATION_BATCH_SIZE} 个key合并为一条消息
+     */
+    private void invalidateNear(Collection<String> keys) {
+        if (hotKeyDetector != null) {
+            keys.forEach(hotKeyDetector::invalidate);
+        }
+        if (nearCache == null) {
+            return;
+        }
+        List<String> cached = new ArrayList<>();
+        for (String key : keys) {
+            if (key != null && nearCache.isCached(key)) {
+                nearCache.invalidate(key);
+                cached.add(key);
+            }
+        }
+        for (int from = 0; from < cached.size(); from += INVALIDATION_BATCH_SIZE) {
+            List<String> batch = cached.subList(from, Math.min(from + INVALIDATION_BATCH_SIZE, cached.size()));
+            try {
+                publish(nearCache.getChannel(), nearCache.invalidationMessage(batch));
+            } catch (Exception e) {
+                log.error("redis near cache invalidation publish error", e);
+            }
         }
-        return result;
     }
 
     /**
@@ -1036,124 +1929,158 @@ public class RedisService {
      *
      * @param pattern 字符串前缀
      * @return 对象列表
+     * @deprecated 原先使用会阻塞 Redis 的 KEYS，现改为 SCAN；key较多时改用 {@link RedisKeyUtil#scan(String, long)} 流式处理
      */
+    @Deprecated
     public Collection<String> keys(final String pattern) {
-        return redisTemplate.keys(pattern);
+        return scanKeys(pattern);
     }
 
+    /**
+     * 批量 HGET
+     *
+     * @param params key1, field1, key2, field2 ...
+     * @return 与 key/field 一一对应的值，不存在时为null
+     */
     public List<String> multiLuaHget(List<String> params) {
-        String luaScript =
-                "local results = {}  " +
-                        "local i = 1  " +
-                        "while i < #KEYS do  " +
-                        "  local key = KEYS[i]  " +
-                        "  local field = KEYS[i+1]  " +
-                        "  local value = redis.call('hget', key, field)  " +
-                        "  if value then " +
-                        "    table.insert(results, value) " +
-                        "  end  " +
-                        "  i = i + 2  " +
-                        "end  " +
-                        "return results";
-        DefaultRedisScript<List> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(List.class);
-        // 调用RedisTemplate的执行方法
         try {
-            List execute = stringRedisTemplate.execute(script, params);
-            return execute;
+            List<String> keys = new ArrayList<>(params.size() / 2);
+            List<String> fields = new ArrayList<>(params.size() / 2);
+            for (int i = 0; i + 1 < params.size(); i += 2) {
+                keys.add(params.get(i));
+                fields.add(params.get(i + 1));
+            }
+            // 集群下同一脚本的key必须位于同一 slot，按 slot 拆分后并行执行
+            return timed("lua:multi-hget", null, () -> perSlot(keys, indices -> scriptRegistry().execute(stringOps(keys.get(indices.get(0))),
+                    "multi-hget", select(keys, indices), select(fields, indices).toArray())));
         } catch (Exception e) {
             log.error("redis hash multi hget value error", e);
             return null;
         }
     }
 
+    /**
+     * 批量 HSET
+     *
+     * @param params key1, field1, value1, key2, field2, value2 ...
+     * @return 写入的数量
+     */
     public Long multiLuaHset(List<String> params) {
-        String luaScript =
-                "local i = 1  " +
-                        "while i < #KEYS do  " +
-                        "    local key = KEYS[i]  " +
-                        "    local field = KEYS[i+1]  " +
-                        "    local value = KEYS[i+2]  " +
-                        "    redis.call('hset', key, field, value)  " +
-                        "    i = i + 3  " +
-                        "end  " +
-                        "return #KEYS / 3";
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(Long.class);
-        // 调用RedisTemplate的执行方法
         try {
-            Long execute = redisTemplate.execute(script, params);
-            return execute;
+            List<String> keys = new ArrayList<>(params.size() / 3);
+            List<String> fieldValues = new ArrayList<>(params.size() / 3 * 2);
+            for (int i = 0; i + 2 < params.size(); i += 3) {
+                keys.add(params.get(i));
+                fieldValues.add(params.get(i + 1));
+                fieldValues.add(params.get(i + 2));
+            }
+            LongAdder written = new LongAdder();
+            timed("lua:multi-hset", null, () -> perSlot(keys, indices -> {
+                List<Object> args = new ArrayList<>(indices.size() * 2);
+                for (Integer index : indices) {
+                    args.add(fieldValues.get(index * 2));
+                    args.add(fieldValues.get(index * 2 + 1));
+                }
+                Long count = scriptRegistry().execute(stringOps(keys.get(indices.get(0))), "multi-hset", select(keys, indices), args.toArray());
+                written.add(count == null ? 0L : count);
+                return null;
+            }));
+            return written.sum();
         } catch (Exception e) {
             log.error("redis hash multi hset value error", e);
             return null;
         }
     }
 
+    /**
+     * 批量 HGET，值按字符串读取
+     *
+     * @param params key1, field1, key2, field2 ...
+     * @return 与 key/field 一一对应的值，不存在时为null
+     * @deprecated 改用 {@link #pipelined(Consumer)}
+     */
+    @Deprecated
     public List<Object> batchQueryHashValues(List<String> params) {
-        try {
-            List<Object> datas = redisTemplate.executePipelined(new RedisCallback<Object>() {
-                @Override
-                public Object doInRedis(RedisConnection connection) throws DataAccessException {
-                    for (int i = 0; i < params.size(); i = i + 2) {
-                        connection.hGet(params.get(i).getBytes(StandardCharsets.UTF_8), params.get(i + 1).getBytes(StandardCharsets.UTF_8));
-                    }
-                    // 这里必须返回null，在 connection.closePipeline() 时覆盖原来的返回值，所以返回值没有必要设置，设置会报错
-                    return null;
-                }
-            }, redisTemplate.getStringSerializer());
-            return datas;
-        } catch (Exception e) {
-            log.error("batch query hash values error");
-            return null;
+        List<String> keys = new ArrayList<>(params.size() / 2);
+        List<String> fields = new ArrayList<>(params.size() / 2);
+        for (int i = 0; i + 1 < params.size(); i += 2) {
+            keys.add(params.get(i));
+            fields.add(params.get(i + 1));
         }
+        if (slotExecutor != null) {
+            return slotExecutor.hashGet(keys, fields, redisTemplate.getStringSerializer());
+        }
+        return redisTemplate.executePipelined(new RedisCallback<Object>() {
+            @Override
+            public Object doInRedis(RedisConnection connection) throws DataAccessException {
+                for (int i = 0; i < keys.size(); i++) {
+                    connection.hashCommands().hGet(keys.get(i).getBytes(StandardCharsets.UTF_8), fields.get(i).getBytes(StandardCharsets.UTF_8));
+                }
+                // 这里必须返回null，在 connection.closePipeline() 时覆盖原来的返回值，所以返回值没有必要设置，设置会报错
+                return null;
+            }
+        }, redisTemplate.getStringSerializer());
     }
 
+    /**
+     * 在一个事务中批量 HSET，值按字符串写入
+     * <p>
+     * 客户端分片时每个分片一个事务，分片之间不保证原子性。
+     *
+     * @param params key1, field1, value1, key2, field2, value2 ...
+     * @return pipeline 结果
+     * @deprecated 改用 {@link #pipelined(Consumer)}
+     */
+    @Deprecated
     public List<Object> batchInsertHashValues(List<String> params) {
-        try {
-            List<Object> datas = redisTemplate.executePipelined(new RedisCallback<Object>() {
-                @Override
-                public Object doInRedis(RedisConnection connection) throws DataAccessException {
-                    // 开始事务
-                    connection.multi();
-                    for (int i = 0; i < params.size(); i = i + 3) {
-                        connection.hSet(params.get(i).getBytes(StandardCharsets.UTF_8), params.get(i + 1).getBytes(StandardCharsets.UTF_8), params.get(i + 2).getBytes(StandardCharsets.UTF_8));
-                    }
-                    // 提交事务
-                    connection.exec();
-                    // 这里必须返回null，在 connection.closePipeline() 时覆盖原来的返回值，所以返回值没有必要设置，设置会报错
-                    return null;
-                }
-            });
-            return datas;
-        } catch (Exception e) {
-            log.error("batch insert hash values error");
-            return null;
+        if (shardRouter == null) {
+            return insertHashValues(redisTemplate, params);
         }
+        List<String> keys = new ArrayList<>(params.size() / 3);
+        for (int i = 0; i + 2 < params.size(); i += 3) {
+            keys.add(params.get(i));
+        }
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<RedisShard, List<Integer>> entry : shardRouter.group(keys).entrySet()) {
+            List<String> shardParams = new ArrayList<>(entry.getValue().size() * 3);
+            for (Integer index : entry.getValue()) {
+                shardParams.addAll(params.subList(index * 3, index * 3 + 3));
+            }
+            results.addAll(insertHashValues(entry.getKey().getRedisTemplate(), shardParams));
+        }
+        return results;
+    }
+
+    private static List<Object> insertHashValues(RedisTemplate<String, Object> template, List<String> params) {
+        return template.executePipelined(new RedisCallback<Object>() {
+            @Override
+            public Object doInRedis(RedisConnection connection) throws DataAccessException {
+                // 开始事务
+                connection.multi();
+                for (int i = 0; i + 2 < params.size(); i = i + 3) {
+                    connection.hashCommands().hSet(params.get(i).getBytes(StandardCharsets.UTF_8), params.get(i + 1).getBytes(StandardCharsets.UTF_8), params.get(i + 2).getBytes(StandardCharsets.UTF_8));
+                }
+                // 提交事务
+                connection.exec();
+                // 这里必须返回null，在 connection.closePipeline() 时覆盖原来的返回值，所以返回值没有必要设置，设置会报错
+                return null;
+            }
+        });
     }
 
 
+    /**
+     * 以 SCAN 获取全部匹配的key
+     *
+     * @param pattern 匹配模式
+     * @return key集合
+     * @deprecated 全部key会一次性放入内存，key较多时改用 {@link RedisKeyUtil#scan(String, long)} 流式处理
+     */
+    @Deprecated
     public Set<String> scanKeys(String pattern) {
-        Set<String> keysFound = new HashSet<>();
-        //
-        Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(
-                redisConnection -> redisConnection.scan(
-                        ScanOptions
-                                .scanOptions().match(pattern)
-                                // count 可以限制匹配到的key数量 不设置默认匹配所以
-                                //.count(1000)
-                                .build()));
-        while (cursor.hasNext()) {
-            keysFound.add(new String(cursor.next()));
-        }
-        try {
-            cursor.close();
-        } catch (Exception e) {
-            // Handle exception if necessary
+        try (Stream<String> keys = redisKeyUtil.scan(pattern, RedisKeyUtil.DEFAULT_SCAN_COUNT)) {
+            return keys.collect(Collectors.toSet());
         }
-        return keysFound;
     }
 
 }
@@ -0,0 +1,71 @@
+package com.xujie.future.redis.shard;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 带虚拟节点的一致性哈希环
+ * <p>
+ * 每个节点按 "节点名#序号" 在环上放置 virtualNodes 个位置，key 顺时针落到第一个位置所属的节点。
+ * 增减一个节点时只有约 1/N 的key改变归属；虚拟节点越多，各节点分到的key越均匀。
+ * 环在构造后不可变，查找无锁。
+ *
+ * @author Xujie
+ * @since 2025/5/13 10:10
+ **/
+public class ConsistentHashRing<T> {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    private final List<T> nodes;
+
+    /**
+     * @param nodes        节点
+     * @param nameFunction 节点名，决定节点在环上的位置，节点顺序变化不影响key的归属
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHashRing(List<T> nodes, Function<T, String> nameFunction, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("consistent hash ring requires at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        for (T node : nodes) {
+            String name = nameFunction.apply(node);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * key 所属的节点
+     */
+    public T get(String key) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<T> getNodes() {
+        return nodes;
+    }
+
+    private static long hash(String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
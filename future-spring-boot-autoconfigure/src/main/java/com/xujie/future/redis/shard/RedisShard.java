@@ -0,0 +1,83 @@
+package com.xujie.future.redis.shard;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个分片：一个独立的 Redis 实例及其模板
+ *
+ * @author Xujie
+ * @since 2025/5/13 10:30
+ **/
+public class RedisShard {
+
+    private final String name;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final LongAdder routedKeys = new LongAdder();
+
+    /**
+     * 命令耗时，没有 MeterRegistry 时为null
+     */
+    private volatile Timer latency;
+
+    /**
+     * @param name                分片名，决定分片在哈希环上的位置，更换地址时保持不变即可保持key的归属
+     * @param redisTemplate       该实例的 redisTemplate，序列化方式需与主 redisTemplate 一致
+     * @param stringRedisTemplate 该实例的 stringRedisTemplate
+     */
+    public RedisShard(String name, RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RedisTemplate<String, Object> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    public StringRedisTemplate getStringRedisTemplate() {
+        return stringRedisTemplate;
+    }
+
+    /**
+     * 路由到该分片的key次数，批量操作按key计
+     */
+    public long getRoutedKeys() {
+        return routedKeys.sum();
+    }
+
+    void routed(int keys) {
+        routedKeys.add(keys);
+    }
+
+    void setLatency(Timer latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * 记录一次发往该分片的命令或 pipeline 的耗时
+     */
+    public void record(long nanos) {
+        Timer timer = latency;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RedisShard(" + name + ")";
+    }
+}
@@ -0,0 +1,136 @@
+package com.xujie.future.redis.shard;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 客户端分片路由
+ * <p>
+ * 多个独立的 Redis 实例组成一致性哈希环，每个key路由到一个实例。key 含 hash tag({...})时只按 tag 内容路由，
+ * 与 Redis Cluster 的规则一致，需要在同一实例上执行的多key操作(Lua 脚本、MULTI)应使用相同的 hash tag。
+ * <p>
+ * 指标：future.redis.shard.keys 各分片路由的key次数，future.redis.shard.latency 各分片命令耗时，
+ * future.redis.shard.dbsize 各分片的key数量(DBSIZE)，用于发现分布倾斜。
+ *
+ * @author Xujie
+ * @since 2025/5/13 10:50
+ **/
+@Slf4j
+public class RedisShardRouter implements DisposableBean {
+
+    private final ConsistentHashRing<RedisShard> ring;
+
+    /**
+     * @param shards       分片
+     * @param virtualNodes 每个分片的虚拟节点数
+     */
+    public RedisShardRouter(List<RedisShard> shards, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(shards, RedisShard::getName, virtualNodes);
+    }
+
+    public List<RedisShard> getShards() {
+        return ring.getNodes();
+    }
+
+    /**
+     * key 所在的分片
+     */
+    public RedisShard route(String key) {
+        RedisShard shard = ring.get(routingKey(key));
+        shard.routed(1);
+        return shard;
+    }
+
+    /**
+     * 按分片分组
+     *
+     * @param keys 调用方的key
+     * @return 分片及其key在调用方列表中的下标
+     */
+    public Map<RedisShard, List<Integer>> group(List<String> keys) {
+        Map<RedisShard, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            groups.computeIfAbsent(ring.get(routingKey(keys.get(i))), k -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<RedisShard, List<Integer>> entry : groups.entrySet()) {
+            entry.getKey().routed(entry.getValue().size());
+        }
+        return groups;
+    }
+
+    /**
+     * 记录 key 所在分片的一次命令耗时
+     */
+    public void record(String key, long nanos) {
+        ring.get(routingKey(key)).record(nanos);
+    }
+
+    /**
+     * 注册各分片的指标
+     */
+    public void bindTo(MeterRegistry registry) {
+        for (RedisShard shard : getShards()) {
+            FunctionCounter.builder("future.redis.shard.keys", shard, RedisShard::getRoutedKeys)
+                    .tag("shard", shard.getName())
+                    .register(registry);
+            shard.setLatency(Timer.builder("future.redis.shard.latency")
+                    .tag("shard", shard.getName())
+                    .register(registry));
+            Gauge.builder("future.redis.shard.dbsize", shard, RedisShardRouter::dbSize)
+                    .tag("shard", shard.getName())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 关闭各分片的连接
+     */
+    @Override
+    public void destroy() {
+        for (RedisShard shard : getShards()) {
+            RedisConnectionFactory connectionFactory = shard.getRedisTemplate().getConnectionFactory();
+            if (connectionFactory instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) connectionFactory).destroy();
+                } catch (Exception e) {
+                    log.warn("redis shard {} connection close error", shard.getName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 与 Redis Cluster 相同：key 含非空的 {...} 时只取第一对花括号中的内容
+     */
+    static String routingKey(String key) {
+        int open = key.indexOf('{');
+        if (open < 0) {
+            return key;
+        }
+        int close = key.indexOf('}', open + 1);
+        if (close <= open + 1) {
+            return key;
+        }
+        return key.substring(open + 1, close);
+    }
+
+    private static double dbSize(RedisShard shard) {
+        try {
+            Long size = shard.getRedisTemplate().execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+            return size == null ? Double.NaN : size;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+}
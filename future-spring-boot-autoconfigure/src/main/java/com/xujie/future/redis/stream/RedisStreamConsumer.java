@@ -0,0 +1,447 @@
+package com.xujie.future.redis.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis Stream 消费组消费者
+ * <p>
+ * 读取线程以 XREADGROUP COUNT batchSize BLOCK 批量读取，整批交给处理线程池，处理成功后一次 XACK 整批确认；
+ * 同时处理中的批次不超过 concurrency，处理线程都忙时读取线程等待，不会无限堆积。
+ * 定时检查消费组中超过 claimMinIdle 未确认的消息(消费者宕机或处理失败)，XCLAIM 到本消费者重新处理，
+ * 投递次数达到 maxDeliveries 的消息转入死信 stream(原 stream + ":dlq") 后确认。
+ * <p>
+ * 消息至少投递一次，处理逻辑需要幂等。
+ *
+ * @author Xujie
+ * @since 2025/5/9 14:40
+ **/
+@Slf4j
+@SuppressWarnings("unchecked")
+public class RedisStreamConsumer<T> implements AutoCloseable {
+
+    /**
+     * 死信 stream 后缀
+     */
+    public static final String DEAD_LETTER_SUFFIX = ":dlq";
+
+    private static final byte[] ORIGIN_ID_FIELD = "origin-id".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisSerializer<Object> valueSerializer;
+
+    private final String stream;
+
+    private final byte[] rawStream;
+
+    private final byte[] rawDeadLetterStream;
+
+    private final String group;
+
+    private final Consumer consumer;
+
+    private final StreamBatchHandler<T> handler;
+
+    private final Executor executor;
+
+    private final Options options;
+
+    private final Semaphore inFlight;
+
+    private final ScheduledExecutorService claimScheduler;
+
+    private final LongAdder processedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder claimedCount = new LongAdder();
+
+    private final LongAdder deadLetterCount = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread reader;
+
+    /**
+     * @param redisTemplate redisTemplate，使用其key和值序列化器
+     * @param stream        stream key
+     * @param group         消费组，不存在时创建，从最新消息开始消费
+     * @param consumerName  消费者名称，同一消费组内唯一
+     * @param handler       批量处理逻辑
+     * @param executor      处理线程池，同时执行的批次受 concurrency 限制
+     * @param options       消费选项
+     */
+    public RedisStreamConsumer(RedisTemplate<String, Object> redisTemplate, String stream, String group, String consumerName,
+                               StreamBatchHandler<T> handler, Executor executor, Options options) {
+        this.redisTemplate = redisTemplate;
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        this.stream = stream;
+        this.rawStream = keySerializer.serialize(stream);
+        this.rawDeadLetterStream = keySerializer.serialize(stream + DEAD_LETTER_SUFFIX);
+        this.group = group;
+        this.consumer = Consumer.from(group, consumerName);
+        this.handler = handler;
+        this.executor = executor;
+        this.options = options;
+        this.inFlight = new Semaphore(options.concurrency);
+        this.claimScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-stream-claim-" + stream);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 创建消费组(已存在时忽略)并开始消费
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        createGroup();
+        running = true;
+        reader = new Thread(this::readLoop, "future-redis-stream-" + stream);
+        reader.setDaemon(true);
+        reader.start();
+        long claimMillis = options.claimInterval.toMillis();
+        claimScheduler.scheduleWithFixedDelay(this::claimQuietly, claimMillis, claimMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止读取，等待处理中的批次完成
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        claimScheduler.shutdownNow();
+        if (reader != null) {
+            reader.interrupt();
+        }
+        try {
+            // 拿到全部许可说明没有处理中的批次
+            if (inFlight.tryAcquire(options.concurrency, 30, TimeUnit.SECONDS)) {
+                inFlight.release(options.concurrency);
+            } else {
+                log.warn("redis stream {} consumer closed with batches still in flight", stream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * 处理成功并确认的消息数
+     */
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    /**
+     * 处理失败的消息数，失败的消息会在 claimMinIdle 后重新投递
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 从失效消费者认领的消息数
+     */
+    public long getClaimedCount() {
+        return claimedCount.sum();
+    }
+
+    public long getDeadLetterCount() {
+        return deadLetterCount.sum();
+    }
+
+    private void createGroup() {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawStream, group, ReadOffset.latest(), true));
+        } catch (RuntimeException e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    && !(e.getCause() != null && String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                throw e;
+            }
+        }
+    }
+
+    private void readLoop() {
+        StreamReadOptions readOptions = StreamReadOptions.empty().count(options.batchSize).block(options.block);
+        StreamOffset<byte[]> offset = StreamOffset.create(rawStream, ReadOffset.lastConsumed());
+        while (running) {
+            // 阻塞读取占用一个专用连接，出错后重新获取
+            try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+                while (running) {
+                    inFlight.acquire();
+                    List<ByteRecord> records;
+                    try {
+                        records = connection.streamCommands().xReadGroup(consumer, readOptions, offset);
+                    } catch (RuntimeException e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                    if (records == null || records.isEmpty()) {
+                        inFlight.release();
+                        continue;
+                    }
+                    dispatch(toMessages(records, null));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("redis stream {} read error", stream, e);
+                sleep(options.block);
+            }
+        }
+    }
+
+    /**
+     * 提交一个批次处理，调用前已获取 inFlight 许可
+     */
+    private void dispatch(List<StreamMessage<T>> messages) {
+        try {
+            executor.execute(() -> {
+                try {
+                    process(messages);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            failedCount.add(messages.size());
+            log.error("redis stream {} batch rejected, {} messages will be redelivered", stream, messages.size());
+        }
+    }
+
+    private void process(List<StreamMessage<T>> messages) {
+        try {
+            handler.handle(messages);
+        } catch (Exception e) {
+            failedCount.add(messages.size());
+            log.error("redis stream {} handle error, {} messages will be redelivered", stream, messages.size(), e);
+            return;
+        }
+        RecordId[] ids = new RecordId[messages.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = RecordId.of(messages.get(i).getId());
+        }
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands().xAck(rawStream, group, ids));
+            processedCount.add(ids.length);
+        } catch (RuntimeException e) {
+            // 未确认的消息会被重新投递
+            log.error("redis stream {} ack error", stream, e);
+        }
+    }
+
+    private void claimQuietly() {
+        try {
+            claim();
+        } catch (Exception e) {
+            log.error("redis stream {} claim error", stream, e);
+        }
+    }
+
+    /**
+     * 认领超时未确认的消息：投递次数达到上限的转入死信，其余交给本消费者处理
+     */
+    private void claim() throws InterruptedException {
+        PendingMessages pending = redisTemplate.execute((RedisCallback<PendingMessages>) connection ->
+                connection.streamCommands().xPending(rawStream, group, Range.unbounded(), (long) options.batchSize));
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        List<RecordId> stale = new ArrayList<>();
+        Map<String, Long> deliveries = new HashMap<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(options.claimMinIdle) >= 0) {
+                stale.add(message.getId());
+                deliveries.put(message.getIdAsString(), message.getTotalDeliveryCount());
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        RedisStreamCommands.XClaimOptions claimOptions = RedisStreamCommands.XClaimOptions.minIdle(options.claimMinIdle)
+                .ids(stale.toArray(new RecordId[0]));
+        List<ByteRecord> claimed = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xClaim(rawStream, group, consumer.getName(), claimOptions));
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+        claimedCount.add(claimed.size());
+        List<ByteRecord> retry = new ArrayList<>(claimed.size());
+        for (ByteRecord record : claimed) {
+            long count = deliveries.getOrDefault(record.getId().getValue(), 0L);
+            if (options.maxDeliveries > 0 && count >= options.maxDeliveries) {
+                deadLetter(record, count);
+            } else {
+                retry.add(record);
+            }
+        }
+        if (!retry.isEmpty()) {
+            inFlight.acquire();
+            dispatch(toMessages(retry, deliveries));
+        }
+    }
+
+    private void deadLetter(ByteRecord record, long deliveryCount) {
+        Map<byte[], byte[]> body = new HashMap<>(record.getValue());
+        body.put(ORIGIN_ID_FIELD, record.getId().getValue().getBytes(StandardCharsets.UTF_8));
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.streamCommands().xAdd(StreamRecords.newRecord().in(rawDeadLetterStream).ofMap(body),
+                    RedisStreamCommands.XAddOptions.none());
+            return connection.streamCommands().xAck(rawStream, group, record.getId());
+        });
+        deadLetterCount.increment();
+        log.warn("redis stream {} message {} moved to dead letter after {} deliveries", stream, record.getId().getValue(), deliveryCount);
+    }
+
+    private List<StreamMessage<T>> toMessages(List<ByteRecord> records, Map<String, Long> deliveries) {
+        List<StreamMessage<T>> messages = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            String id = record.getId().getValue();
+            long deliveryCount = deliveries == null ? 1 : deliveries.getOrDefault(id, 0L) + 1;
+            messages.add(new StreamMessage<>(id, (T) valueSerializer.deserialize(payload(record)), deliveryCount));
+        }
+        return messages;
+    }
+
+    /**
+     * byte[] 没有按内容比较的 equals，只能遍历查找
+     */
+    private static byte[] payload(ByteRecord record) {
+        for (Map.Entry<byte[], byte[]> entry : record.getValue().entrySet()) {
+            if (Arrays.equals(entry.getKey(), RedisStreamProducer.RAW_PAYLOAD_FIELD)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 消费选项
+     */
+    public static class Options {
+
+        private int batchSize = 100;
+
+        private Duration block = Duration.ofSeconds(2);
+
+        private int concurrency = 4;
+
+        private Duration claimMinIdle = Duration.ofMinutes(1);
+
+        private Duration claimInterval = Duration.ofSeconds(30);
+
+        private int maxDeliveries = 16;
+
+        /**
+         * 每次 XREADGROUP 读取的最大消息数，也是一个批次的大小
+         */
+        public Options batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * 没有新消息时 XREADGROUP 阻塞等待的时间
+         */
+        public Options block(Duration block) {
+            this.block = block;
+            return this;
+        }
+
+        /**
+         * 同时处理的批次数
+         */
+        public Options concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * 消息超过该时间未确认时被认领重新处理，应明显长于一个批次的处理时间
+         */
+        public Options claimMinIdle(Duration claimMinIdle) {
+            this.claimMinIdle = claimMinIdle;
+            return this;
+        }
+
+        /**
+         * 检查未确认消息的间隔
+         */
+        public Options claimInterval(Duration claimInterval) {
+            this.claimInterval = claimInterval;
+            return this;
+        }
+
+        /**
+         * 投递次数达到该值的消息转入死信，小于等于0时不转入
+         */
+        public Options maxDeliveries(int maxDeliveries) {
+            this.maxDeliveries = maxDeliveries;
+            return this;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+    }
+}
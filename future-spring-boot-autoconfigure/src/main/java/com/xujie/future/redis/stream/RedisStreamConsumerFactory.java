@@ -0,0 +1,111 @@
+package com.xujie.future.redis.stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建并管理 {@link RedisStreamConsumer}，容器关闭时停止所有消费者
+ * <p>
+ * 未指定处理线程池时每个消费者使用 concurrency 个线程的独立线程池，处理 IO 密集的业务时可以传入更大的线程池，
+ * 同时处理的批次数仍由 concurrency 限制。
+ *
+ * @author Xujie
+ * @since 2025/5/9 15:30
+ **/
+public class RedisStreamConsumerFactory implements DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisStreamConsumer.Options defaultOptions;
+
+    private final String consumerPrefix;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private final List<RedisStreamConsumer<?>> consumers = new CopyOnWriteArrayList<>();
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param redisTemplate  redisTemplate
+     * @param defaultOptions 默认消费选项
+     */
+    public RedisStreamConsumerFactory(RedisTemplate<String, Object> redisTemplate, RedisStreamConsumer.Options defaultOptions) {
+        this.redisTemplate = redisTemplate;
+        this.defaultOptions = defaultOptions;
+        // 同一消费组内消费者名称需唯一，重启后使用新名称，旧名称下未确认的消息由认领处理
+        this.consumerPrefix = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 使用默认选项创建并启动消费者
+     *
+     * @param stream  stream key
+     * @param group   消费组
+     * @param handler 批量处理逻辑
+     */
+    public <T> RedisStreamConsumer<T> create(String stream, String group, StreamBatchHandler<T> handler) {
+        return create(stream, group, handler, defaultOptions, null);
+    }
+
+    /**
+     * 创建并启动消费者
+     *
+     * @param stream   stream key
+     * @param group    消费组
+     * @param handler  批量处理逻辑
+     * @param options  消费选项
+     * @param executor 处理线程池 为null时创建 concurrency 个线程的线程池，随消费者关闭
+     */
+    public <T> RedisStreamConsumer<T> create(String stream, String group, StreamBatchHandler<T> handler,
+                                             RedisStreamConsumer.Options options, Executor executor) {
+        if (executor == null) {
+            ExecutorService created = newExecutor(stream, options.getConcurrency());
+            executors.add(created);
+            executor = created;
+        }
+        String consumerName = consumerPrefix + "-" + sequence.incrementAndGet();
+        RedisStreamConsumer<T> consumer = new RedisStreamConsumer<>(redisTemplate, stream, group, consumerName, handler, executor, options);
+        consumers.add(consumer);
+        consumer.start();
+        return consumer;
+    }
+
+    /**
+     * 已创建的消费者
+     */
+    public List<RedisStreamConsumer<?>> getConsumers() {
+        return consumers;
+    }
+
+    @Override
+    public void destroy() {
+        for (RedisStreamConsumer<?> consumer : consumers) {
+            consumer.close();
+        }
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newExecutor(String stream, int concurrency) {
+        AtomicInteger index = new AtomicInteger();
+        // 提交前已由 concurrency 个许可限流，队列不会堆积
+        return new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-stream-" + stream + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
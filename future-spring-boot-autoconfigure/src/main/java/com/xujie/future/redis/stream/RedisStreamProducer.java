@@ -0,0 +1,104 @@
+package com.xujie.future.redis.stream;
+
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis Stream 生产者
+ * <p>
+ * 消息体使用值序列化器编码后保存在 {@link #PAYLOAD_FIELD} 字段中；写入时按 MAXLEN ~ maxLen 近似裁剪，
+ * 只保留最近的消息，近似裁剪按整个节点删除，开销远小于精确裁剪。批量发送在一个 pipeline 中完成。
+ *
+ * @author Xujie
+ * @since 2025/5/9 14:00
+ **/
+@SuppressWarnings("unchecked")
+public class RedisStreamProducer {
+
+    /**
+     * 消息体字段名
+     */
+    public static final String PAYLOAD_FIELD = "payload";
+
+    static final byte[] RAW_PAYLOAD_FIELD = PAYLOAD_FIELD.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisStreamCommands.XAddOptions addOptions;
+
+    private final int chunkSize;
+
+    /**
+     * @param redisTemplate redisTemplate
+     * @param maxLen        每个 stream 保留的消息数量(近似)，小于等于0时不裁剪
+     * @param chunkSize     批量发送时每个 pipeline 的消息数
+     */
+    public RedisStreamProducer(RedisTemplate<String, Object> redisTemplate, long maxLen, int chunkSize) {
+        this.redisTemplate = redisTemplate;
+        this.addOptions = maxLen > 0
+                ? RedisStreamCommands.XAddOptions.maxlen(maxLen).approximateTrimming(true)
+                : RedisStreamCommands.XAddOptions.none();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 发送一条消息
+     *
+     * @param stream  stream key
+     * @param payload 消息体
+     * @return 消息ID
+     */
+    public String send(String stream, Object payload) {
+        MapRecord<byte[], byte[], byte[]> record = record(stream, payload);
+        RecordId id = redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(record, addOptions));
+        return id == null ? null : id.getValue();
+    }
+
+    /**
+     * 批量发送，每 chunkSize 条消息一个 pipeline
+     *
+     * @param stream   stream key
+     * @param payloads 消息体
+     * @return 与 payloads 顺序一致的消息ID
+     */
+    public List<String> sendAll(String stream, List<?> payloads) {
+        if (payloads.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>(payloads.size());
+        for (int from = 0; from < payloads.size(); from += chunkSize) {
+            List<?> chunk = payloads.subList(from, Math.min(from + chunkSize, payloads.size()));
+            List<MapRecord<byte[], byte[], byte[]>> records = new ArrayList<>(chunk.size());
+            for (Object payload : chunk) {
+                records.add(record(stream, payload));
+            }
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (MapRecord<byte[], byte[], byte[]> record : records) {
+                    connection.streamCommands().xAdd(record, addOptions);
+                }
+                return null;
+            }, null);
+            for (Object result : results) {
+                ids.add(result instanceof RecordId ? ((RecordId) result).getValue() : String.valueOf(result));
+            }
+        }
+        return ids;
+    }
+
+    private MapRecord<byte[], byte[], byte[]> record(String stream, Object payload) {
+        byte[] rawStream = ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(stream);
+        byte[] rawPayload = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(payload);
+        return StreamRecords.newRecord().in(rawStream).ofMap(Map.of(RAW_PAYLOAD_FIELD, rawPayload));
+    }
+}
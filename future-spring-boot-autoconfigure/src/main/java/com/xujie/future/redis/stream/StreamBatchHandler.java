@@ -0,0 +1,15 @@
+package com.xujie.future.redis.stream;
+
+import java.util.List;
+
+/**
+ * 批量处理 Stream 消息，正常返回后整批确认；抛出异常时整批不确认，超过 claimMinIdle 后重新投递
+ *
+ * @author Xujie
+ * @since 2025/5/9 14:25
+ **/
+@FunctionalInterface
+public interface StreamBatchHandler<T> {
+
+    void handle(List<StreamMessage<T>> messages) throws Exception;
+}
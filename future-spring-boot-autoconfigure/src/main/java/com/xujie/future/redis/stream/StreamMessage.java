@@ -0,0 +1,37 @@
+package com.xujie.future.redis.stream;
+
+/**
+ * Stream 中的一条消息
+ *
+ * @author Xujie
+ * @since 2025/5/9 14:20
+ **/
+public class StreamMessage<T> {
+
+    private final String id;
+
+    private final T payload;
+
+    private final long deliveryCount;
+
+    StreamMessage(String id, T payload, long deliveryCount) {
+        this.id = id;
+        this.payload = payload;
+        this.deliveryCount = deliveryCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public T getPayload() {
+        return payload;
+    }
+
+    /**
+     * 投递次数，首次投递为1，从失效消费者认领的消息大于1
+     */
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+}
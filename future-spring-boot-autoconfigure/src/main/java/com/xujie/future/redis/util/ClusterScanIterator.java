@@ -0,0 +1,154 @@
+package com.xujie.future.redis.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群并行 SCAN
+ * <p>
+ * 每个主节点一个线程执行 SCAN，结果放入有界队列，由调用方按需取出；调用方消费慢时扫描线程阻塞等待，
+ * 内存占用不超过队列容量。{@link #close()} 后扫描线程尽快退出并释放连接。
+ *
+ * @author Xujie
+ * @since 2025/4/29 10:30
+ **/
+@Slf4j
+class ClusterScanIterator implements Iterator<String>, AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final RedisSerializer<String> keySerializer;
+
+    private final ScanOptions options;
+
+    private final BlockingQueue<Object> queue;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private int running;
+
+    private volatile boolean closed;
+
+    private volatile RuntimeException failure;
+
+    private Object next;
+
+    ClusterScanIterator(RedisConnectionFactory connectionFactory, RedisSerializer<String> keySerializer,
+                        List<RedisClusterNode> masters, ScanOptions options, int bufferSize) {
+        this.connectionFactory = connectionFactory;
+        this.keySerializer = keySerializer;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.running = masters.size();
+        for (RedisClusterNode master : masters) {
+            Thread worker = new Thread(() -> scanNode(master), "future-redis-scan-" + master.asString());
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (running == 0 || closed) {
+                throwIfFailed();
+                return false;
+            }
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("redis scan interrupted", e);
+            }
+            if (item == END) {
+                running--;
+                throwIfFailed();
+            } else {
+                next = item;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String key = (String) next;
+        next = null;
+        return key;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        workers.forEach(Thread::interrupt);
+        queue.clear();
+    }
+
+    private void scanNode(RedisClusterNode node) {
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection();
+             Cursor<byte[]> cursor = connection.scan(node, options)) {
+            while (!closed && cursor.hasNext()) {
+                if (!offer(keySerializer.deserialize(cursor.next()))) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (!closed) {
+                log.error("redis scan node {} error", node.asString(), e);
+                failure = e;
+            }
+        } finally {
+            // 结束标记必须送达，否则消费方会一直等待
+            while (!closed) {
+                if (offer(END)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean offer(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void throwIfFailed() {
+        RuntimeException e = failure;
+        if (e != null) {
+            close();
+            throw e;
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package com.xujie.future.redis.util;
 
+import com.xujie.future.redis.cluster.ClusterSlotExecutor;
+import com.xujie.future.redis.hotkey.HotKeyDetector;
+import com.xujie.future.redis.local.NearCache;
+import com.xujie.future.redis.metrics.RedisMetrics;
+import com.xujie.future.redis.shard.RedisShardRouter;
+import com.google.common.util.concurrent.RateLimiter;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.CollectionUtils;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Redis Key 操作工具类
@@ -22,12 +38,85 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings(value = "unchecked")
 public class RedisKeyUtil {
 
+    /**
+     * keys/scanKeys 等一次性取全部key的方法使用的 COUNT
+     */
+    public static final long DEFAULT_SCAN_COUNT = 1000;
+
     private final RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 集群按 slot 分批执行，为null时直接使用 redisTemplate
+     */
+    private ClusterSlotExecutor slotExecutor;
+
+    /**
+     * 命令指标，为null时不记录
+     */
+    private RedisMetrics metrics;
+
+    /**
+     * 客户端分片，为null时不分片
+     */
+    private RedisShardRouter shardRouter;
+
+    /**
+     * 本地一级缓存，删除或修改过期时间后失效，为null时不处理
+     */
+    private NearCache nearCache;
+
+    /**
+     * 热点key本地副本，删除或修改过期时间后失效，为null时不处理
+     */
+    private HotKeyDetector hotKeyDetector;
+
     public RedisKeyUtil(RedisTemplate<String, Object> redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
 
+    /**
+     * 设置集群批量执行器
+     */
+    public void setSlotExecutor(ClusterSlotExecutor slotExecutor) {
+        this.slotExecutor = slotExecutor;
+    }
+
+    /**
+     * 设置命令指标
+     *
+     * @param metrics 指标 为null时不记录
+     */
+    public void setMetrics(RedisMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 设置客户端分片
+     *
+     * @param shardRouter 分片路由 为null时不分片
+     */
+    public void setShardRouter(RedisShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * 设置本地一级缓存，与 RedisService 使用同一个实例
+     *
+     * @param nearCache 本地缓存 为null时不使用
+     */
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 设置热点key探测，与 RedisService 使用同一个实例
+     *
+     * @param hotKeyDetector 探测器 为null时不探测
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
     /**
      * 是否存在Key
      *
@@ -40,7 +129,7 @@ public class RedisKeyUtil {
         }
         Boolean hasKey = false;
         try {
-            hasKey = redisTemplate.hasKey(key);
+            hasKey = timed("exists", key, () -> ops(key).hasKey(key));
         } catch (Exception e) {
             log.error("发生异常：{}", e.getMessage(), e);
             throw new RuntimeException(e);
@@ -59,7 +148,8 @@ public class RedisKeyUtil {
     public Boolean expire(String key, long time, TimeUnit timeUnit) {
         try {
             if (time > 0) {
-                redisTemplate.expire(key, time, timeUnit);
+                timed("expire", key, () -> ops(key).expire(key, time, timeUnit));
+                invalidateLocal(Collections.singletonList(key));
             }
             return Boolean.TRUE;
         } catch (Exception e) {
@@ -75,7 +165,7 @@ public class RedisKeyUtil {
      * @return 过期时间（秒）
      */
     public Long getExpire(String key) {
-        return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        return timed("ttl", key, () -> ops(key).getExpire(key, TimeUnit.SECONDS));
     }
 
     /**
@@ -86,10 +176,13 @@ public class RedisKeyUtil {
     public void del(String... key) {
         if (key != null && key.length > 0) {
             if (key.length == 1) {
-                redisTemplate.delete(key[0]);
+                timed("del", key[0], () -> ops(key[0]).delete(key[0]));
+            } else if (slotExecutor != null) {
+                timed("del", null, () -> slotExecutor.delete(Arrays.asList(key)));
             } else {
-                redisTemplate.delete(Arrays.asList(key));
+                timed("del", null, () -> redisTemplate.delete(Arrays.asList(key)));
             }
+            invalidateLocal(Arrays.asList(key));
         }
     }
 
@@ -98,15 +191,197 @@ public class RedisKeyUtil {
      *
      * @param patternKey 正则表达式
      * @return 匹配key列表
+     * @deprecated KEYS 会阻塞 Redis，key较多时可能长达数秒；改用 {@link #scan(String, long)}
      */
+    @Deprecated
     public Set<String> keys(String patternKey) {
-        try {
-            return (Set<String>) redisTemplate.keys(patternKey);
+        try (Stream<String> keys = scan(patternKey, DEFAULT_SCAN_COUNT)) {
+            return keys.collect(Collectors.toSet());
         } catch (Exception e) {
             log.error("发生异常：{}", e.getMessage(), e);
             return new HashSet<>();
         }
     }
 
+    /**
+     * 以 SCAN 逐批遍历匹配的key
+     * <p>
+     * 返回的流是惰性的，消费到哪里扫描到哪里，内存中只保留少量待消费的key。集群模式下并行扫描所有主节点，
+     * 客户端分片时依次扫描各分片。
+     * 与 SCAN 语义一致：遍历期间新增或删除的key可能被漏掉，同一个key可能返回多次。
+     * 流必须关闭(try-with-resources)，否则连接和扫描线程要等遍历结束才释放：
+     * <pre>
+     *     try (Stream&lt;String&gt; keys = redisKeyUtil.scan("user:*", 1000)) {
+     *         keys.forEach(...);
+     *     }
+     * </pre>
+     *
+     * @param pattern   匹配模式
+     * @param countHint 每次 SCAN 的 COUNT 提示，越大往返越少，单次阻塞越久
+     * @return key流
+     */
+    public Stream<String> scan(String pattern, long countHint) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(countHint).build();
+        if (isCluster()) {
+            RedisConnectionFactory connectionFactory = redisTemplate.getRequiredConnectionFactory();
+            List<RedisClusterNode> masters = new ArrayList<>();
+            try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+                for (RedisClusterNode node : connection.clusterGetNodes()) {
+                    if (node.isMaster() && node.isConnected()) {
+                        masters.add(node);
+                    }
+                }
+            }
+            ClusterScanIterator iterator = new ClusterScanIterator(connectionFactory,
+                    (RedisSerializer<String>) redisTemplate.getKeySerializer(), masters, options,
+                    (int) Math.max(64, Math.min(countHint * 2, 100_000)));
+            return toStream(iterator).onClose(iterator::close);
+        }
+        if (shardRouter != null) {
+            return shardRouter.getShards().stream().flatMap(shard -> scan(shard.getRedisTemplate(), options));
+        }
+        return scan(redisTemplate, options);
+    }
+
+    private static Stream<String> scan(RedisTemplate<String, Object> template, ScanOptions options) {
+        Cursor<String> cursor = template.scan(options);
+        Iterator<String> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                // 遍历结束立即归还连接
+                boolean hasNext = !cursor.isClosed() && cursor.hasNext();
+                if (!hasNext) {
+                    cursor.close();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public String next() {
+                return cursor.next();
+            }
+        };
+        return toStream(iterator).onClose(cursor::close);
+    }
+
+    /**
+     * 按模式批量删除
+     *
+     * @param pattern   匹配模式
+     * @param batchSize 每批删除的key数量，同时作为 SCAN 的 COUNT
+     * @return 删除的数量
+     */
+    public long deleteByPattern(String pattern, int batchSize) {
+        return deleteByPattern(pattern, batchSize, 0, null);
+    }
+
+    /**
+     * 按模式批量删除
+     * <p>
+     * 以 SCAN 流式遍历，每凑满一批执行一次 UNLINK，key不会全部加载到内存，Redis 也不会被长时间阻塞；
+     * UNLINK 在后台线程回收内存，大value的删除不占用 Redis 主线程。
+     * 遍历期间新写入的匹配key可能不会被删除。
+     *
+     * @param pattern       匹配模式
+     * @param batchSize     每批删除的key数量，同时作为 SCAN 的 COUNT
+     * @param keysPerSecond 每秒最多删除的key数量，小于等于0时不限速
+     * @param progress      每批删除后回调，参数为累计删除数量，可以为null
+     * @return 删除的数量
+     */
+    public long deleteByPattern(String pattern, int batchSize, double keysPerSecond, LongConsumer progress) {
+        if (StringUtils.isBlank(pattern) || batchSize <= 0) {
+            throw new IllegalArgumentException("pattern must not be blank and batchSize must be positive");
+        }
+        RateLimiter rateLimiter = keysPerSecond > 0 ? RateLimiter.create(keysPerSecond) : null;
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Stream<String> keys = scan(pattern, batchSize)) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize || !iterator.hasNext()) {
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire(batch.size());
+                    }
+                    deleted += unlink(batch);
+                    invalidateLocal(batch);
+                    batch.clear();
+                    if (progress != null) {
+                        progress.accept(deleted);
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private long unlink(List<String> keys) {
+        if (slotExecutor != null) {
+            return timed("unlink", null, () -> slotExecutor.unlink(keys));
+        }
+        Long count = timed("unlink", null, () -> redisTemplate.unlink(keys));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 失效本节点的本地副本，并用一条消息通知其他节点失效一级缓存
+     */
+    private void invalidateLocal(Collection<String> keys) {
+        if (hotKeyDetector != null) {
+            keys.forEach(hotKeyDetector::invalidate);
+        }
+        if (nearCache == null) {
+            return;
+        }
+        List<String> cached = new ArrayList<>();
+        for (String key : keys) {
+            if (key != null && nearCache.isCached(key)) {
+                nearCache.invalidate(key);
+                cached.add(key);
+            }
+        }
+        if (cached.isEmpty()) {
+            return;
+        }
+        try {
+            String channel = nearCache.getChannel();
+            timed("publish", channel, () -> redisTemplate.convertAndSend(channel, nearCache.invalidationMessage(cached)));
+        } catch (Exception e) {
+            log.error("redis near cache invalidation publish error", e);
+        }
+    }
+
+    private <T> T timed(String op, String key, Supplier<T> action) {
+        RedisMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            metrics.record(op, key, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.record(op, key, start, e);
+            throw e;
+        }
+    }
+
+    private RedisTemplate<String, Object> ops(String key) {
+        return shardRouter == null ? redisTemplate : shardRouter.route(key).getRedisTemplate();
+    }
+
+    private boolean isCluster() {
+        if (slotExecutor != null) {
+            return slotExecutor.isCluster();
+        }
+        return Boolean.TRUE.equals(redisTemplate.execute(
+                (RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection));
+    }
+
+    private static Stream<String> toStream(Iterator<String> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 
 }
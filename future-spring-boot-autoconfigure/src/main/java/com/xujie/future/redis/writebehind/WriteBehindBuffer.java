@@ -0,0 +1,426 @@
+package com.xujie.future.redis.writebehind;
+
+import com.xujie.future.redis.pipeline.RedisPipeline;
+import com.xujie.future.redis.pipeline.Response;
+import com.xujie.future.redis.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步写缓存(write-behind)
+ * <p>
+ * set/hset/hmset 只写入本地队列即返回，同一个key的多次写入合并为一次(后写覆盖先写，hash按字段合并)，
+ * 由后台线程每隔 flushInterval 或积累 batchSize 个key时通过 pipeline 写入 Redis。
+ * 队列中的key数量达到 capacity 时调用方阻塞等待，超过 offerTimeout 后改为同步写入。
+ * <p>
+ * 本节点通过 {@link RedisService#get(String)}/{@link RedisService#hget(String, String)} 可以读到尚未写入的值，
+ * 其他节点要等写入后才能看到；写入失败的key保留在队列中下个周期重试，进程被强制终止时队列中的写入会丢失。
+ * 同一个key不要混用同步写入，队列中的旧值写入时会覆盖同步写入的新值。
+ *
+ * @author Xujie
+ * @since 2025/5/8 09:40
+ **/
+@Slf4j
+public class WriteBehindBuffer implements DisposableBean {
+
+    private final RedisService redisService;
+
+    private final int batchSize;
+
+    private final long offerTimeoutMillis;
+
+    /**
+     * 待写入的key，每个key占用一个 permits
+     */
+    private final Map<String, Write> pending = new ConcurrentHashMap<>();
+
+    private final Semaphore permits;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder writeThrough = new LongAdder();
+
+    private final LongAdder flushedKeys = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder flushCount = new LongAdder();
+
+    private final LongAdder flushNanos = new LongAdder();
+
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * @param redisService  Redis 操作
+     * @param capacity      队列中最多的key数量
+     * @param batchSize     每个 pipeline 写入的key数量，积累到该数量时提前写入
+     * @param flushInterval 写入间隔
+     * @param offerTimeout  队列满时最长等待时间，超时后同步写入
+     */
+    public WriteBehindBuffer(RedisService redisService, int capacity, int batchSize, Duration flushInterval, Duration offerTimeout) {
+        this.redisService = redisService;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeout.toMillis();
+        this.permits = new Semaphore(capacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "future-redis-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值 不能为null
+     * @param time  时间 小于等于0时不设置
+     * @return true 已放入队列或同步写入成功 false 同步写入失败
+     */
+    public boolean set(String key, Object value, long time, TimeUnit timeUnit) {
+        if (value == null) {
+            throw new IllegalArgumentException("write-behind value must not be null");
+        }
+        return submit(key, new Write(value, null, ttlMillis(time, timeUnit)));
+    }
+
+    public boolean set(String key, Object value) {
+        return set(key, value, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 向一张hash表中放入数据
+     *
+     * @param time 整个hash的过期时间 小于等于0时不设置
+     */
+    public boolean hset(String key, String item, Object value, long time, TimeUnit timeUnit) {
+        return hmset(key, Collections.singletonMap(item, value), time, timeUnit);
+    }
+
+    public boolean hset(String key, String item, Object value) {
+        return hset(key, item, value, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 向一张hash表中放入多个字段，与队列中同一个key的字段合并
+     *
+     * @param time 整个hash的过期时间 小于等于0时不设置
+     */
+    public boolean hmset(String key, Map<String, ?> map, long time, TimeUnit timeUnit) {
+        if (map.containsValue(null)) {
+            throw new IllegalArgumentException("write-behind value must not be null");
+        }
+        return submit(key, new Write(null, new LinkedHashMap<>(map), ttlMillis(time, timeUnit)));
+    }
+
+    public boolean hmset(String key, Map<String, ?> map) {
+        return hmset(key, map, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 队列中尚未写入的值
+     *
+     * @return 没有时为null
+     */
+    public Object pendingValue(String key) {
+        Write write = pending.get(key);
+        return write == null ? null : write.value;
+    }
+
+    /**
+     * 队列中尚未写入的hash字段
+     *
+     * @return 没有时为null
+     */
+    public Object pendingField(String key, String item) {
+        Write write = pending.get(key);
+        return write == null || write.fields == null ? null : write.fields.get(item);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * 立即写入队列中的全部key
+     *
+     * @return 写入成功的key数量
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        int written = 0;
+        List<Map.Entry<String, Write>> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<String, Write> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            if (batch.size() >= batchSize) {
+                written += flush(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += flush(batch);
+        }
+        return written;
+    }
+
+    /**
+     * 队列中的key数量
+     */
+    public int getDepth() {
+        return pending.size();
+    }
+
+    /**
+     * 提交的写入次数
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /**
+     * 被合并(未单独写入)的写入次数
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 合并率，被合并的写入占提交写入的比例
+     */
+    public double getCoalescingRatio() {
+        long total = submitted.sum();
+        return total == 0 ? 0 : (double) coalesced.sum() / total;
+    }
+
+    /**
+     * 队列满时改为同步写入的次数
+     */
+    public long getWriteThroughCount() {
+        return writeThrough.sum();
+    }
+
+    public long getFlushedKeys() {
+        return flushedKeys.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * 写入批次数
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * 写入总耗时(纳秒)
+     */
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        if (!pending.isEmpty()) {
+            log.error("redis write-behind buffer closed with {} unwritten keys", pending.size());
+        }
+    }
+
+    private boolean submit(String key, Write write) {
+        submitted.increment();
+        if (coalesce(key, write)) {
+            return true;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            writeThrough.increment();
+            return writeThrough(key, write);
+        }
+        boolean[] merged = new boolean[1];
+        pending.merge(key, write, (previous, current) -> {
+            merged[0] = true;
+            return previous.merge(current);
+        });
+        if (merged[0]) {
+            // 等待期间其他线程放入了同一个key
+            permits.release();
+            coalesced.increment();
+        }
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RuntimeException e) {
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 合并到队列中已有的写入
+     *
+     * @return false 队列中没有该key
+     */
+    private boolean coalesce(String key, Write write) {
+        Write result = pending.computeIfPresent(key, (k, previous) -> previous.merge(write));
+        if (result == null) {
+            return false;
+        }
+        coalesced.increment();
+        return true;
+    }
+
+    private int flush(List<Map.Entry<String, Write>> batch) {
+        long start = System.nanoTime();
+        List<Response<Boolean>> responses = new ArrayList<>(batch.size());
+        try {
+            redisService.pipelined(pipeline -> {
+                for (Map.Entry<String, Write> entry : batch) {
+                    responses.add(issue(pipeline, entry.getKey(), entry.getValue()));
+                }
+            });
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            log.error("redis write-behind flush error, {} keys will be retried", batch.size(), e);
+        }
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Response<Boolean> response = i < responses.size() ? responses.get(i) : null;
+            if (response == null || !response.isDone() || response.isFailed()) {
+                continue;
+            }
+            Map.Entry<String, Write> entry = batch.get(i);
+            // 写入期间被合并过的key保留，下次写入新值
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                permits.release();
+            }
+            written++;
+        }
+        long nanos = System.nanoTime() - start;
+        flushCount.increment();
+        flushNanos.add(nanos);
+        maxFlushNanos.accumulate(nanos);
+        flushedKeys.add(written);
+        return written;
+    }
+
+    /**
+     * 登记一个key的写入命令
+     *
+     * @return 最后一条命令的结果，其成功表示该key的所有命令都已执行
+     */
+    private static Response<Boolean> issue(RedisPipeline pipeline, String key, Write write) {
+        if (write.fields == null) {
+            return write.ttlMillis > 0
+                    ? pipeline.set(key, write.value, write.ttlMillis, TimeUnit.MILLISECONDS)
+                    : pipeline.set(key, write.value);
+        }
+        // HMSET 在 pipeline 中没有回复，逐个字段 HSET
+        Response<Boolean> last = null;
+        for (Map.Entry<String, Object> field : write.fields.entrySet()) {
+            last = pipeline.hset(key, field.getKey(), field.getValue());
+        }
+        if (write.ttlMillis > 0) {
+            last = pipeline.expire(key, write.ttlMillis, TimeUnit.MILLISECONDS);
+        }
+        return last;
+    }
+
+    private boolean writeThrough(String key, Write write) {
+        if (write.fields == null) {
+            return write.ttlMillis > 0
+                    ? redisService.set(key, write.value, write.ttlMillis, TimeUnit.MILLISECONDS)
+                    : redisService.set(key, write.value);
+        }
+        return write.ttlMillis > 0
+                ? redisService.hmset(key, write.fields, write.ttlMillis, TimeUnit.MILLISECONDS)
+                : redisService.hmset(key, write.fields);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("redis write-behind flush error", e);
+        }
+    }
+
+    private static long ttlMillis(long time, TimeUnit timeUnit) {
+        return time > 0 ? timeUnit.toMillis(time) : 0;
+    }
+
+    /**
+     * 一个key待写入的内容，不可变，合并时生成新对象
+     */
+    private static final class Write {
+
+        private final Object value;
+
+        /**
+         * hash 写入的字段，普通值写入时为null
+         */
+        private final Map<String, Object> fields;
+
+        private final long ttlMillis;
+
+        private Write(Object value, Map<String, Object> fields, long ttlMillis) {
+            this.value = value;
+            this.fields = fields;
+            this.ttlMillis = ttlMillis;
+        }
+
+        /**
+         * 后写覆盖先写，同为hash时按字段合并
+         */
+        private Write merge(Write later) {
+            if (fields == null || later.fields == null) {
+                return later;
+            }
+            Map<String, Object> mergedFields = new LinkedHashMap<>(fields);
+            mergedFields.putAll(later.fields);
+            return new Write(null, mergedFields, later.ttlMillis > 0 ? later.ttlMillis : ttlMillis);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- @return long
+-- 延迟队列确认或取消任务，KEYS 依次为 ready、inflight、jobs、attempts，ARGV 为任务id
+-- 返回实际移除的任务数
+local removed = 0
+for i = 1, #ARGV do
+    removed = removed + redis.call('hdel', KEYS[3], ARGV[i])
+    redis.call('zrem', KEYS[1], ARGV[i])
+    redis.call('zrem', KEYS[2], ARGV[i])
+    redis.call('hdel', KEYS[4], ARGV[i])
+end
+return removed
@@ -0,0 +1,41 @@
+-- @return list
+-- 延迟队列认领，KEYS 依次为 ready、inflight、jobs、attempts、dead
+-- ARGV 依次为 当前时间、最多认领数、可见性超时的截止时间、最大投递次数(小于等于0不限制)
+-- 先把可见性超时未确认的任务放回 ready(投递次数达到上限的放入 dead)，再认领到期任务移入 inflight
+-- 返回 {下一个任务的到期时间(没有时为-1), 重新投递数, 转入死信数, id1, 任务1, 投递次数1, id2 ...}
+local now = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local deadline = tonumber(ARGV[3])
+local maxAttempts = tonumber(ARGV[4])
+local redelivered = 0
+local dead = 0
+local expired = redis.call('zrangebyscore', KEYS[2], '-inf', now, 'LIMIT', 0, limit)
+for _, id in ipairs(expired) do
+    redis.call('zrem', KEYS[2], id)
+    local attempts = tonumber(redis.call('hget', KEYS[4], id) or '0')
+    if maxAttempts > 0 and attempts >= maxAttempts then
+        redis.call('zadd', KEYS[5], now, id)
+        dead = dead + 1
+    else
+        redis.call('zadd', KEYS[1], now, id)
+        redelivered = redelivered + 1
+    end
+end
+local result = {-1, redelivered, dead}
+local due = redis.call('zrangebyscore', KEYS[1], '-inf', now, 'LIMIT', 0, limit)
+for _, id in ipairs(due) do
+    redis.call('zrem', KEYS[1], id)
+    local job = redis.call('hget', KEYS[3], id)
+    -- 已被确认或取消的任务没有内容，直接丢弃
+    if job then
+        redis.call('zadd', KEYS[2], deadline, id)
+        result[#result + 1] = id
+        result[#result + 1] = job
+        result[#result + 1] = redis.call('hincrby', KEYS[4], id, 1)
+    end
+end
+local head = redis.call('zrange', KEYS[1], 0, 0, 'WITHSCORES')
+if head[2] then
+    result[1] = tonumber(head[2])
+end
+return result
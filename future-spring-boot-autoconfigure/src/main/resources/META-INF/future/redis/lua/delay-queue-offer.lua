@@ -0,0 +1,9 @@
+-- @return long
+-- 延迟队列入队，KEYS 依次为 ready、jobs、attempts，ARGV 依次为 id1, 到期时间1, 任务1, id2 ...
+-- 相同 id 重复入队时覆盖任务内容和到期时间，投递次数清零
+for i = 1, #ARGV, 3 do
+    redis.call('hset', KEYS[2], ARGV[i], ARGV[i + 2])
+    redis.call('hdel', KEYS[3], ARGV[i])
+    redis.call('zadd', KEYS[1], ARGV[i + 1], ARGV[i])
+end
+return #ARGV / 3
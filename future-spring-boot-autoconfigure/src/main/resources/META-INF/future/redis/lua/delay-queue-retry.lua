@@ -0,0 +1,21 @@
+-- @return list
+-- 延迟队列重试，把仍在 inflight 中的任务放回 ready，KEYS 依次为 inflight、ready、attempts、dead
+-- ARGV 依次为 到期时间、最大投递次数(小于等于0不限制)、id1, id2 ...
+-- 已被确认或已超时重新投递的任务不处理，投递次数达到上限的任务放入 dead
+-- 返回 {放回的任务数, 转入死信数}
+local maxAttempts = tonumber(ARGV[2])
+local moved = 0
+local dead = 0
+for i = 3, #ARGV do
+    if redis.call('zrem', KEYS[1], ARGV[i]) == 1 then
+        local attempts = tonumber(redis.call('hget', KEYS[3], ARGV[i]) or '0')
+        if maxAttempts > 0 and attempts >= maxAttempts then
+            redis.call('zadd', KEYS[4], ARGV[1], ARGV[i])
+            dead = dead + 1
+        else
+            redis.call('zadd', KEYS[2], ARGV[1], ARGV[i])
+            moved = moved + 1
+        end
+    end
+end
+return {moved, dead}
@@ -0,0 +1,6 @@
+-- @return long
+-- 释放租约，仅当租约仍归当前节点(ARGV[1])所有时删除
+if redis.call('get', KEYS[1]) == ARGV[1] then
+    return redis.call('del', KEYS[1])
+end
+return 0
@@ -0,0 +1,7 @@
+-- @return list
+-- 批量 HGET，KEYS 为 key，ARGV 为对应的 field，结果与 KEYS 一一对应，不存在时为 nil
+local results = {}
+for i = 1, #KEYS do
+    results[i] = redis.call('hget', KEYS[i], ARGV[i])
+end
+return results
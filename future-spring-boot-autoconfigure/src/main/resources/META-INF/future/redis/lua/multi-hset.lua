@@ -0,0 +1,6 @@
+-- @return long
+-- 批量 HSET，KEYS 为 key，ARGV 依次为 field1, value1, field2, value2 ...
+for i = 1, #KEYS do
+    redis.call('hset', KEYS[i], ARGV[2 * i - 1], ARGV[2 * i])
+end
+return #KEYS